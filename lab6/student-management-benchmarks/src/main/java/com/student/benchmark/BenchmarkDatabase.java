@@ -0,0 +1,136 @@
+package com.student.benchmark;
+
+import com.student.dao.StudentSearchIndex;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * In-memory H2 database (MySQL mode) with the students table, seeded with generated rows.
+ * The same seed always gives the same data, so runs are comparable.
+ *
+ * createForDao() also installs the indexes from sql/keyset_indexes.sql and sql/search_schema.sql
+ * and a users table, and points the DAOs (DataSourceProvider via AppSettings) at the database.
+ */
+public final class BenchmarkDatabase {
+
+    private static final String SQL_CREATE_STUDENTS =
+            "CREATE TABLE students ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "student_code VARCHAR(20) NOT NULL UNIQUE, "
+                    + "full_name VARCHAR(100) NOT NULL, "
+                    + "email VARCHAR(100) UNIQUE, "
+                    + "major VARCHAR(50), "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    // Same as sql/search_schema.sql, in H2 syntax
+    private static final String[] SQL_SEARCH_SCHEMA = {
+            "ALTER TABLE students ADD COLUMN student_code_lc VARCHAR(50) GENERATED ALWAYS AS (LOWER(student_code))",
+            "ALTER TABLE students ADD COLUMN full_name_lc VARCHAR(255) GENERATED ALWAYS AS (LOWER(full_name))",
+            "ALTER TABLE students ADD COLUMN email_lc VARCHAR(255) GENERATED ALWAYS AS (LOWER(email))",
+            "CREATE INDEX idx_students_code_lc ON students (student_code_lc)",
+            "CREATE INDEX idx_students_name_lc ON students (full_name_lc)",
+            "CREATE INDEX idx_students_email_lc ON students (email_lc)",
+            "CREATE TABLE student_search_tokens ("
+                    + "token VARCHAR(64) NOT NULL, "
+                    + "student_id INT NOT NULL, "
+                    + "PRIMARY KEY (token, student_id))",
+            "CREATE INDEX idx_tokens_student ON student_search_tokens (student_id)"
+    };
+
+    private static final String[] SQL_KEYSET_INDEXES = {
+            "CREATE INDEX idx_students_code_id ON students (student_code, id)",
+            "CREATE INDEX idx_students_name_id ON students (full_name, id)",
+            "CREATE INDEX idx_students_email_id ON students (email, id)",
+            "CREATE INDEX idx_students_major_id ON students (major, id)"
+    };
+
+    private static final String SQL_CREATE_USERS =
+            "CREATE TABLE users ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "username VARCHAR(50) NOT NULL UNIQUE, "
+                    + "password VARCHAR(255) NOT NULL, "
+                    + "full_name VARCHAR(100) NOT NULL, "
+                    + "role VARCHAR(20) NOT NULL DEFAULT 'user', "
+                    + "is_active BOOLEAN DEFAULT TRUE, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "last_login TIMESTAMP NULL)";
+
+    /** Login of the user created by createForDao() */
+    public static final String USERNAME = "admin";
+    public static final String PASSWORD = "password123";
+
+    private BenchmarkDatabase() {
+    }
+
+    public static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Create (or recreate) the named database with rows students.
+     * @return an open connection to it; the database lives until this connection is closed
+     *         and {@link #drop(Connection)} is called
+     */
+    public static Connection create(String name, int rows, long seed) throws SQLException {
+        Connection conn = DriverManager.getConnection(url(name), "sa", "");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+            stmt.execute(SQL_CREATE_STUDENTS);
+        }
+        StudentDataGenerator.generate(conn, rows, 1000, seed);
+        return conn;
+    }
+
+    /**
+     * Create the database with the full application schema and make the DAOs use it.
+     * The student cache is switched off (unless -Dcache.student.enabled is given) so every
+     * DAO call reaches the database.
+     */
+    public static Connection createForDao(String name, int rows, long seed) throws SQLException {
+        Connection conn = create(name, rows, seed);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : SQL_KEYSET_INDEXES) {
+                stmt.execute(sql);
+            }
+            for (String sql : SQL_SEARCH_SCHEMA) {
+                stmt.execute(sql);
+            }
+            stmt.execute(SQL_CREATE_USERS);
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO users (username, password, full_name, role) VALUES (?, ?, ?, 'admin')")) {
+            pstmt.setString(1, USERNAME);
+            pstmt.setString(2, BCrypt.hashpw(PASSWORD, BCrypt.gensalt()));
+            pstmt.setString(3, "Benchmark Admin");
+            pstmt.executeUpdate();
+        }
+
+        setDefault("db.url", url(name));
+        setDefault("db.user", "sa");
+        setDefault("db.password", "");
+        setDefault("cache.student.enabled", "false");
+
+        new StudentSearchIndex().rebuild(conn, 1000);
+        conn.setAutoCommit(true);
+        return conn;
+    }
+
+    // System properties override the settings (see AppSettings); -D on the command line wins
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    public static void drop(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        conn.close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.student.benchmark;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: JMH's own Main, but results are written as JSON by default
+ * so runs can be compared across commits (e.g. with a JMH result visualizer or jq).
+ *
+ * The file is jmh-&lt;label&gt;.json, where the label is -Dbenchmark.label or the start time:
+ *   java -Dbenchmark.label=$(git rev-parse --short HEAD) -jar benchmarks.jar StudentDAOBenchmark
+ * Passing -rf or -rff yourself turns the default off.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        boolean listOnly = jmhArgs.stream().anyMatch(arg -> arg.startsWith("-l") || arg.equals("-h"));
+        if (!listOnly && !jmhArgs.contains("-rf") && !jmhArgs.contains("-rff")) {
+            String label = System.getProperty("benchmark.label",
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+            jmhArgs.addAll(Arrays.asList("-rf", "json", "-rff", "jmh-" + label + ".json"));
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
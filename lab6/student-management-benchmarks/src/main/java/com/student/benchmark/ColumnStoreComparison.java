@@ -0,0 +1,172 @@
+package com.student.benchmark;
+
+import com.student.dao.DataSourceProvider;
+import com.student.dao.StudentColumnStore;
+import com.student.dao.StudentDAO;
+import com.student.dao.StudentPage;
+import com.student.dao.StudentQuery;
+import com.student.model.Student;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Compares the list, filter/sort and search pages read with SQL with the same pages answered
+ * by StudentColumnStore, checks both return the same students, and prints the heap the store
+ * takes (measured after a GC, and as counted by the store) per million students.
+ *
+ * Usage: ColumnStoreComparison [queries]
+ * With 0 queries only the memory is measured (SQL pages on a large H2 table take seconds each).
+ */
+public class ColumnStoreComparison {
+
+    private static final String[] SORTS = {"id", "student_code", "full_name", "email", "major"};
+    private static final String[] KEYWORDS = {"nguyen", "GS00012", "binh", "tran van", "linh.le", "hoa", "edu", "xyz"};
+    private static final int[] PAGES = {1, 2, 10, 100};
+    private static final int PAGE_SIZE = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        StudentDAO dao = new StudentDAO();
+        StudentColumnStore store = StudentColumnStore.getInstance();
+
+        try {
+            List<String> majors = new ArrayList<>(dao.getStudentCountsByMajor().keySet());
+            majors.add(null);
+            Random random = new Random(7);
+            List<StudentQuery> filters = new ArrayList<>();
+            List<StudentQuery> keywordFilters = new ArrayList<>();
+            List<Integer> listPages = new ArrayList<>();
+            List<String> searches = new ArrayList<>();
+            for (int i = 0; i < queries; i++) {
+                String major = majors.get(random.nextInt(majors.size()));
+                String sort = SORTS[random.nextInt(SORTS.length)];
+                String order = random.nextBoolean() ? "asc" : "desc";
+                int page = PAGES[random.nextInt(PAGES.length)];
+                filters.add(new StudentQuery(major, null, sort, order, page, PAGE_SIZE));
+                keywordFilters.add(new StudentQuery(major, KEYWORDS[random.nextInt(KEYWORDS.length)], sort, order,
+                        Math.min(page, 2), PAGE_SIZE));
+                listPages.add(PAGES[random.nextInt(PAGES.length)]);
+                searches.add(KEYWORDS[random.nextInt(KEYWORDS.length)]);
+            }
+            int students = dao.getTotalStudents();
+            System.out.printf("students=%d, majors=%d, queries per kind=%d%n", students, majors.size() - 1, queries);
+
+            // SQL first: the store is not loaded yet
+            List<long[]> sql = new ArrayList<>();
+            List<List<List<Integer>>> fromSql = new ArrayList<>();
+            if (queries > 0) {
+                runAll(dao, listPages, filters, keywordFilters, searches, sql, fromSql);
+            }
+
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            long heapBefore = usedHeap(memory);
+            long start = System.nanoTime();
+            store.reloadAsync();
+            while (!store.isReady()) {
+                Thread.sleep(20);
+            }
+            System.out.printf("store loaded in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+            long heapAfter = usedHeap(memory);
+
+            List<long[]> columnar = new ArrayList<>();
+            List<List<List<Integer>>> fromStore = new ArrayList<>();
+            if (queries > 0) {
+                runAll(dao, listPages, filters, keywordFilters, searches, columnar, fromStore);
+            }
+
+            String[] kinds = {"list (newest first)", "filter/sort", "filter/sort + keyword", "ranked search"};
+            for (int k = 0; k < kinds.length && queries > 0; k++) {
+                int mismatches = 0;
+                for (int i = 0; i < queries; i++) {
+                    if (!fromSql.get(k).get(i).equals(fromStore.get(k).get(i))) {
+                        mismatches++;
+                    }
+                }
+                System.out.printf("%s: pages that differ %d of %d%n", kinds[k], mismatches, queries);
+                report("  SQL", sql.get(k));
+                report("  column store", columnar.get(k));
+            }
+
+            Map<String, Object> stats = store.getStats();
+            System.out.printf("heap: %,d bytes measured (%.1f MB per million students), %,d counted by the store %s%n",
+                    heapAfter - heapBefore, (heapAfter - heapBefore) * 1e6 / students / (1024 * 1024),
+                    stats.get("totalBytes"), stats.get("memoryBytes"));
+            System.out.printf("store: %s bytes per student, %s MB per million students%n",
+                    stats.get("bytesPerStudent"), stats.get("megabytesPerMillionStudents"));
+        } finally {
+            store.shutdown();
+            DataSourceProvider.shutdown();
+        }
+    }
+
+    private static void runAll(StudentDAO dao, List<Integer> listPages, List<StudentQuery> filters,
+                               List<StudentQuery> keywordFilters, List<String> searches,
+                               List<long[]> nanos, List<List<List<Integer>>> ids) {
+        List<List<Integer>> result = new ArrayList<>();
+        nanos.add(run(listPages, page -> ids(dao.getStudentsPage(page, PAGE_SIZE)), result));
+        ids.add(result);
+        result = new ArrayList<>();
+        nanos.add(run(filters, query -> ids(dao.findStudents(query)), result));
+        ids.add(result);
+        result = new ArrayList<>();
+        nanos.add(run(keywordFilters, query -> ids(dao.findStudents(query)), result));
+        ids.add(result);
+        result = new ArrayList<>();
+        nanos.add(run(searches, keyword -> ids(dao.searchStudentsRanked(keyword, 0, PAGE_SIZE + 1)), result));
+        ids.add(result);
+    }
+
+    private static <T> long[] run(List<T> sample, Function<T, List<Integer>> query, List<List<Integer>> results) {
+        // Warm up (pool, statement caches, JIT)
+        for (T item : sample.subList(0, Math.min(20, sample.size()))) {
+            query.apply(item);
+        }
+        long[] nanos = new long[sample.size()];
+        for (int i = 0; i < sample.size(); i++) {
+            long start = System.nanoTime();
+            results.add(query.apply(sample.get(i)));
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static List<Integer> ids(StudentPage page) {
+        List<Integer> ids = ids(page.getStudents());
+        ids.add(-page.getTotal()); // the total must match too
+        return ids;
+    }
+
+    private static List<Integer> ids(List<Student> students) {
+        List<Integer> ids = new ArrayList<>();
+        for (Student student : students) {
+            ids.add(student.getId());
+        }
+        return ids;
+    }
+
+    private static long usedHeap(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1e6;
+        System.out.printf("%-26s mean=%8.3f ms  p50=%8.3f ms  p95=%8.3f ms  max=%8.3f ms%n",
+                label, mean,
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) Math.min(sorted.length - 1, Math.round(sorted.length * 0.95))] / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+}
@@ -0,0 +1,78 @@
+package com.student.benchmark;
+
+import com.student.dao.DataSourceProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One short query with a connection from the pool (DataSourceProvider) against a new
+ * DriverManager connection per call, as the DAOs did before the pool.
+ *
+ * An in-memory H2 connection is far cheaper to open than a MySQL one (no TCP or
+ * authentication handshake), so the difference here is a lower bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ConnectionBenchmark {
+
+    private static final String SQL = "SELECT full_name FROM students WHERE id = ?";
+
+    private Connection conn;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = BenchmarkDatabase.createForDao("connections", 1000, 42L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        DataSourceProvider.shutdown();
+        BenchmarkDatabase.drop(conn);
+    }
+
+    @Benchmark
+    public String pooled() throws SQLException {
+        try (Connection pooled = DataSourceProvider.getConnection()) {
+            return fetch(pooled);
+        }
+    }
+
+    @Benchmark
+    public String driverManager() throws SQLException {
+        try (Connection direct = DriverManager.getConnection(BenchmarkDatabase.url("connections"), "sa", "")) {
+            return fetch(direct);
+        }
+    }
+
+    private static String fetch(Connection connection) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(SQL)) {
+            pstmt.setInt(1, 500);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.student.benchmark;
+
+import com.student.dao.DataSourceProvider;
+import com.student.dao.StudentDAO;
+import com.student.export.StudentExportWriter;
+import com.student.export.StudentExportWriter.Format;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * Measures the export path (DAO streaming + CSV/NDJSON formatting) without a servlet container.
+ * Output is counted and discarded. Run with a small heap (e.g. -Xmx64m) to check that
+ * memory does not grow with the table size.
+ *
+ * Usage: ExportThroughput [csv|ndjson]
+ */
+public class ExportThroughput {
+
+    public static void main(String[] args) throws Exception {
+        Format format = Format.fromParam(args.length > 0 ? args[0] : "csv");
+        CountingOutputStream sink = new CountingOutputStream();
+        StudentExportWriter writer = new StudentExportWriter(sink, format);
+
+        try {
+            long start = System.nanoTime();
+            writer.writeHeader();
+            new StudentDAO().streamAllStudents(writer);
+            writer.finish();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%s: %d rows, %.1f MB in %.2f s -> %.0f rows/s, %.1f MB/s%n",
+                    format, writer.getRows(), sink.bytes / 1e6, seconds,
+                    writer.getRows() / seconds, sink.bytes / 1e6 / seconds);
+            System.out.printf("max heap %d MB, peak heap used %.1f MB%n",
+                    Runtime.getRuntime().maxMemory() / (1024 * 1024), peakHeapUsed() / (1024.0 * 1024));
+        } finally {
+            DataSourceProvider.shutdown();
+        }
+    }
+
+    private static long peakHeapUsed() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
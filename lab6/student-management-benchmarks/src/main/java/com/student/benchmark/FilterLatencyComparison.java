@@ -0,0 +1,115 @@
+package com.student.benchmark;
+
+import com.student.dao.DataSourceProvider;
+import com.student.dao.StudentBitmapIndex;
+import com.student.dao.StudentDAO;
+import com.student.dao.StudentPage;
+import com.student.dao.StudentQuery;
+import com.student.model.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the filter/sort pages read with SQL (WHERE major = ? ORDER BY ... LIMIT/OFFSET)
+ * with the same pages found in StudentBitmapIndex, checks both return the same students,
+ * and prints the memory the index takes.
+ *
+ * Usage: FilterLatencyComparison [queries]
+ * Queries pick a random major (or none), sort column, direction and page (1, 2, 10, 100).
+ */
+public class FilterLatencyComparison {
+
+    private static final String[] SORTS = {"id", "student_code", "full_name", "email", "major"};
+    private static final int[] PAGES = {1, 2, 10, 100};
+    private static final int PAGE_SIZE = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        StudentDAO dao = new StudentDAO();
+        StudentBitmapIndex index = StudentBitmapIndex.getInstance();
+
+        try {
+            List<String> majors = new ArrayList<>(dao.getStudentCountsByMajor().keySet());
+            majors.add(null);
+            List<StudentQuery> sample = new ArrayList<>();
+            Random random = new Random(7);
+            for (int i = 0; i < queries; i++) {
+                sample.add(new StudentQuery(majors.get(random.nextInt(majors.size())), null,
+                        SORTS[random.nextInt(SORTS.length)], random.nextBoolean() ? "asc" : "desc",
+                        PAGES[random.nextInt(PAGES.length)], PAGE_SIZE));
+            }
+            System.out.printf("students=%d, majors=%d, queries=%d%n",
+                    dao.getTotalStudents(), majors.size() - 1, sample.size());
+
+            // SQL first: the index is not built yet, so findStudents runs the statement
+            List<StudentPage> fromSql = new ArrayList<>();
+            long[] sql = run(dao, sample, fromSql);
+
+            long start = System.nanoTime();
+            index.rebuildAsync();
+            while (!Boolean.TRUE.equals(index.getStats().get("sortOrdersCurrent"))) {
+                Thread.sleep(20);
+            }
+            System.out.printf("index built in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+            List<StudentPage> fromIndex = new ArrayList<>();
+            long[] bitmap = run(dao, sample, fromIndex);
+
+            int mismatches = 0;
+            for (int i = 0; i < sample.size(); i++) {
+                if (fromSql.get(i).getTotal() != fromIndex.get(i).getTotal()
+                        || !ids(fromSql.get(i)).equals(ids(fromIndex.get(i)))) {
+                    mismatches++;
+                }
+            }
+
+            report("SQL page + COUNT OVER()", sql);
+            report("bitmap index + id fetch", bitmap);
+            System.out.printf("pages that differ: %d%n", mismatches);
+
+            Map<String, Object> stats = index.getStats();
+            System.out.printf("memory: bitmaps %,d bytes, sort orders %,d bytes, served=%s, fallbacks=%s%n",
+                    stats.get("bitmapBytes"), stats.get("sortOrderBytes"), stats.get("servedPages"), stats.get("fallbacks"));
+        } finally {
+            index.shutdown();
+            DataSourceProvider.shutdown();
+        }
+    }
+
+    private static long[] run(StudentDAO dao, List<StudentQuery> sample, List<StudentPage> pages) {
+        // Warm up (pool, statement caches, JIT)
+        for (StudentQuery query : sample.subList(0, Math.min(20, sample.size()))) {
+            dao.findStudents(query);
+        }
+        long[] nanos = new long[sample.size()];
+        for (int i = 0; i < sample.size(); i++) {
+            long start = System.nanoTime();
+            pages.add(dao.findStudents(sample.get(i)));
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static List<Integer> ids(StudentPage page) {
+        List<Integer> ids = new ArrayList<>();
+        for (Student student : page.getStudents()) {
+            ids.add(student.getId());
+        }
+        return ids;
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1e6;
+        System.out.printf("%-26s mean=%8.2f ms  p50=%8.2f ms  p95=%8.2f ms  max=%8.2f ms%n",
+                label, mean,
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) Math.min(sorted.length - 1, Math.round(sorted.length * 0.95))] / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+}
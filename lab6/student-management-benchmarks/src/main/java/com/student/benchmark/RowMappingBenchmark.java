@@ -0,0 +1,90 @@
+package com.student.benchmark;
+
+import com.student.dao.StudentRowMapper;
+import com.student.model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name-based mapping (rs.getString("full_name"), as the DAOs did before) against
+ * StudentRowMapper with positions resolved once per SQL, over the whole students table.
+ *
+ * Both read the same SELECT * result on the same connection; only the mapping differs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final String SQL = "SELECT * FROM students ORDER BY id";
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private Connection conn;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = BenchmarkDatabase.create("rowmapping", rows, 42L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        BenchmarkDatabase.drop(conn);
+    }
+
+    @Benchmark
+    public List<Student> byName() throws SQLException {
+        List<Student> students = new ArrayList<>(rows);
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                Student student = new Student();
+                student.setId(rs.getInt("id"));
+                student.setStudentCode(rs.getString("student_code"));
+                student.setFullName(rs.getString("full_name"));
+                student.setEmail(rs.getString("email"));
+                student.setMajor(rs.getString("major"));
+                student.setCreatedAt(rs.getTimestamp("created_at"));
+                students.add(student);
+            }
+        }
+        return students;
+    }
+
+    @Benchmark
+    public List<Student> byResolvedIndex() throws SQLException {
+        List<Student> students = new ArrayList<>(rows);
+        StudentRowMapper mapper = StudentRowMapper.INSTANCE;
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            int[] positions = mapper.columns().resolve(SQL, rs);
+            while (rs.next()) {
+                students.add(mapper.mapRow(rs, positions));
+            }
+        }
+        return students;
+    }
+}
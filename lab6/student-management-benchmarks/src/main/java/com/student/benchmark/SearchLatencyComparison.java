@@ -0,0 +1,94 @@
+package com.student.benchmark;
+
+import com.student.dao.DataSourceProvider;
+import com.student.dao.StudentDAO;
+import com.student.model.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the LIKE '%kw%' search with the index-backed ranked search.
+ *
+ * Usage: SearchLatencyComparison [queries]
+ * Keywords are taken from random existing students: a code prefix, a last name,
+ * a first name and an email prefix, i.e. what users type into the search box.
+ */
+public class SearchLatencyComparison {
+
+    public static void main(String[] args) {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        StudentDAO dao = new StudentDAO();
+
+        try {
+            int total = dao.getTotalStudents();
+            List<String> keywords = sampleKeywords(dao, queries);
+            System.out.printf("students=%d, keywords=%d%n", total, keywords.size());
+
+            // Warm up both paths (pool, statement caches, buffer pool)
+            for (String keyword : keywords.subList(0, Math.min(5, keywords.size()))) {
+                dao.searchStudents(keyword);
+                dao.searchStudentsRanked(keyword, 0, 10);
+            }
+
+            long[] legacy = new long[keywords.size()];
+            long[] ranked = new long[keywords.size()];
+            for (int i = 0; i < keywords.size(); i++) {
+                String keyword = keywords.get(i);
+
+                long start = System.nanoTime();
+                dao.searchStudents(keyword);
+                legacy[i] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                dao.searchStudentsRanked(keyword, 0, 10);
+                ranked[i] = System.nanoTime() - start;
+            }
+
+            report("LIKE '%kw%' (all rows)", legacy);
+            report("ranked, first page", ranked);
+        } finally {
+            DataSourceProvider.shutdown();
+        }
+    }
+
+    private static List<String> sampleKeywords(StudentDAO dao, int queries) {
+        List<String> keywords = new ArrayList<>();
+        List<Student> sample = dao.getStudentsPageAfter(null, 1000);
+        Random random = new Random(7);
+
+        while (keywords.size() < queries && !sample.isEmpty()) {
+            Student student = sample.get(random.nextInt(sample.size()));
+            String[] names = student.getFullName().split(" ");
+            switch (keywords.size() % 4) {
+                case 0:
+                    keywords.add(student.getStudentCode().substring(0, Math.min(6, student.getStudentCode().length())));
+                    break;
+                case 1:
+                    keywords.add(names[0]);
+                    break;
+                case 2:
+                    keywords.add(names[names.length - 1]);
+                    break;
+                default:
+                    String email = student.getEmail() == null ? student.getFullName() : student.getEmail();
+                    keywords.add(email.substring(0, Math.min(4, email.length())));
+                    break;
+            }
+        }
+        return keywords;
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1e6;
+        System.out.printf("%-26s mean=%8.2f ms  p50=%8.2f ms  p95=%8.2f ms  max=%8.2f ms%n",
+                label, mean,
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) Math.min(sorted.length - 1, Math.round(sorted.length * 0.95))] / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+}
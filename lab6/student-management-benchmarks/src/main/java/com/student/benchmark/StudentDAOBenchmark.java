@@ -0,0 +1,124 @@
+package com.student.benchmark;
+
+import com.student.dao.DataSourceProvider;
+import com.student.dao.PageCursor;
+import com.student.dao.StudentCounters;
+import com.student.dao.StudentDAO;
+import com.student.model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The StudentDAO read paths behind the student list, search, sort and filter pages,
+ * through the real connection pool, with the student cache switched off.
+ *
+ * Run a subset with e.g. java -jar benchmarks.jar StudentDAOBenchmark.search -p rows=100000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentDAOBenchmark {
+
+    private static final int PAGE = 10;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"Nguyen"})
+    public String keyword;
+
+    private Connection conn;
+    private StudentDAO studentDAO;
+    private String major;
+    private int middleId;
+    private PageCursor nameCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = BenchmarkDatabase.createForDao("studentdao", rows, 42L);
+        studentDAO = new StudentDAO();
+        major = StudentDataGenerator.MAJORS[0];
+        middleId = rows / 2;
+
+        // Cursor in the middle of the name-sorted list of one major
+        List<Student> firstHalf = studentDAO.getStudentsFilteredAndSortedAfter(major, "full_name", "asc", null, rows / 8);
+        nameCursor = studentDAO.cursorFor(firstHalf.get(firstHalf.size() - 1), "full_name");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        StudentCounters.getInstance().shutdown();
+        DataSourceProvider.shutdown();
+        BenchmarkDatabase.drop(conn);
+    }
+
+    @Benchmark
+    public Student getById() {
+        return studentDAO.getStudentById(middleId);
+    }
+
+    @Benchmark
+    public List<Student> paginatedFirstPage() {
+        return studentDAO.getStudentsPaginated(0, PAGE);
+    }
+
+    @Benchmark
+    public List<Student> paginatedMiddlePage() {
+        return studentDAO.getStudentsPaginated(rows / 2, PAGE);
+    }
+
+    @Benchmark
+    public List<Student> keysetMiddlePage() {
+        return studentDAO.getStudentsPageAfter(middleId, PAGE + 1);
+    }
+
+    @Benchmark
+    public List<Student> searchLike() {
+        return studentDAO.searchStudents(keyword);
+    }
+
+    @Benchmark
+    public List<Student> searchRankedFirstPage() {
+        return studentDAO.searchStudentsRanked(keyword, 0, PAGE + 1);
+    }
+
+    @Benchmark
+    public List<Student> sortedAll() {
+        return studentDAO.getStudentsSorted("full_name", "asc");
+    }
+
+    @Benchmark
+    public List<Student> filterByMajor() {
+        return studentDAO.getStudentsByMajor(major);
+    }
+
+    @Benchmark
+    public List<Student> filterSortedKeysetPage() {
+        return studentDAO.getStudentsFilteredAndSortedAfter(major, "full_name", "asc", nameCursor, PAGE + 1);
+    }
+
+    @Benchmark
+    public Map<String, Long> countByMajor() {
+        return studentDAO.countStudentsByMajor();
+    }
+}
@@ -0,0 +1,116 @@
+package com.student.benchmark;
+
+import com.student.dao.DataSourceProvider;
+import com.student.dao.StudentSearchIndex;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+/**
+ * Fills the students table with generated rows for load and latency tests.
+ *
+ * Usage: StudentDataGenerator <count> [--reindex]
+ * The target database is taken from -Ddb.url / -Ddb.user / -Ddb.password (see DataSourceProvider).
+ * Add rewriteBatchedStatements=true to a MySQL URL for much faster inserts.
+ * --reindex rebuilds student_search_tokens afterwards (use a count of 0 to only reindex).
+ */
+public class StudentDataGenerator {
+
+    public static final String[] MAJORS = {
+            "Computer Science",
+            "Information Technology",
+            "Software Engineering",
+            "Business Administration"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Nguyen", "Tran", "Le", "Pham", "Hoang", "Huynh", "Phan", "Vu", "Vo", "Dang",
+            "Bui", "Do", "Ho", "Ngo", "Duong", "Ly", "Truong", "Dinh", "Mai", "Trinh"
+    };
+
+    private static final String[] MIDDLE_NAMES = {
+            "Van", "Thi", "Minh", "Ngoc", "Duc", "Thanh", "Quoc", "Anh", "Hoai", "Gia", "The", "Bao"
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "An", "Binh", "Chau", "Dung", "Giang", "Hai", "Hanh", "Hieu", "Hoa", "Hung",
+            "Khoa", "Khoi", "Lan", "Linh", "Long", "Mai", "Nam", "Nhung", "Phong", "Phuc",
+            "Quan", "Quang", "Son", "Tam", "Thao", "Thu", "Trang", "Tuan", "Viet", "Yen"
+    };
+
+    private static final String SQL_INSERT =
+            "INSERT INTO students (student_code, full_name, email, major) VALUES (?, ?, ?, ?)";
+
+    public static void main(String[] args) throws SQLException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        boolean reindex = args.length > 1 && "--reindex".equals(args[1]);
+
+        try (Connection conn = DataSourceProvider.getConnection()) {
+            if (count > 0) {
+                long start = System.nanoTime();
+                generate(conn, count, 1000, 42L);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("Inserted %d students in %.1f s (%.0f rows/s)%n", count, seconds, count / seconds);
+            }
+
+            if (reindex) {
+                StudentSearchIndex index = new StudentSearchIndex();
+                if (index.isAvailable(conn)) {
+                    long start = System.nanoTime();
+                    int indexed = index.rebuild(conn, 5000);
+                    System.out.printf("Indexed %d students in %.1f s%n", indexed, (System.nanoTime() - start) / 1e9);
+                }
+            }
+        } finally {
+            DataSourceProvider.shutdown();
+        }
+    }
+
+    /**
+     * Insert count generated students with batched statements.
+     * Student codes continue after the current highest id so repeated runs do not collide.
+     */
+    public static void generate(Connection conn, int count, int batchSize, long seed) throws SQLException {
+        Random random = new Random(seed);
+        int next = 1;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM students")) {
+            if (rs.next()) {
+                next = rs.getInt(1) + 1;
+            }
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT)) {
+            for (int i = 0; i < count; i++) {
+                int seq = next + i;
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                String middle = MIDDLE_NAMES[random.nextInt(MIDDLE_NAMES.length)];
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+
+                pstmt.setString(1, String.format("GS%07d", seq));
+                pstmt.setString(2, last + " " + middle + " " + first);
+                pstmt.setString(3, (first + "." + last + seq).toLowerCase() + "@student.edu.vn");
+                pstmt.setString(4, MAJORS[random.nextInt(MAJORS.length)]);
+                pstmt.addBatch();
+
+                if ((i + 1) % batchSize == 0) {
+                    pstmt.executeBatch();
+                    conn.commit();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.student.benchmark;
+
+import com.student.dao.DataSourceProvider;
+import com.student.dao.LastLoginWriter;
+import com.student.dao.UserDAO;
+import com.student.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserDAO.authenticate (lookup + BCrypt check + last_login write-behind) against the
+ * lookup alone, to show how much of a login is the hash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDAOBenchmark {
+
+    private Connection conn;
+    private UserDAO userDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = BenchmarkDatabase.createForDao("userdao", 100, 42L);
+        userDAO = new UserDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        LastLoginWriter.getInstance().shutdown();
+        DataSourceProvider.shutdown();
+        BenchmarkDatabase.drop(conn);
+    }
+
+    @Benchmark
+    public User authenticate() {
+        return userDAO.authenticate(BenchmarkDatabase.USERNAME, BenchmarkDatabase.PASSWORD);
+    }
+
+    @Benchmark
+    public User authenticateWrongPassword() {
+        return userDAO.authenticate(BenchmarkDatabase.USERNAME, "wrong-password");
+    }
+
+    @Benchmark
+    public User findActiveUser() {
+        return userDAO.findActiveUser(BenchmarkDatabase.USERNAME);
+    }
+}
@@ -0,0 +1,50 @@
+package com.student.benchmark;
+
+import com.student.model.Student;
+import com.student.service.StudentValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StudentValidator.validate, run for every form submit and every CSV import row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private final Student valid = student("SV12345", "Nguyen Van An", "an.nguyen@example.com", "Computer Science");
+    private final Student invalid = student("sv1", "A", "not-an-email", " ");
+
+    @Benchmark
+    public Map<String, String> validStudent() {
+        return StudentValidator.validate(valid);
+    }
+
+    @Benchmark
+    public Map<String, String> invalidStudent() {
+        return StudentValidator.validate(invalid);
+    }
+
+    private static Student student(String code, String name, String email, String major) {
+        Student student = new Student();
+        student.setStudentCode(code);
+        student.setFullName(name);
+        student.setEmail(email);
+        student.setMajor(major);
+        return student;
+    }
+}
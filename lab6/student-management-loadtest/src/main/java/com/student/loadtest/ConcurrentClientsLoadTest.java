@@ -0,0 +1,119 @@
+package com.student.loadtest;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and latency of one page with many clients connected at the same time.
+ *
+ * Usage: ConcurrentClientsLoadTest baseUrl username password [clients] [seconds] [path]
+ * e.g.   ConcurrentClientsLoadTest http://localhost:8080/student-management-mvc admin password123 2000 30
+ *
+ * Every client sends its next request as soon as the previous one is answered (closed model),
+ * so with a slow database the server has `clients` requests in flight the whole time.
+ * Run it once with -Dasync.enabled=false and once with async.enabled=true on the server
+ * to compare blocking and async processing of StudentController.
+ */
+public class ConcurrentClientsLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Usage: ConcurrentClientsLoadTest baseUrl username password [clients] [seconds] [path]");
+            return;
+        }
+        String baseUrl = args[0].endsWith("/") ? args[0] : args[0] + "/";
+        String username = args[1];
+        String password = args[2];
+        int clients = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+        String path = args.length > 5 ? args[5] : "student?action=list";
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpResponse<Void> login = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (login.statusCode() != 302) {
+            System.out.println("Login failed with status " + login.statusCode());
+            return;
+        }
+
+        HttpRequest page = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+
+        // Responses started after the warm-up and before the end are counted
+        long warmUpEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.min(5, seconds / 5));
+        long end = warmUpEnd + TimeUnit.SECONDS.toNanos(seconds);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int i = 0; i < clients; i++) {
+            next(client, page, warmUpEnd, end, latencies, statuses, done);
+        }
+        done.await(seconds + 120L, TimeUnit.SECONDS);
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf("clients=%d  seconds=%d  requests=%d  throughput=%.1f req/s%n",
+                clients, seconds, sorted.length, sorted.length / (double) seconds);
+        if (sorted.length > 0) {
+            System.out.printf("latency  mean=%8.1f ms  p50=%8.1f ms  p95=%8.1f ms  p99=%8.1f ms  max=%8.1f ms%n",
+                    Arrays.stream(sorted).average().orElse(0) / 1e6,
+                    percentile(sorted, 0.50) / 1e6,
+                    percentile(sorted, 0.95) / 1e6,
+                    percentile(sorted, 0.99) / 1e6,
+                    sorted[sorted.length - 1] / 1e6);
+        }
+        System.out.println("responses by status (-1 = connection error or timeout): " + new TreeMap<>(statuses));
+    }
+
+    // One client: send, record, repeat until the end of the run
+    private static void next(HttpClient client, HttpRequest page, long warmUpEnd, long end,
+                             ConcurrentLinkedQueue<Long> latencies, Map<Integer, AtomicInteger> statuses,
+                             CountDownLatch done) {
+        long start = System.nanoTime();
+        if (start >= end) {
+            done.countDown();
+            return;
+        }
+        client.sendAsync(page, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (start >= warmUpEnd) {
+                        int status = error == null ? response.statusCode() : -1;
+                        statuses.computeIfAbsent(status, k -> new AtomicInteger()).incrementAndGet();
+                        if (status == 200) {
+                            latencies.add(System.nanoTime() - start);
+                        }
+                    }
+                    next(client, page, warmUpEnd, end, latencies, statuses, done);
+                });
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(sorted.length * p))];
+    }
+}
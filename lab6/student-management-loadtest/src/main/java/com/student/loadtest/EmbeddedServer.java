@@ -0,0 +1,40 @@
+package com.student.loadtest;
+
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+
+import java.io.File;
+
+/**
+ * The WAR in an embedded Tomcat on a free local port, at context path /app.
+ */
+final class EmbeddedServer {
+
+    private final Tomcat tomcat = new Tomcat();
+
+    EmbeddedServer(File war, File workDir, int maxThreads) {
+        workDir.mkdirs();
+        tomcat.setBaseDir(workDir.getAbsolutePath());
+        tomcat.setPort(0);
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(maxThreads));
+        tomcat.getHost().setAppBase(new File(workDir, "webapps").getAbsolutePath());
+        tomcat.addWebapp("/app", war.getAbsolutePath());
+    }
+
+    /**
+     * @return base URL of the web application, e.g. http://localhost:54321/app/
+     */
+    String start() throws LifecycleException {
+        tomcat.start();
+        return "http://localhost:" + tomcat.getConnector().getLocalPort() + "/app/";
+    }
+
+    void stop() {
+        try {
+            tomcat.stop();
+            tomcat.destroy();
+        } catch (LifecycleException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.student.loadtest;
+
+import org.h2.tools.Server;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fault-injection test of DatabaseGuard: the application reaches the H2 database over TCP
+ * through a PausableProxy, and the proxy stops forwarding in the middle of the run, like a
+ * MySQL server that hangs. Three stages at the same rate, each followed by /admin/database:
+ *
+ *   healthy   normal traffic, fills the cache of list pages
+ *   paused    database hangs: statements time out, the breaker opens, list pages come from the
+ *             cache and the number of hung request threads stays within the bulkheads
+ *   recovered proxy resumed: the breaker probes, closes, and errors stop
+ *
+ * Fails (exit code 1) unless the recovered stage has under 5% errors with the breaker closed.
+ * Run it with mvn verify -Pfault-test from lab6/ (see the module's pom.xml).
+ *
+ * Settings (system properties, plus the loadtest.* ones of LoadTestMain that apply):
+ *   faulttest.rate            requests per second (30)
+ *   faulttest.healthySeconds  (15)
+ *   faulttest.pausedSeconds   (30)
+ *   faulttest.recoverySeconds (20)
+ * With mvn verify -Pfault-test other settings go in -Dloadtest.jvmArgs (see LoadTestMain).
+ */
+public final class FaultInjectionMain {
+
+    private FaultInjectionMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String war = System.getProperty("loadtest.war");
+        if (war == null || !new File(war).exists()) {
+            System.out.println("Set -Dloadtest.war to the student-management-mvc WAR (build it first): " + war);
+            System.exit(2);
+        }
+        double rate = Double.parseDouble(System.getProperty("faulttest.rate", "30"));
+        int healthySeconds = Integer.getInteger("faulttest.healthySeconds", 15);
+        int pausedSeconds = Integer.getInteger("faulttest.pausedSeconds", 30);
+        int recoverySeconds = Integer.getInteger("faulttest.recoverySeconds", 20);
+        int rows = Integer.getInteger("loadtest.rows", 10000);
+        int sessions = Math.max(1, Integer.getInteger("loadtest.sessions", 5));
+        Map<Operation, Integer> mix = OpenModelDriver.parseMix(System.getProperty("loadtest.mix",
+                "list:35,search:20,sort:10,filter:10,edit:10,insert:8,update:7"));
+        File workDir = new File(System.getProperty("loadtest.workDir", "target/tomcat"));
+
+        System.out.printf("Seeding %d students...%n", rows);
+        Connection keepAlive = LoadTestDatabase.create(rows, 42L);
+
+        // The same in-memory database over TCP, with the proxy in between
+        Server tcpServer = Server.createTcpServer("-tcpPort", String.valueOf(freePort()), "-tcpDaemon").start();
+        PausableProxy proxy = new PausableProxy("127.0.0.1", tcpServer.getPort());
+        System.setProperty("db.url", "jdbc:h2:tcp://127.0.0.1:" + proxy.getPort()
+                + "/mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+
+        EmbeddedServer server = new EmbeddedServer(new File(war), workDir, Integer.getInteger("loadtest.maxThreads", 200));
+        int exitCode = 0;
+        try {
+            String baseUrl = server.start();
+            System.out.println("Application started at " + baseUrl + ", database behind proxy port " + proxy.getPort());
+
+            List<HttpClient> admins = new ArrayList<>();
+            List<HttpClient> all = new ArrayList<>();
+            for (int i = 0; i < sessions; i++) {
+                admins.add(LoadTestMain.login(baseUrl, LoadTestDatabase.ADMIN_USERNAME));
+                all.add(LoadTestMain.login(baseUrl, LoadTestDatabase.USER_USERNAME));
+            }
+            all.addAll(admins);
+            OpenModelDriver driver = new OpenModelDriver(baseUrl, admins, all, mix, rows,
+                    Integer.getInteger("loadtest.maxInFlight", 2000), 7L);
+
+            System.out.printf("%n##### healthy: %ds at %.0f req/s%n", healthySeconds, rate);
+            driver.run(rate, healthySeconds).print();
+            printGuard(admins.get(0), baseUrl);
+
+            System.out.printf("%n##### paused: database hangs for %ds%n", pausedSeconds);
+            proxy.pause();
+            StageResult paused;
+            try {
+                paused = driver.run(rate, pausedSeconds);
+            } finally {
+                proxy.resume();
+            }
+            paused.print();
+            printGuard(admins.get(0), baseUrl);
+
+            System.out.printf("%n##### recovered: %ds after resuming the database%n", recoverySeconds);
+            StageResult recovered = driver.run(rate, recoverySeconds);
+            recovered.print();
+            String guard = printGuard(admins.get(0), baseUrl);
+
+            if (recovered.errorPercent() >= 5.0 || !guard.contains("\"state\":\"CLOSED\"")) {
+                System.out.printf("%nFAILED: %.2f%% errors after the database came back%n", recovered.errorPercent());
+                exitCode = 1;
+            } else {
+                System.out.printf("%nPASSED: %.2f%% errors after the database came back%n", recovered.errorPercent());
+            }
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            exitCode = 1;
+        } finally {
+            server.stop();
+            proxy.close();
+            tcpServer.stop();
+            keepAlive.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static String printGuard(HttpClient admin, String baseUrl) throws Exception {
+        HttpResponse<String> response = admin.send(HttpRequest.newBuilder(URI.create(baseUrl + "admin/database"))
+                        .timeout(Duration.ofSeconds(10)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.println("/admin/database: " + response.body());
+        return response.body();
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
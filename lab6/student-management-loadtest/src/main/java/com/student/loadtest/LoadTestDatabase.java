@@ -0,0 +1,109 @@
+package com.student.loadtest;
+
+import com.student.benchmark.StudentDataGenerator;
+import com.student.dao.DataSourceProvider;
+import com.student.dao.StudentSearchIndex;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * In-memory H2 database (MySQL mode) with the application schema: students with the keyset
+ * and search indexes, the search token table and users. It lives as long as the JVM, and the
+ * web application reaches it through db.url (system properties override web.xml).
+ */
+final class LoadTestDatabase {
+
+    static final String URL = "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    static final String ADMIN_USERNAME = "admin";
+    static final String USER_USERNAME = "user";
+    static final String PASSWORD = "password123";
+
+    private static final String[] SQL_SCHEMA = {
+            "CREATE TABLE students ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "student_code VARCHAR(20) NOT NULL UNIQUE, "
+                    + "full_name VARCHAR(100) NOT NULL, "
+                    + "email VARCHAR(100) UNIQUE, "
+                    + "major VARCHAR(50), "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+            // sql/keyset_indexes.sql
+            "CREATE INDEX idx_students_code_id ON students (student_code, id)",
+            "CREATE INDEX idx_students_name_id ON students (full_name, id)",
+            "CREATE INDEX idx_students_email_id ON students (email, id)",
+            "CREATE INDEX idx_students_major_id ON students (major, id)",
+            // sql/search_schema.sql
+            "ALTER TABLE students ADD COLUMN student_code_lc VARCHAR(50) GENERATED ALWAYS AS (LOWER(student_code))",
+            "ALTER TABLE students ADD COLUMN full_name_lc VARCHAR(255) GENERATED ALWAYS AS (LOWER(full_name))",
+            "ALTER TABLE students ADD COLUMN email_lc VARCHAR(255) GENERATED ALWAYS AS (LOWER(email))",
+            "CREATE INDEX idx_students_code_lc ON students (student_code_lc)",
+            "CREATE INDEX idx_students_name_lc ON students (full_name_lc)",
+            "CREATE INDEX idx_students_email_lc ON students (email_lc)",
+            "CREATE TABLE student_search_tokens ("
+                    + "token VARCHAR(64) NOT NULL, "
+                    + "student_id INT NOT NULL, "
+                    + "PRIMARY KEY (token, student_id), "
+                    + "FOREIGN KEY (student_id) REFERENCES students (id) ON DELETE CASCADE)",
+            "CREATE INDEX idx_tokens_student ON student_search_tokens (student_id)",
+            "CREATE TABLE users ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "username VARCHAR(50) NOT NULL UNIQUE, "
+                    + "password VARCHAR(255) NOT NULL, "
+                    + "full_name VARCHAR(100) NOT NULL, "
+                    + "role VARCHAR(20) NOT NULL DEFAULT 'user', "
+                    + "is_active BOOLEAN DEFAULT TRUE, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "last_login TIMESTAMP NULL)"
+    };
+
+    private LoadTestDatabase() {
+    }
+
+    /**
+     * Create the schema, seed rows students and the two login users.
+     * @return an open connection that keeps the database alive
+     */
+    static Connection create(int rows, long seed) throws SQLException {
+        System.setProperty("db.url", URL);
+        System.setProperty("db.user", "sa");
+        System.setProperty("db.password", "");
+
+        Connection conn = DriverManager.getConnection(URL, "sa", "");
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : SQL_SCHEMA) {
+                stmt.execute(sql);
+            }
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO users (username, password, full_name, role) VALUES (?, ?, ?, ?)")) {
+            String hash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt());
+            addUser(pstmt, ADMIN_USERNAME, hash, "Load Test Admin", "admin");
+            addUser(pstmt, USER_USERNAME, hash, "Load Test User", "user");
+            pstmt.executeBatch();
+        }
+
+        StudentDataGenerator.generate(conn, rows, 1000, seed);
+
+        // The rebuild reads through DataSourceProvider; close that pool again (the web
+        // application has its own copy of the class and its own pool)
+        new StudentSearchIndex().rebuild(conn, 1000);
+        conn.setAutoCommit(true);
+        DataSourceProvider.shutdown();
+        return conn;
+    }
+
+    private static void addUser(PreparedStatement pstmt, String username, String hash, String fullName, String role)
+            throws SQLException {
+        pstmt.setString(1, username);
+        pstmt.setString(2, hash);
+        pstmt.setString(3, fullName);
+        pstmt.setString(4, role);
+        pstmt.addBatch();
+    }
+}
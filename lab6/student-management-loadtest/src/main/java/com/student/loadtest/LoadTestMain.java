@@ -0,0 +1,116 @@
+package com.student.loadtest;
+
+import java.io.File;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Capacity test of the whole application on one machine: seeds an in-memory H2 database,
+ * boots the WAR in embedded Tomcat, logs in admin and user sessions and runs one open-model
+ * stage per rate in loadtest.rates, printing throughput, error rate and latency percentiles
+ * per action. Run it with mvn verify -Pload-test from lab6/ (see the module's pom.xml).
+ *
+ * Settings (system properties):
+ *   loadtest.war            WAR file or exploded directory (required)
+ *   loadtest.rates          requests per second of each stage, e.g. 20,50,100
+ *   loadtest.seconds        length of each stage (30)
+ *   loadtest.warmupSeconds  unreported stage at the first rate (10)
+ *   loadtest.rows           seeded students (10000)
+ *   loadtest.sessions       logged-in sessions per role (5)
+ *   loadtest.mix            action:weight list, actions list|search|sort|filter|edit|insert|update
+ *   loadtest.maxInFlight    requests the generator keeps open at most (2000)
+ *   loadtest.maxThreads     Tomcat maxThreads (200)
+ * Any other system property (e.g. -Ddb.pool.maxSize=20 or -Dasync.enabled=true) reaches the
+ * application through AppSettings. With mvn verify -Pload-test the pom passes on loadtest.rates
+ * to loadtest.mix; the others, application settings and heap go in one property, split at
+ * spaces: -Dloadtest.jvmArgs="-Xmx1g -Dloadtest.maxThreads=50 -Ddb.pool.maxSize=20".
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String war = System.getProperty("loadtest.war");
+        if (war == null || !new File(war).exists()) {
+            System.out.println("Set -Dloadtest.war to the student-management-mvc WAR (build it first): " + war);
+            System.exit(2);
+        }
+        List<Double> rates = new ArrayList<>();
+        for (String rate : System.getProperty("loadtest.rates", "20,50,100").split(",")) {
+            rates.add(Double.parseDouble(rate.trim()));
+        }
+        int seconds = Integer.getInteger("loadtest.seconds", 30);
+        int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 10);
+        int rows = Integer.getInteger("loadtest.rows", 10000);
+        int sessions = Math.max(1, Integer.getInteger("loadtest.sessions", 5));
+        Map<Operation, Integer> mix = OpenModelDriver.parseMix(System.getProperty("loadtest.mix",
+                "list:35,search:20,sort:10,filter:10,edit:10,insert:8,update:7"));
+        int maxInFlight = Integer.getInteger("loadtest.maxInFlight", 2000);
+        File workDir = new File(System.getProperty("loadtest.workDir", "target/tomcat"));
+
+        System.out.printf("Seeding %d students...%n", rows);
+        Connection keepAlive = LoadTestDatabase.create(rows, 42L);
+
+        EmbeddedServer server = new EmbeddedServer(new File(war), workDir, Integer.getInteger("loadtest.maxThreads", 200));
+        int exitCode = 0;
+        try {
+            String baseUrl = server.start();
+            System.out.println("Application started at " + baseUrl);
+
+            List<HttpClient> admins = new ArrayList<>();
+            List<HttpClient> all = new ArrayList<>();
+            for (int i = 0; i < sessions; i++) {
+                admins.add(login(baseUrl, LoadTestDatabase.ADMIN_USERNAME));
+                all.add(login(baseUrl, LoadTestDatabase.USER_USERNAME));
+            }
+            all.addAll(admins);
+            System.out.printf("Logged in %d admin and %d user sessions, mix %s%n", sessions, sessions, mix);
+
+            OpenModelDriver driver = new OpenModelDriver(baseUrl, admins, all, mix, rows, maxInFlight, 7L);
+            if (warmupSeconds > 0) {
+                System.out.printf("Warming up for %ds at %.0f req/s...%n", warmupSeconds, rates.get(0));
+                driver.run(rates.get(0), warmupSeconds);
+            }
+            for (double rate : rates) {
+                driver.run(rate, seconds).print();
+            }
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            exitCode = 1;
+        } finally {
+            server.stop();
+            keepAlive.close();
+        }
+        System.exit(exitCode);
+    }
+
+    // One browser session: its own cookie jar, logged in through the login form
+    static HttpClient login(String baseUrl, String username) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(LoadTestDatabase.PASSWORD, StandardCharsets.UTF_8);
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 302) {
+            throw new IllegalStateException("Login as " + username + " failed with status " + response.statusCode());
+        }
+        return client;
+    }
+}
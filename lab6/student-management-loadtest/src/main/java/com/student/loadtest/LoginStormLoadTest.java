@@ -0,0 +1,119 @@
+package com.student.loadtest;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the latency of a normal page before and during a login storm against a running server.
+ *
+ * Usage: LoginStormLoadTest baseUrl username password [attemptsPerSecond] [seconds]
+ * e.g.   LoginStormLoadTest http://localhost:8080/student-management-mvc admin password123 50 20
+ *
+ * One client logs in and keeps loading student?action=list. Then wrong passwords for the
+ * same user are sent at a fixed rate (open model: a new attempt is started on schedule
+ * whether or not earlier ones have been answered), every attempt costing a BCrypt check.
+ * The list page latency of both phases and the status codes of the login attempts
+ * (200 = checked, 429/503 = shed) are printed.
+ */
+public class LoginStormLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Usage: LoginStormLoadTest baseUrl username password [attemptsPerSecond] [seconds]");
+            return;
+        }
+        String baseUrl = args[0].endsWith("/") ? args[0] : args[0] + "/";
+        String username = args[1];
+        String password = args[2];
+        int attemptsPerSecond = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+        HttpClient browser = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        HttpResponse<Void> login = browser.send(loginRequest(baseUrl, username, password),
+                HttpResponse.BodyHandlers.discarding());
+        if (login.statusCode() != 302) {
+            System.out.println("Login failed with status " + login.statusCode());
+            return;
+        }
+
+        HttpRequest listPage = HttpRequest.newBuilder(URI.create(baseUrl + "student?action=list")).build();
+        measure(browser, listPage, 3); // warm up
+
+        long[] baseline = measure(browser, listPage, seconds);
+        report("list page, idle", baseline);
+
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        HttpClient attacker = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest attempt = loginRequest(baseUrl, username, "wrong-password");
+        ScheduledExecutorService storm = Executors.newSingleThreadScheduledExecutor();
+        storm.scheduleAtFixedRate(() -> attacker.sendAsync(attempt, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            int status = error == null ? response.statusCode() : -1;
+                            statuses.computeIfAbsent(status, k -> new AtomicInteger()).incrementAndGet();
+                        }),
+                0, 1_000_000 / attemptsPerSecond, TimeUnit.MICROSECONDS);
+
+        Thread.sleep(2000); // let the storm build up
+        long[] during = measure(browser, listPage, seconds);
+        storm.shutdownNow();
+
+        report("list page, login storm", during);
+        System.out.println("login attempts by status: " + new TreeMap<>(statuses));
+    }
+
+    private static HttpRequest loginRequest(String baseUrl, String username, String password) {
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    // Load the page back to back for the given time, returns the latencies in nanoseconds
+    private static long[] measure(HttpClient client, HttpRequest request, int seconds) throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < end) {
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("list page returned " + response.statusCode());
+            }
+            latencies.add(System.nanoTime() - start);
+        }
+        return latencies.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1e6;
+        System.out.printf("%-24s n=%5d  mean=%8.2f ms  p50=%8.2f ms  p95=%8.2f ms  p99=%8.2f ms  max=%8.2f ms%n",
+                label, sorted.length, mean,
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) Math.min(sorted.length - 1, Math.round(sorted.length * 0.95))] / 1e6,
+                sorted[(int) Math.min(sorted.length - 1, Math.round(sorted.length * 0.99))] / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+}
@@ -0,0 +1,134 @@
+package com.student.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests with Poisson arrivals at a fixed rate, whether or not earlier requests have
+ * been answered (open model), so a slow server shows up as growing latency instead of a
+ * lower request rate. Latency is measured from the scheduled send time, so a generator that
+ * falls behind does not hide server delays either.
+ */
+final class OpenModelDriver {
+
+    private final String baseUrl;
+    private final List<HttpClient> adminSessions;
+    private final List<HttpClient> allSessions;
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final int rows;
+    private final int maxInFlight;
+    private final Random random;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OpenModelDriver(String baseUrl, List<HttpClient> adminSessions, List<HttpClient> allSessions,
+                    Map<Operation, Integer> mix, int rows, int maxInFlight, long seed) {
+        this.baseUrl = baseUrl;
+        this.adminSessions = adminSessions;
+        this.allSessions = allSessions;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.rows = rows;
+        this.maxInFlight = maxInFlight;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Run one stage and wait (up to a minute) for its last responses.
+     */
+    StageResult run(double ratePerSecond, int seconds) throws InterruptedException {
+        StageResult result = new StageResult(ratePerSecond, seconds);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long next = start;
+
+        while (true) {
+            next += (long) (-Math.log(1 - random.nextDouble()) / ratePerSecond * 1e9);
+            if (next >= end) {
+                break;
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (-wait > TimeUnit.MILLISECONDS.toNanos(10)) {
+                result.late.incrementAndGet();
+            }
+
+            if (inFlight.get() >= maxInFlight) {
+                result.dropped.incrementAndGet();
+                continue;
+            }
+            send(pick(), next, result);
+        }
+
+        long drainUntil = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(50);
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private void send(Operation operation, long scheduledNanos, StageResult result) {
+        List<HttpClient> sessions = operation.isAdminOnly() ? adminSessions : allSessions;
+        HttpClient session = sessions.get(random.nextInt(sessions.size()));
+        HttpRequest request = operation.request(baseUrl, random, rows);
+
+        inFlight.incrementAndGet();
+        session.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - scheduledNanos;
+                    int status = error == null ? response.statusCode() : -1;
+                    result.record(operation, status, latency, error == null && failed(operation, response));
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    // 5xx, 4xx, and writes the application answered with an error redirect or the form again
+    private static boolean failed(Operation operation, HttpResponse<Void> response) {
+        int status = response.statusCode();
+        if (status >= 400) {
+            return true;
+        }
+        if (operation.isWrite()) {
+            String location = response.headers().firstValue("Location").orElse("");
+            return status != 302 || location.contains("error=");
+        }
+        return false;
+    }
+
+    private Operation pick() {
+        int ticket = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("empty mix");
+    }
+
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no operation with a weight: " + spec);
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,101 @@
+package com.student.loadtest;
+
+import com.student.benchmark.StudentDataGenerator;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The requests of the mix, built the way the pages of the application send them
+ * (list paging links, the search and filter forms, the sort headers, the student form).
+ */
+enum Operation {
+
+    LIST(false),
+    SEARCH(false),
+    SORT(false),
+    FILTER(false),
+    EDIT(true),
+    INSERT(true),
+    UPDATE(true);
+
+    private static final String[] KEYWORDS = {
+            "nguyen", "tran", "binh", "linh", "pham van", "hoang thi", "gs00001", "khoa", "yen"
+    };
+    private static final String[] SORT_COLUMNS = {"id", "student_code", "full_name", "email", "major"};
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    // Unique codes and emails for inserted and updated students
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final boolean adminOnly;
+
+    Operation(boolean adminOnly) {
+        this.adminOnly = adminOnly;
+    }
+
+    boolean isAdminOnly() {
+        return adminOnly;
+    }
+
+    boolean isWrite() {
+        return this == INSERT || this == UPDATE;
+    }
+
+    /**
+     * @param rows number of seeded students (ids 1..rows)
+     */
+    HttpRequest request(String baseUrl, Random random, int rows) {
+        String major = StudentDataGenerator.MAJORS[random.nextInt(StudentDataGenerator.MAJORS.length)];
+        int id = 1 + random.nextInt(Math.max(1, rows));
+
+        switch (this) {
+            case LIST:
+                return get(baseUrl, "action=list&page=" + (1 + random.nextInt(50)));
+            case SEARCH:
+                return get(baseUrl, "action=search&keyword=" + encode(KEYWORDS[random.nextInt(KEYWORDS.length)]));
+            case SORT:
+                return get(baseUrl, "action=sort&sortBy=" + SORT_COLUMNS[random.nextInt(SORT_COLUMNS.length)]
+                        + "&order=" + (random.nextBoolean() ? "asc" : "desc"));
+            case FILTER:
+                return get(baseUrl, "action=filter&filterMajor=" + encode(major));
+            case EDIT:
+                return get(baseUrl, "action=edit&id=" + id);
+            case INSERT:
+                return post(baseUrl, "action=insert" + studentForm(major));
+            case UPDATE:
+                return post(baseUrl, "action=update&id=" + id + studentForm(major));
+            default:
+                throw new IllegalStateException(name());
+        }
+    }
+
+    private static String studentForm(String major) {
+        int seq = SEQUENCE.incrementAndGet();
+        return "&studentCode=" + String.format("LT%07d", seq)
+                + "&fullName=" + encode("Load Test " + seq)
+                + "&email=" + encode("lt" + seq + "@loadtest.local")
+                + "&major=" + encode(major);
+    }
+
+    private static HttpRequest get(String baseUrl, String query) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "student?" + query)).timeout(TIMEOUT).build();
+    }
+
+    private static HttpRequest post(String baseUrl, String form) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "student"))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package com.student.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Responses of one load stage, per operation.
+ */
+final class StageResult {
+
+    final double ratePerSecond;
+    final int seconds;
+    final AtomicInteger late = new AtomicInteger();
+    final AtomicInteger dropped = new AtomicInteger();
+    long elapsedNanos;
+
+    private final Map<Operation, OperationStats> byOperation = new EnumMap<>(Operation.class);
+
+    StageResult(double ratePerSecond, int seconds) {
+        this.ratePerSecond = ratePerSecond;
+        this.seconds = seconds;
+        for (Operation operation : Operation.values()) {
+            byOperation.put(operation, new OperationStats());
+        }
+    }
+
+    /**
+     * @param status HTTP status, -1 for a connection error or timeout
+     */
+    void record(Operation operation, int status, long latencyNanos, boolean failed) {
+        OperationStats stats = byOperation.get(operation);
+        if (status < 0) {
+            stats.connectionErrors.incrementAndGet();
+            return;
+        }
+        stats.latencies.add(latencyNanos);
+        if (failed) {
+            stats.errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return failed responses and connection errors, in percent of all requests
+     */
+    double errorPercent() {
+        int sent = 0;
+        int errors = 0;
+        for (OperationStats stats : byOperation.values()) {
+            sent += stats.latencies.size() + stats.connectionErrors.get();
+            errors += stats.errors.get() + stats.connectionErrors.get();
+        }
+        return sent == 0 ? 0.0 : 100.0 * errors / sent;
+    }
+
+    void print() {
+        int sent = 0;
+        int errors = 0;
+        for (OperationStats stats : byOperation.values()) {
+            sent += stats.latencies.size() + stats.connectionErrors.get();
+            errors += stats.errors.get() + stats.connectionErrors.get();
+        }
+
+        System.out.printf("%n=== %.0f req/s offered for %ds: %d requests, %.1f req/s answered, %.2f%% errors, "
+                        + "%d dropped (client limit), %d sent late%n",
+                ratePerSecond, seconds, sent, sent / (elapsedNanos / 1e9),
+                sent == 0 ? 0.0 : 100.0 * errors / sent, dropped.get(), late.get());
+        System.out.printf("%-8s %7s %7s %8s %9s %9s %9s %9s %9s%n",
+                "action", "count", "errors", "error%", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms");
+
+        for (Map.Entry<Operation, OperationStats> entry : byOperation.entrySet()) {
+            OperationStats stats = entry.getValue();
+            long[] sorted = stats.latencies.stream().mapToLong(Long::longValue).toArray();
+            int count = sorted.length + stats.connectionErrors.get();
+            if (count == 0) {
+                continue;
+            }
+            Arrays.sort(sorted);
+            int failed = stats.errors.get() + stats.connectionErrors.get();
+            System.out.printf("%-8s %7d %7d %7.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    entry.getKey().name().toLowerCase(), count, failed, 100.0 * failed / count,
+                    Arrays.stream(sorted).average().orElse(0) / 1e6,
+                    percentile(sorted, 0.50) / 1e6,
+                    percentile(sorted, 0.95) / 1e6,
+                    percentile(sorted, 0.99) / 1e6,
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(sorted.length * p))];
+    }
+
+    private static final class OperationStats {
+        final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger connectionErrors = new AtomicInteger();
+    }
+}
@@ -0,0 +1,8 @@
+-- Composite (sort column, id) indexes used by keyset pagination
+-- (StudentDAO.getStudentsFilteredAndSortedAfter). id is the PRIMARY KEY already.
+USE student_management;
+
+CREATE INDEX idx_students_code_id  ON students (student_code, id);
+CREATE INDEX idx_students_name_id  ON students (full_name, id);
+CREATE INDEX idx_students_email_id ON students (email, id);
+CREATE INDEX idx_students_major_id ON students (major, id);
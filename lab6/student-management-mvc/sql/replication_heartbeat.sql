@@ -0,0 +1,9 @@
+-- Heartbeat row for read-replica lag checks (ReplicaSet, db.replica.lagCheck=heartbeat).
+-- Run on the primary; replication copies it to the replicas. The app writes the current
+-- time to beat_millis every db.replica.checkSeconds and reads it back from each replica.
+USE student_management;
+
+CREATE TABLE replication_heartbeat (
+    id          INT PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+);
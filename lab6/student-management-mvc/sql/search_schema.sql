@@ -0,0 +1,24 @@
+-- Index-backed search for StudentDAO.searchStudentsRanked.
+-- Run once, then rebuild the token table:
+--   java -cp student-management-benchmarks/target/benchmarks.jar com.student.benchmark.StudentDataGenerator 0 --reindex
+USE student_management;
+
+-- Lowercased copies of the searchable columns, kept up to date by MySQL.
+-- LIKE 'kw%' on these uses a range scan instead of a full table scan.
+ALTER TABLE students
+    ADD COLUMN student_code_lc VARCHAR(50)  GENERATED ALWAYS AS (LOWER(student_code)) STORED,
+    ADD COLUMN full_name_lc    VARCHAR(255) GENERATED ALWAYS AS (LOWER(full_name)) STORED,
+    ADD COLUMN email_lc        VARCHAR(255) GENERATED ALWAYS AS (LOWER(email)) STORED,
+    ADD INDEX idx_students_code_lc (student_code_lc),
+    ADD INDEX idx_students_name_lc (full_name_lc),
+    ADD INDEX idx_students_email_lc (email_lc);
+
+-- One row per word of full_name / email (lowercased, accents stripped),
+-- so "binh" finds "Nguyen The Binh" without a leading wildcard.
+CREATE TABLE IF NOT EXISTS student_search_tokens (
+    token      VARCHAR(64) NOT NULL,
+    student_id INT         NOT NULL,
+    PRIMARY KEY (token, student_id),
+    INDEX idx_tokens_student (student_id),
+    CONSTRAINT fk_tokens_student FOREIGN KEY (student_id) REFERENCES students (id) ON DELETE CASCADE
+);
@@ -0,0 +1,47 @@
+package com.student.config;
+
+import java.util.Properties;
+
+/**
+ * Application settings: the context params from web.xml (loaded by AppContextListener),
+ * overridden by JVM system properties so command line tools and benchmarks can change them.
+ */
+public final class AppSettings {
+
+    private static final Properties settings = new Properties();
+
+    private AppSettings() {
+    }
+
+    public static synchronized void load(Properties props) {
+        settings.putAll(props);
+    }
+
+    public static synchronized String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = settings.getProperty(key);
+        }
+        return value == null ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        try {
+            return Long.parseLong(get(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(get(key, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.student.controller;
+
+import com.student.dao.DataSourceProvider;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoint for async request processing (protected by AdminFilter).
+ * GET /admin/async -> AsyncRequestExecutor stats (mode, active, queued, timeouts, rejections)
+ *                     and connection pool stats as JSON
+ */
+@WebServlet("/admin/async")
+public class AdminAsyncController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("requests", AsyncRequestExecutor.getInstance().getStats());
+        body.put("pool", DataSourceProvider.getPoolStats());
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(body));
+    }
+}
@@ -0,0 +1,41 @@
+package com.student.controller;
+
+import com.student.dao.StudentBitmapIndex;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Admin endpoint for the major bitmaps and sort orders (protected by AdminFilter).
+ * GET  /admin/bitmaps                -> students per major, memory, pages served and SQL fallbacks
+ * POST /admin/bitmaps?action=rebuild -> rebuild from the database in the background
+ */
+@WebServlet("/admin/bitmaps")
+public class AdminBitmapsController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(StudentBitmapIndex.getInstance().getStats()));
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        if (!"rebuild".equals(request.getParameter("action"))) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown action: " + request.getParameter("action"));
+            return;
+        }
+        StudentBitmapIndex.getInstance().rebuildAsync();
+        doGet(request, response);
+    }
+}
@@ -0,0 +1,57 @@
+package com.student.controller;
+
+import com.student.dao.DataSourceProvider;
+import com.student.dao.StudentCache;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoint for the student cache (protected by AdminFilter).
+ * GET  /admin/cache                       -> hit/miss/eviction counters and pool stats as JSON
+ * POST /admin/cache?action=enable|disable|clear
+ */
+@WebServlet("/admin/cache")
+public class AdminCacheController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("studentCache", StudentCache.getInstance().getStats());
+        body.put("connectionPool", DataSourceProvider.getPoolStats());
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(body));
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String action = request.getParameter("action");
+        StudentCache cache = StudentCache.getInstance();
+
+        if ("enable".equals(action)) {
+            cache.setEnabled(true);
+        } else if ("disable".equals(action)) {
+            cache.setEnabled(false);
+        } else if ("clear".equals(action)) {
+            cache.invalidateAll();
+        } else {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown action: " + action);
+            return;
+        }
+
+        doGet(request, response);
+    }
+}
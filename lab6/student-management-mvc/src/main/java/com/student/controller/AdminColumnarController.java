@@ -0,0 +1,41 @@
+package com.student.controller;
+
+import com.student.dao.StudentColumnStore;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Admin endpoint for the in-memory students replica (protected by AdminFilter).
+ * GET  /admin/columnar               -> rows, heap use per column and per million students, polls
+ * POST /admin/columnar?action=reload -> load the table again in the background
+ */
+@WebServlet("/admin/columnar")
+public class AdminColumnarController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(StudentColumnStore.getInstance().getStats()));
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        if (!"reload".equals(request.getParameter("action"))) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown action: " + request.getParameter("action"));
+            return;
+        }
+        StudentColumnStore.getInstance().reloadAsync();
+        doGet(request, response);
+    }
+}
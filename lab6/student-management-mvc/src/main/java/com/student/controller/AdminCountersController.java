@@ -0,0 +1,37 @@
+package com.student.controller;
+
+import com.student.dao.StudentCounters;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Admin endpoint for the maintained student counters (protected by AdminFilter).
+ * GET  /admin/counters -> counts, age, reconciliation count and drift as JSON
+ * POST /admin/counters -> reconcile with the database now
+ */
+@WebServlet("/admin/counters")
+public class AdminCountersController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(StudentCounters.getInstance().getStats()));
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        StudentCounters.getInstance().reconcile();
+        doGet(request, response);
+    }
+}
@@ -0,0 +1,48 @@
+package com.student.controller;
+
+import com.student.dao.DataSourceProvider;
+import com.student.dao.DatabaseGuard;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoint for DatabaseGuard (protected by AdminFilter).
+ * GET  /admin/database              -> breaker state, timeouts, bulkhead use and rejections, pool stats
+ * POST /admin/database?action=reset -> close the breaker now
+ */
+@WebServlet("/admin/database")
+public class AdminDatabaseController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("guard", DatabaseGuard.getInstance().getStats());
+        body.put("connectionPool", DataSourceProvider.getPoolStats());
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(body));
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        if (!"reset".equals(request.getParameter("action"))) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown action: " + request.getParameter("action"));
+            return;
+        }
+        DatabaseGuard.getInstance().reset();
+        doGet(request, response);
+    }
+}
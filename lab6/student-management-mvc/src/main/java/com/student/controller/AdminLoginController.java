@@ -0,0 +1,36 @@
+package com.student.controller;
+
+import com.student.dao.LastLoginWriter;
+import com.student.service.PasswordHashingService;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoint for the login hashing pool (protected by AdminFilter).
+ * GET /admin/login -> hashing pool (queue depth, active threads, rejections, hash latency)
+ *                     and last_login write-behind queue stats as JSON
+ */
+@WebServlet("/admin/login")
+public class AdminLoginController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("passwordHashing", PasswordHashingService.getInstance().getStats());
+        body.put("lastLoginWriter", LastLoginWriter.getInstance().getStats());
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(body));
+    }
+}
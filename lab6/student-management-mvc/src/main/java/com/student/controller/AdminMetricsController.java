@@ -0,0 +1,28 @@
+package com.student.controller;
+
+import com.student.metrics.Metrics;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Admin endpoint for request and SQL metrics (protected by AdminFilter).
+ * GET /admin/metrics -> latency quantiles (p50/p95/p99), max, in-flight, errors and database
+ *                       time per path/action, and per SQL statement, in Prometheus text format
+ */
+@WebServlet("/admin/metrics")
+public class AdminMetricsController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("text/plain; version=0.0.4");
+        response.setCharacterEncoding("UTF-8");
+        Metrics.getInstance().writePrometheus(response.getWriter());
+    }
+}
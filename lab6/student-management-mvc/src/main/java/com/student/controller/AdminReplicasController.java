@@ -0,0 +1,33 @@
+package com.student.controller;
+
+import com.student.dao.DataSourceProvider;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoint for read-replica routing (protected by AdminFilter).
+ * GET /admin/replicas -> per replica: usable, lag, reads and failures; plus the primary pool stats
+ */
+@WebServlet("/admin/replicas")
+public class AdminReplicasController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        Map<String, Object> body = new LinkedHashMap<>(DataSourceProvider.getReplicaStats());
+        body.put("primaryPool", DataSourceProvider.getPoolStats());
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(body));
+    }
+}
@@ -0,0 +1,28 @@
+package com.student.controller;
+
+import com.student.service.SessionInspector;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Admin endpoint for session memory (protected by AdminFilter).
+ * GET /admin/sessions -> live sessions and their serialized size per session and per attribute as JSON
+ */
+@WebServlet("/admin/sessions")
+public class AdminSessionsController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(SessionInspector.getInstance().inspect()));
+    }
+}
@@ -0,0 +1,556 @@
+package com.student.controller;
+
+import com.student.config.AppSettings;
+import com.student.metrics.RequestSample;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs servlet handlers off the container thread, so a slow database does not hold
+ * Tomcat's request threads (Servlet async + AsyncContext).
+ *
+ * Handlers are written as usual: request.getRequestDispatcher(path).forward(...) is turned into
+ * AsyncContext.dispatch(path) after the handler returns, and sendRedirect/sendError just complete.
+ *
+ * Work runs on virtual threads when the JVM has them (Java 21+). On older JVMs it falls back
+ * to a pool of async.platformThreads with a queue of async.queueSize; a full queue answers 503.
+ * A request that takes longer than async.timeoutMs is answered 503 and its task is interrupted.
+ * A handler still running after that (e.g. blocked in JDBC) sees a request and response that
+ * ignore writes, because the container may already reuse the real ones for another request.
+ *
+ * async.enabled = true | false | auto (default: on when virtual threads are available).
+ */
+public final class AsyncRequestExecutor {
+
+    /**
+     * A servlet handler method, e.g. doGet's dispatch on "action".
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException;
+    }
+
+    private static final AsyncRequestExecutor INSTANCE = new AsyncRequestExecutor();
+
+    private volatile ExecutorService executor;
+    private volatile boolean virtualThreads;
+    private volatile Boolean enabled;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private AsyncRequestExecutor() {
+    }
+
+    public static AsyncRequestExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        Boolean current = enabled;
+        if (current == null) {
+            String setting = AppSettings.get("async.enabled", "auto").trim();
+            current = "auto".equalsIgnoreCase(setting)
+                    ? virtualThreadFactoryMethod() != null
+                    : Boolean.parseBoolean(setting);
+            enabled = current;
+        }
+        return current;
+    }
+
+    /**
+     * Run the handler asynchronously, or on the calling thread when async mode is off
+     * or the request does not support async (e.g. an include).
+     */
+    public void execute(HttpServletRequest request, HttpServletResponse response, Handler handler)
+            throws ServletException, IOException {
+
+        if (!isEnabled() || !request.isAsyncSupported() || request.isAsyncStarted()) {
+            handler.handle(request, response);
+            return;
+        }
+
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(AppSettings.getLong("async.timeoutMs", 30000));
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicReference<Future<?>> task = new AtomicReference<>();
+
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                // Under the same lock as the handler's writes (GuardedResponse), so none lands after complete()
+                synchronized (finished) {
+                    if (finished.compareAndSet(false, true)) {
+                        timedOut.incrementAndGet();
+                        cancel(task.get());
+                        sendUnavailable(async, "Request timed out");
+                    }
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                synchronized (finished) {
+                    finished.set(true);
+                }
+                cancel(task.get());
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        try {
+            task.set(executor().submit(() -> run(async, finished, handler)));
+        } catch (RejectedExecutionException e) {
+            if (finished.compareAndSet(false, true)) {
+                rejected.incrementAndGet();
+                sendUnavailable(async, "Server busy");
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("virtualThreads", virtualThreads);
+        ExecutorService current = executor;
+        if (current instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) current;
+            stats.put("active", pool.getActiveCount());
+            stats.put("queued", pool.getQueue().size());
+        }
+        stats.put("completed", completed.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("rejected", rejected.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void run(AsyncContext async, AtomicBoolean finished, Handler handler) {
+        HttpServletRequest request = (HttpServletRequest) async.getRequest();
+        HttpServletResponse response = (HttpServletResponse) async.getResponse();
+        ForwardRecorder recorder = new ForwardRecorder(request, finished);
+        RequestSample previous = RequestSample.bind(RequestSample.of(request));
+
+        try {
+            handler.handle(recorder, new GuardedResponse(response, finished));
+        } catch (Exception e) {
+            if (!finished.compareAndSet(false, true)) {
+                return; // timed out, the handler failed on the abandoned request
+            }
+            failed.incrementAndGet();
+            e.printStackTrace();
+            try {
+                if (!response.isCommitted()) {
+                    response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+            } catch (IOException ignored) {
+                // client is gone
+            }
+            async.complete();
+            return;
+        } finally {
+            RequestSample.bind(previous);
+        }
+
+        if (!finished.compareAndSet(false, true)) {
+            return; // timed out, the timeout answer was sent already
+        }
+        completed.incrementAndGet();
+        if (recorder.forwardPath != null) {
+            async.dispatch(recorder.forwardPath);
+        } else {
+            async.complete();
+        }
+    }
+
+    private static void cancel(Future<?> task) {
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    private static void sendUnavailable(AsyncContext async, String message) throws IOException {
+        HttpServletResponse response = (HttpServletResponse) async.getResponse();
+        if (!response.isCommitted()) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, message);
+        }
+        async.complete();
+    }
+
+    private ExecutorService executor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (this) {
+                current = executor;
+                if (current == null) {
+                    current = createExecutor();
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private ExecutorService createExecutor() {
+        Method factory = virtualThreadFactoryMethod();
+        if (factory != null) {
+            try {
+                virtualThreads = true;
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                e.printStackTrace();
+                virtualThreads = false;
+            }
+        }
+
+        int threads = AppSettings.getInt("async.platformThreads", 400);
+        int queueSize = AppSettings.getInt("async.queueSize", 2000);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                r -> {
+                    Thread thread = new Thread(r, "async-request-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() on Java 21+, null before (the build targets Java 17)
+    private static Method virtualThreadFactoryMethod() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records forward() instead of running it on the worker thread; execute() turns it into
+     * AsyncContext.dispatch once the handler is done. Attributes go to the real request
+     * until the request is finished, then they are dropped.
+     */
+    private static final class ForwardRecorder extends HttpServletRequestWrapper {
+
+        private final AtomicBoolean finished;
+        private String forwardPath;
+
+        ForwardRecorder(HttpServletRequest request, AtomicBoolean finished) {
+            super(request);
+            this.finished = finished;
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            synchronized (finished) {
+                if (!finished.get()) {
+                    super.setAttribute(name, value);
+                }
+            }
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            synchronized (finished) {
+                if (!finished.get()) {
+                    super.removeAttribute(name);
+                }
+            }
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            synchronized (finished) {
+                if (finished.get()) {
+                    if (create) {
+                        throw new IllegalStateException("Request already answered");
+                    }
+                    return null;
+                }
+                return super.getSession(create);
+            }
+        }
+
+        @Override
+        public RequestDispatcher getRequestDispatcher(String path) {
+            RequestDispatcher target = super.getRequestDispatcher(path);
+            return new RequestDispatcher() {
+                @Override
+                public void forward(ServletRequest request, ServletResponse response) {
+                    forwardPath = contextRelative(path);
+                }
+
+                @Override
+                public void include(ServletRequest request, ServletResponse response)
+                        throws ServletException, IOException {
+                    synchronized (finished) {
+                        if (!finished.get()) {
+                            target.include(request, response);
+                        }
+                    }
+                }
+            };
+        }
+
+        // "./views/x.jsp" from /student -> "/views/x.jsp"
+        private String contextRelative(String path) {
+            if (path.startsWith("/")) {
+                return path;
+            }
+            return URI.create(getServletPath()).resolve(path).getPath();
+        }
+    }
+
+    /**
+     * The handler's response: every change goes to the real response until the request is
+     * finished (answered, timed out or failed), and is dropped after that.
+     */
+    private static final class GuardedResponse extends HttpServletResponseWrapper {
+
+        private final AtomicBoolean finished;
+        private PrintWriter writer;
+        private ServletOutputStream output;
+
+        GuardedResponse(HttpServletResponse response, AtomicBoolean finished) {
+            super(response);
+            this.finished = finished;
+        }
+
+        @FunctionalInterface
+        private interface Write {
+            void run() throws IOException;
+        }
+
+        private void write(Write write) throws IOException {
+            synchronized (finished) {
+                if (!finished.get()) {
+                    write.run();
+                }
+            }
+        }
+
+        private void set(Runnable change) {
+            synchronized (finished) {
+                if (!finished.get()) {
+                    change.run();
+                }
+            }
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            write(() -> super.sendRedirect(location));
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            write(() -> super.sendError(status, message));
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            write(() -> super.sendError(status));
+        }
+
+        @Override
+        public void setStatus(int status) {
+            set(() -> super.setStatus(status));
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            set(() -> super.setHeader(name, value));
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            set(() -> super.addHeader(name, value));
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            set(() -> super.setIntHeader(name, value));
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            set(() -> super.addIntHeader(name, value));
+        }
+
+        @Override
+        public void setDateHeader(String name, long date) {
+            set(() -> super.setDateHeader(name, date));
+        }
+
+        @Override
+        public void addDateHeader(String name, long date) {
+            set(() -> super.addDateHeader(name, date));
+        }
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            set(() -> super.addCookie(cookie));
+        }
+
+        @Override
+        public void setContentType(String type) {
+            set(() -> super.setContentType(type));
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+            set(() -> super.setCharacterEncoding(charset));
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            set(() -> super.setContentLength(length));
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            set(() -> super.setContentLengthLong(length));
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            write(super::flushBuffer);
+        }
+
+        @Override
+        public void reset() {
+            set(super::reset);
+        }
+
+        @Override
+        public void resetBuffer() {
+            set(super::resetBuffer);
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            synchronized (finished) {
+                if (writer == null) {
+                    Writer target = finished.get() ? Writer.nullWriter() : super.getWriter();
+                    writer = new PrintWriter(new Writer() {
+                        @Override
+                        public void write(char[] chars, int offset, int length) throws IOException {
+                            GuardedResponse.this.write(() -> target.write(chars, offset, length));
+                        }
+
+                        @Override
+                        public void flush() throws IOException {
+                            GuardedResponse.this.write(target::flush);
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            GuardedResponse.this.write(target::close);
+                        }
+                    });
+                }
+                return writer;
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            synchronized (finished) {
+                if (output == null) {
+                    ServletOutputStream real = finished.get() ? null : super.getOutputStream();
+                    OutputStream target = real == null ? OutputStream.nullOutputStream() : real;
+                    output = new ServletOutputStream() {
+                        @Override
+                        public void write(int b) throws IOException {
+                            GuardedResponse.this.write(() -> target.write(b));
+                        }
+
+                        @Override
+                        public void write(byte[] bytes, int offset, int length) throws IOException {
+                            GuardedResponse.this.write(() -> target.write(bytes, offset, length));
+                        }
+
+                        @Override
+                        public void flush() throws IOException {
+                            GuardedResponse.this.write(target::flush);
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            GuardedResponse.this.write(target::close);
+                        }
+
+                        @Override
+                        public boolean isReady() {
+                            return real == null || real.isReady();
+                        }
+
+                        @Override
+                        public void setWriteListener(WriteListener listener) {
+                            if (real != null) {
+                                real.setWriteListener(listener);
+                            }
+                        }
+                    };
+                }
+                return output;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.student.controller;
+
+import com.student.config.AppSettings;
+import com.student.dao.StudentAutocomplete;
+import com.student.util.Json;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Suggestions for the search box, from StudentAutocomplete (no database access).
+ * GET /autocomplete?q=ngu&limit=10 -> {"ready": true, "suggestions": [{"id", "code", "name"}, ...]}
+ */
+@WebServlet("/autocomplete")
+public class AutocompleteController extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        int maxLimit = AppSettings.getInt("autocomplete.maxLimit", 20);
+        int limit = 10;
+        try {
+            limit = Math.min(Integer.parseInt(request.getParameter("limit")), maxLimit);
+        } catch (NumberFormatException e) {
+            // missing or not a number: default
+        }
+
+        StudentAutocomplete autocomplete = StudentAutocomplete.getInstance();
+        String prefix = request.getParameter("q");
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("ready", autocomplete.isReady());
+        body.put("suggestions", autocomplete.suggest(prefix == null ? "" : prefix, limit));
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(Json.toJson(body));
+    }
+}
@@ -1,6 +1,7 @@
 package com.student.controller;
 
 import com.student.dao.UserDAO;
+import com.student.model.SessionUser;
 import com.student.model.User;
 
 import jakarta.servlet.ServletException;
@@ -8,7 +9,6 @@ import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
 
@@ -20,8 +20,7 @@ public class ChangePasswordController extends HttpServlet {
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         // Get user from session
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("user") == null) {
+        if (SessionUser.from(request.getSession(false)) == null) {
             response.sendRedirect("login");
             return;
         }
@@ -32,12 +31,11 @@ public class ChangePasswordController extends HttpServlet {
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         // TODO: Get current user from session
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("user") == null) {
+        SessionUser user = SessionUser.from(request.getSession(false));
+        if (user == null) {
             response.sendRedirect("login");
             return;
         }
-        User user = (User) session.getAttribute("user");
 
         // TODO: Get form parameters (currentPassword, newPassword, confirmPassword)
         String currentPassword = request.getParameter("currentPassword");
@@ -1,15 +1,15 @@
 package com.student.controller;
 
 import com.student.dao.StudentDAO;
-import com.student.model.User;
+import com.student.model.SessionUser;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
+import java.util.Map;
 
 @WebServlet("/dashboard")
 public class DashboardController extends HttpServlet {
@@ -26,19 +26,19 @@ public class DashboardController extends HttpServlet {
             throws ServletException, IOException {
 
         // Get user from session
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("user") == null) {
+        SessionUser user = SessionUser.from(request.getSession(false));
+        if (user == null) {
             response.sendRedirect("login");
             return;
         }
 
-        User user = (User) session.getAttribute("user");
-
-        // Get statistics
+        // Get statistics (maintained counters, no COUNT query)
         int totalStudents = studentDAO.getTotalStudents();
+        Map<String, Long> majorCounts = studentDAO.getStudentCountsByMajor();
 
         // Set attributes
         request.setAttribute("totalStudents", totalStudents);
+        request.setAttribute("majorCounts", majorCounts);
         request.setAttribute("welcomeMessage", "Welcome back, " + user.getFullName() + "!");
 
         // Forward to dashboard
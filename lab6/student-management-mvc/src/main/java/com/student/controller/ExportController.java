@@ -0,0 +1,63 @@
+package com.student.controller;
+
+import com.student.dao.StudentDAO;
+import com.student.export.StudentExportWriter;
+import com.student.export.StudentExportWriter.Format;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Streams the whole students table as CSV (default) or NDJSON:
+ * /export?format=csv|ndjson
+ * Rows go straight from the ResultSet to the response, nothing is collected in a list.
+ */
+@WebServlet("/export")
+public class ExportController extends HttpServlet {
+
+    private StudentDAO studentDAO;
+
+    @Override
+    public void init() {
+        studentDAO = new StudentDAO();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        ReadYourWrites.handle(request, response, this::export);
+    }
+
+    private void export(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        Format format = Format.fromParam(request.getParameter("format"));
+
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"students." + format.getExtension() + "\"");
+
+        StudentExportWriter writer = new StudentExportWriter(response.getOutputStream(), format);
+
+        try {
+            writer.writeHeader();
+            studentDAO.streamAllStudents(writer);
+            writer.finish();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Export failed");
+                return;
+            }
+            // Already streaming: abort the connection so the client sees a truncated download
+            throw new ServletException("Export failed after " + writer.getRows() + " rows", e);
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.student.controller;
 
+import com.student.config.AppSettings;
 import com.student.dao.UserDAO;
+import com.student.model.SessionUser;
 import com.student.model.User;
+import com.student.service.PasswordHashingService;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -10,15 +16,24 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-@WebServlet("/login")
+@WebServlet(urlPatterns = "/login", asyncSupported = true)
 public class LoginController extends HttpServlet {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private UserDAO userDAO;
+    private PasswordHashingService hashingService;
+    private long asyncTimeoutMs;
 
     @Override
     public void init() {
         userDAO = new UserDAO();
+        hashingService = PasswordHashingService.getInstance();
+        asyncTimeoutMs = AppSettings.getLong("login.asyncTimeoutMs", 10000);
     }
 
     /**
@@ -30,7 +45,7 @@ public class LoginController extends HttpServlet {
 
         // If already logged in, redirect to dashboard
         HttpSession session = request.getSession(false);
-        if (session != null && session.getAttribute("user") != null) {
+        if (SessionUser.from(session) != null) {
             response.sendRedirect("dashboard");
             return;
         }
@@ -40,7 +55,9 @@ public class LoginController extends HttpServlet {
     }
 
     /**
-     * Process login form
+     * Process login form.
+     * The password check runs asynchronously on PasswordHashingService; when it is
+     * overloaded the request is rejected with 429 (this client) or 503 (everyone).
      */
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
@@ -59,44 +76,139 @@ public class LoginController extends HttpServlet {
             return;
         }
 
-        // Authenticate user
-        User user = userDAO.authenticate(username, password);
+        // Unknown or inactive user: answer right away, no hash to check
+        User user = userDAO.findActiveUser(username);
+        if (user == null) {
+            showLoginError(request, response, username);
+            return;
+        }
+
+        // Admission control: per-client limit first, then the bounded hashing queue
+        String client = request.getRemoteAddr();
+        if (!hashingService.tryAdmit(client)) {
+            reject(request, response, 429, "Too many login attempts, please wait a moment");
+            return;
+        }
 
-        if (user != null) {
-            // Authentication successful
+        // Free the container thread while BCrypt runs on the hashing pool.
+        // The filters' wrappers go along, so their headers (RequestMetricsFilter) reach the response.
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(asyncTimeoutMs);
+        AtomicBoolean finished = new AtomicBoolean();
+
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (finished.compareAndSet(false, true)) {
+                    hashingService.release(client);
+                    respondUnavailable(async);
+                }
+            }
 
-            // Invalidate old session (prevent session fixation)
-            HttpSession oldSession = request.getSession(false);
-            if (oldSession != null) {
-                oldSession.invalidate();
+            @Override
+            public void onComplete(AsyncEvent event) {
             }
 
-            // Create new session
-            HttpSession session = request.getSession(true);
-            session.setAttribute("user", user);
-            session.setAttribute("role", user.getRole());
-            session.setAttribute("fullName", user.getFullName());
+            @Override
+            public void onError(AsyncEvent event) {
+                if (finished.compareAndSet(false, true)) {
+                    hashingService.release(client);
+                }
+            }
 
-            // Set session timeout (30 minutes)
-            session.setMaxInactiveInterval(30 * 60);
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        CompletableFuture<Boolean> check;
+        try {
+            check = hashingService.verify(password, user.getPassword());
+        } catch (RejectedExecutionException e) {
+            finished.set(true);
+            hashingService.release(client);
+            respondUnavailable(async);
+            return;
+        }
 
-            // Handle "Remember Me" (optional - cookie implementation)
-            if ("on".equals(rememberMe)) {
-                // TODO: Implement remember me functionality with cookie
+        check.whenComplete((matches, error) -> {
+            if (!finished.compareAndSet(false, true)) {
+                return; // timed out already
             }
+            hashingService.release(client);
 
-            // Redirect based on role
-            if (user.isAdmin()) {
-                response.sendRedirect("dashboard");
-            } else {
-                response.sendRedirect("student?action=list");
+            HttpServletRequest asyncRequest = (HttpServletRequest) async.getRequest();
+            HttpServletResponse asyncResponse = (HttpServletResponse) async.getResponse();
+            if (error != null) {
+                respondUnavailable(async); // dropped after waiting too long in the queue
+                return;
+            }
+            try {
+                if (Boolean.TRUE.equals(matches)) {
+                    userDAO.updateLastLogin(user.getId());
+                    startSession(asyncRequest, user, rememberMe);
+                    asyncResponse.sendRedirect(user.isAdmin() ? "dashboard" : "student?action=list");
+                    async.complete();
+                } else {
+                    // Authentication failed
+                    asyncRequest.setAttribute("error", "Invalid username or password");
+                    asyncRequest.setAttribute("username", username); // Keep username in form
+                    async.dispatch("/views/login.jsp");
+                }
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                async.complete();
             }
+        });
+    }
 
-        } else {
-            // Authentication failed
-            request.setAttribute("error", "Invalid username or password");
-            request.setAttribute("username", username); // Keep username in form
-            request.getRequestDispatcher("/views/login.jsp").forward(request, response);
+    private void startSession(HttpServletRequest request, User user, String rememberMe) {
+        // Invalidate old session (prevent session fixation)
+        HttpSession oldSession = request.getSession(false);
+        if (oldSession != null) {
+            oldSession.invalidate();
         }
+
+        // Create new session (only the compact principal, not the User with its password hash)
+        HttpSession session = request.getSession(true);
+        session.setAttribute(SessionUser.ATTRIBUTE, SessionUser.of(user));
+
+        // Set session timeout (30 minutes)
+        session.setMaxInactiveInterval(30 * 60);
+
+        // Handle "Remember Me" (optional - cookie implementation)
+        if ("on".equals(rememberMe)) {
+            // TODO: Implement remember me functionality with cookie
+        }
+    }
+
+    private void showLoginError(HttpServletRequest request, HttpServletResponse response, String username)
+            throws ServletException, IOException {
+
+        request.setAttribute("error", "Invalid username or password");
+        request.setAttribute("username", username); // Keep username in form
+        request.getRequestDispatcher("/views/login.jsp").forward(request, response);
+    }
+
+    // Shed load: status + Retry-After, and the login page with a message for browsers
+    private void reject(HttpServletRequest request, HttpServletResponse response, int status, String message)
+            throws ServletException, IOException {
+
+        response.setStatus(status);
+        response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+        request.setAttribute("error", message);
+        request.setAttribute("username", request.getParameter("username"));
+        request.getRequestDispatcher("/views/login.jsp").forward(request, response);
+    }
+
+    private void respondUnavailable(AsyncContext async) {
+        HttpServletRequest request = (HttpServletRequest) async.getRequest();
+        HttpServletResponse response = (HttpServletResponse) async.getResponse();
+
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+        request.setAttribute("error", "The server is busy, please try again in a moment");
+        request.setAttribute("username", request.getParameter("username"));
+        async.dispatch("/views/login.jsp");
     }
 }
@@ -0,0 +1,41 @@
+package com.student.controller;
+
+import com.student.dao.ReadRouting;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+
+/**
+ * Session side of ReadRouting: remembers when this session last wrote students, so its
+ * reads stay on the primary for db.replica.stickySeconds afterwards.
+ */
+final class ReadYourWrites {
+
+    static final String LAST_WRITE_ATTRIBUTE = "db.lastWriteMillis";
+
+    private ReadYourWrites() {
+    }
+
+    static ReadRouting.Scope begin(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        Object lastWrite = session == null ? null : session.getAttribute(LAST_WRITE_ATTRIBUTE);
+        return ReadRouting.begin(lastWrite instanceof Long ? (Long) lastWrite : 0,
+                millis -> request.getSession().setAttribute(LAST_WRITE_ATTRIBUTE, millis));
+    }
+
+    /**
+     * Runs a handler with its reads routed for this session.
+     */
+    static void handle(HttpServletRequest request, HttpServletResponse response, AsyncRequestExecutor.Handler handler)
+            throws ServletException, IOException {
+        ReadRouting.Scope scope = begin(request);
+        try {
+            handler.handle(request, response);
+        } finally {
+            scope.close();
+        }
+    }
+}
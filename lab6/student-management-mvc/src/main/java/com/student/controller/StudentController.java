@@ -1,38 +1,82 @@
 package com.student.controller;
 
+import com.student.config.AppSettings;
+import com.student.dao.DatabaseGuard;
+import com.student.dao.PageCursor;
 import com.student.dao.StudentDAO;
+import com.student.dao.StudentPage;
+import com.student.dao.StudentQuery;
 import com.student.model.Student;
+import com.student.service.StudentImportService;
+import com.student.service.StudentImportService.ImportResult;
+import com.student.service.StudentValidator;
 
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.MultipartConfig;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
-@WebServlet("/student")
+@WebServlet(urlPatterns = "/student", asyncSupported = true)
+@MultipartConfig(fileSizeThreshold = 1024 * 1024, maxFileSize = 50L * 1024 * 1024, maxRequestSize = 55L * 1024 * 1024)
 public class StudentController extends HttpServlet {
 
+    private static final int RECORDS_PER_PAGE = 10;
+    private static final int DEFAULT_IMPORT_BATCH_SIZE = 500;
+
     private StudentDAO studentDAO;
+    private StudentImportService importService;
+    private AsyncRequestExecutor asyncExecutor;
+    private int importBatchSize;
 
     @Override
     public void init() {
         studentDAO = new StudentDAO();
+        importService = new StudentImportService(studentDAO);
+        asyncExecutor = AsyncRequestExecutor.getInstance();
+
+        // Rows per JDBC batch / transaction for the CSV import (web.xml context param)
+        importBatchSize = Math.max(1, AppSettings.getInt("import.batchSize", DEFAULT_IMPORT_BATCH_SIZE));
     }
 
+    // Every action talks to the database, so it runs on AsyncRequestExecutor when async mode is on.
+    // Reads may come from a replica, except shortly after this session wrote (see ReadYourWrites).
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
+        asyncExecutor.execute(request, response, (req, resp) -> ReadYourWrites.handle(req, resp, this::handleGet));
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        asyncExecutor.execute(request, response, (req, resp) -> ReadYourWrites.handle(req, resp, this::handlePost));
+    }
+
+    private void handleGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
         String action = request.getParameter("action");
 
         if (action == null) {
             action = "list";
         }
 
+        // Breaker open: pages come from cached results or are empty, the list shows a notice
+        request.setAttribute("databaseUnavailable", DatabaseGuard.getInstance().isOpen());
+
 //        System.out.println(action);
 
         switch (action) {
@@ -45,8 +89,12 @@ public class StudentController extends HttpServlet {
             case "delete":
                 deleteStudent(request, response);
                 break;
+            case "import":
+                showImportForm(request, response);
+                break;
             case "search":
                 searchStudents(request, response);
+                break;
             case "sort":
                 sortStudents(request, response);
                 break;
@@ -59,8 +107,7 @@ public class StudentController extends HttpServlet {
         }
     }
 
-    @Override
-    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+    private void handlePost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
         String action = request.getParameter("action");
@@ -72,14 +119,27 @@ public class StudentController extends HttpServlet {
             case "update":
                 updateStudent(request, response);
                 break;
+            case "import":
+                importStudents(request, response);
+                break;
         }
     }
 
     // List all students
     private void listStudents(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        // Define records per page
-        int recordsPerPage = 10;
+        // Cursor mode: "after" is present (empty for the first page), no COUNT and no OFFSET
+        String after = request.getParameter("after");
+        if (after != null) {
+            PageCursor cursor = PageCursor.decode(after);
+            List<Student> rows = studentDAO.getStudentsPageAfter(
+                    cursor == null ? null : cursor.getLastId(), RECORDS_PER_PAGE + 1);
+            setKeysetPage(request, rows, "id");
+
+            RequestDispatcher dispatcher = request.getRequestDispatcher("./views/student-list.jsp");
+            dispatcher.forward(request, response);
+            return;
+        }
 
         // Get the current page number from the request parameter
         int currentPage = 1; // Default to page 1
@@ -93,31 +153,14 @@ public class StudentController extends HttpServlet {
             }
         }
 
-        // Get total records to calculate total pages
-        int totalRecords = studentDAO.getTotalStudents();
-        int totalPages = (int) Math.ceil((double) totalRecords / recordsPerPage);
-
-        // Handle edge cases for page numbers
-        // Ensure currentPage is not less than 1
-        if (currentPage < 1) {
-            currentPage = 1;
-        }
-        // Ensure currentPage does not exceed totalPages (if there are any pages)
-        if (totalPages > 0 && currentPage > totalPages) {
-            currentPage = totalPages;
-        }
-
-        // Calculate the offset for the SQL query
-        // The offset is the starting index for the records on the current page
-        int offset = (currentPage - 1) * recordsPerPage;
-
-        // Get the paginated list of students from the DAO
-        List<Student> students = studentDAO.getStudentsPaginated(offset, recordsPerPage);
+        // The DAO clamps the page to 1..totalPages and takes the total from StudentCounters
+        StudentPage page = studentDAO.getStudentsPage(currentPage, RECORDS_PER_PAGE);
+        setStale(request, page);
 
         // Set all necessary attributes for the view (JSP)
-        request.setAttribute("students", students);
-        request.setAttribute("currentPage", currentPage);
-        request.setAttribute("totalPages", totalPages);
+        request.setAttribute("students", page.getStudents());
+        request.setAttribute("currentPage", page.getPage());
+        request.setAttribute("totalPages", page.getTotalPages());
 
         // Forward the request to the view
         RequestDispatcher dispatcher = request.getRequestDispatcher("./views/student-list.jsp");
@@ -197,6 +240,34 @@ public class StudentController extends HttpServlet {
         }
     }
 
+    // Show CSV import form
+    private void showImportForm(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        RequestDispatcher dispatcher = request.getRequestDispatcher("/views/student-import.jsp");
+        dispatcher.forward(request, response);
+    }
+
+    // Bulk import students from an uploaded CSV file
+    private void importStudents(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        Part filePart = request.getPart("file");
+        if (filePart == null || filePart.getSize() == 0) {
+            request.setAttribute("error", "Please choose a CSV file to import");
+            showImportForm(request, response);
+            return;
+        }
+
+        ImportResult result;
+        try (InputStream in = filePart.getInputStream()) {
+            result = importService.importCsv(in, importBatchSize);
+        }
+
+        request.setAttribute("result", result);
+        showImportForm(request, response);
+    }
+
     // Delete student
     private void deleteStudent(HttpServletRequest request, HttpServletResponse response)
             throws IOException {
@@ -216,7 +287,25 @@ public class StudentController extends HttpServlet {
         List<Student> students;
 
         if (keyword != null && !keyword.trim().isEmpty()) {
-            students = studentDAO.searchStudents(keyword);
+            // Ranked, index-backed search, one page at a time
+            int currentPage = 1;
+            String pageParam = request.getParameter("page");
+            if (pageParam != null) {
+                try {
+                    currentPage = Math.max(1, Integer.parseInt(pageParam));
+                } catch (NumberFormatException e) {
+                    currentPage = 1;
+                }
+            }
+
+            // Fetch one extra row to know whether there is a next page
+            int offset = (currentPage - 1) * RECORDS_PER_PAGE;
+            List<Student> rows = studentDAO.searchStudentsRanked(keyword, offset, RECORDS_PER_PAGE + 1);
+            boolean hasNextPage = rows.size() > RECORDS_PER_PAGE;
+            students = hasNextPage ? rows.subList(0, RECORDS_PER_PAGE) : rows;
+
+            request.setAttribute("searchPage", currentPage);
+            request.setAttribute("searchHasNext", hasNextPage);
         } else {
             students = studentDAO.getAllStudents();
         }
@@ -232,56 +321,42 @@ public class StudentController extends HttpServlet {
     }
 
     private boolean validateStudent(Student student, HttpServletRequest request) {
-        boolean isValid = true;
-
-        String codePattern = "[A-Z]{2}[0-9]{3,}";
-        String emailPattern = "^[A-Za-z0-9+_.-]+@(.+)$";
-
-        // Validate Student Code
-        if (student.getStudentCode() == null || student.getStudentCode().trim().isEmpty()) {
-            request.setAttribute("errorCode", "Student code is required");
-            isValid = false;
-        } else if (!student.getStudentCode().trim().matches(codePattern)) {
-            request.setAttribute("errorCode", "Invalid format. Use 2 uppercase letters + 3+ digits (e.g., SV001)");
-            isValid = false;
-        }
+        Map<String, String> errors = StudentValidator.validate(student);
 
-        // Validate Full Name
-        if (student.getFullName() == null || student.getFullName().trim().isEmpty()) {
-            request.setAttribute("errorName", "Full name is required");
-            isValid = false;
-        } else if (student.getFullName().trim().length() < 2) {
-            request.setAttribute("errorName", "Full name must be at least 2 characters long");
-            isValid = false;
+        // Uniqueness only for well-formed values; StudentKeyFilter skips the query for new ones
+        if (!errors.containsKey("errorCode") && studentDAO.isCodeTaken(student.getStudentCode(), student.getId())) {
+            errors.put("errorCode", "Student code already exists");
         }
-
-        // Validate Email (only if it's not empty)
-        String email = student.getEmail();
-        if (email != null && !email.trim().isEmpty()) {
-            if (!email.trim().matches(emailPattern)) {
-                request.setAttribute("errorEmail", "Please enter a valid email address");
-                isValid = false;
-            }
+        if (!errors.containsKey("errorEmail") && studentDAO.isEmailTaken(student.getEmail(), student.getId())) {
+            errors.put("errorEmail", "Email already exists");
         }
 
-        // Validate Major
-        if (student.getMajor() == null || student.getMajor().trim().isEmpty()) {
-            request.setAttribute("errorMajor", "Major is required");
-            isValid = false;
+        // errorCode, errorName, errorEmail, errorMajor are shown next to the form fields
+        for (Map.Entry<String, String> error : errors.entrySet()) {
+            request.setAttribute(error.getKey(), error.getValue());
         }
 
-        return isValid;
+        return errors.isEmpty();
     }
 
     private void sortStudents(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
-        // Get sort parameters from the request
+        // Get sort parameters from the request (a major filter is kept while sorting)
         String sortBy = request.getParameter("sortBy");
         String order = request.getParameter("order");
+        String major = request.getParameter("filterMajor");
 
-        // Call the DAO method to get the sorted list
-        List<Student> students = studentDAO.getStudentsSorted(sortBy, order);
+        // Call the DAO method to get one page of the sorted list (keyset page if "after" is present)
+        List<Student> students;
+        String after = request.getParameter("after");
+        if (after != null) {
+            List<Student> rows = studentDAO.getStudentsFilteredAndSortedAfter(
+                    major, sortBy, order, PageCursor.decode(after), RECORDS_PER_PAGE + 1);
+            students = setKeysetPage(request, rows, sortBy);
+        } else {
+            students = setQueryPage(request, major, sortBy, order);
+        }
 
         // Set attributes for the view
         // 'students' for the table data
@@ -289,6 +364,7 @@ public class StudentController extends HttpServlet {
         request.setAttribute("students", students);
         request.setAttribute("sortBy", sortBy);
         request.setAttribute("order", order);
+        request.setAttribute("filterMajor", major);
 
         // Forward to the list view
         RequestDispatcher dispatcher = request.getRequestDispatcher("./views/student-list.jsp");
@@ -298,18 +374,24 @@ public class StudentController extends HttpServlet {
     private void filterStudents(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
-        // Get filter parameter from the request
+        // Get filter parameter from the request (the current sort is kept while filtering)
+        // If major is null or empty, it means "All Majors" was selected
         String major = request.getParameter("filterMajor");
+        String sortBy = request.getParameter("sortBy");
+        String order = request.getParameter("order");
         List<Student> students;
 
-        // Decide which DAO method to call
-        // If major is null or empty, it means "All Majors" was selected
-        if (major != null && !major.isEmpty()) {
-            students = studentDAO.getStudentsByMajor(major);
+        // One keyset page if "after" is present, otherwise one numbered page
+        String after = request.getParameter("after");
+        if (after != null) {
+            List<Student> rows = studentDAO.getStudentsFilteredAndSortedAfter(
+                    major, sortBy, order, PageCursor.decode(after), RECORDS_PER_PAGE + 1);
+            students = setKeysetPage(request, rows, sortBy);
         } else {
-            // If no major is selected, get all students
-            students = studentDAO.getAllStudents();
+            students = setQueryPage(request, major, sortBy, order);
         }
+        request.setAttribute("sortBy", sortBy);
+        request.setAttribute("order", order);
 
         // Set attributes for the view
         // 'students' for the table data
@@ -321,4 +403,55 @@ public class StudentController extends HttpServlet {
         RequestDispatcher dispatcher = request.getRequestDispatcher("./views/student-list.jsp");
         dispatcher.forward(request, response);
     }
+
+    /**
+     * One numbered page of the sort/filter view; the rows and the total come from a single
+     * statement (StudentDAO.findStudents). An optional "keyword" narrows it like the search.
+     * @return the rows of the page
+     */
+    private List<Student> setQueryPage(HttpServletRequest request, String major, String sortBy, String order) {
+        int page = 1;
+        try {
+            page = Integer.parseInt(request.getParameter("page"));
+        } catch (NumberFormatException e) {
+            // missing or not a number: first page
+        }
+
+        String keyword = request.getParameter("keyword");
+        StudentPage result = studentDAO.findStudents(
+                new StudentQuery(major, keyword, sortBy, order, page, RECORDS_PER_PAGE));
+
+        setStale(request, result);
+        request.setAttribute("currentPage", result.getPage());
+        request.setAttribute("totalPages", result.getTotalPages());
+        request.setAttribute("totalRecords", result.getTotal());
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            request.setAttribute("keyword", keyword.trim());
+        }
+        return result.getStudents();
+    }
+
+    // A page served from StudentDAO's copy while the database is down: the list says so
+    private void setStale(HttpServletRequest request, StudentPage page) {
+        if (page.isStale()) {
+            request.setAttribute("staleSince", new SimpleDateFormat("HH:mm:ss").format(new Date(page.getCachedAtMillis())));
+        }
+    }
+
+    /**
+     * Trim a keyset page fetched with one extra row and expose the cursor of the next page.
+     * @return the rows of the current page
+     */
+    private List<Student> setKeysetPage(HttpServletRequest request, List<Student> rows, String sortBy) {
+        boolean hasNext = rows.size() > RECORDS_PER_PAGE;
+        List<Student> page = hasNext ? rows.subList(0, RECORDS_PER_PAGE) : rows;
+
+        request.setAttribute("students", page);
+        request.setAttribute("keyset", true);
+        if (hasNext) {
+            Student last = page.get(page.size() - 1);
+            request.setAttribute("nextCursor", studentDAO.cursorFor(last, sortBy).encode());
+        }
+        return page;
+    }
 }
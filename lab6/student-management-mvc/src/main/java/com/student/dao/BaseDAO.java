@@ -0,0 +1,110 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query helpers shared by the DAOs: prepare, bind, run and map with a RowMapper.
+ *
+ * Everything goes through prepareStatement, so the driver's prepared statement cache
+ * (cachePrepStmts in DataSourceProvider) is used, and column positions are resolved
+ * once per SQL string (see Columns). Errors are thrown; the DAO methods decide
+ * what to return on failure.
+ */
+public abstract class BaseDAO {
+
+    // Get pooled database connection
+    protected Connection getConnection() throws SQLException {
+        return DataSourceProvider.getConnection();
+    }
+
+    // Primary connection for reads (a read permit in DatabaseGuard's bulkhead)
+    protected Connection getPrimaryReadConnection() throws SQLException {
+        return DataSourceProvider.getPrimaryReadConnection();
+    }
+
+    /**
+     * Connection for query() and stream(). The primary here; a DAO whose lists may be
+     * a little stale overrides it to read from a replica (see StudentDAO).
+     */
+    protected Connection getReadConnection() throws SQLException {
+        return getPrimaryReadConnection();
+    }
+
+    protected <T> List<T> query(String sql, StatementBinder binder, RowMapper<T> mapper) throws SQLException {
+        try (Connection conn = getReadConnection()) {
+            return query(conn, sql, binder, mapper);
+        }
+    }
+
+    /**
+     * Run a query on the caller's connection and map every row.
+     */
+    protected <T> List<T> query(Connection conn, String sql, StatementBinder binder, RowMapper<T> mapper)
+            throws SQLException {
+
+        List<T> rows = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            binder.bind(pstmt);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int[] positions = mapper.columns().resolve(sql, rs);
+                while (rs.next()) {
+                    rows.add(mapper.mapRow(rs, positions));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return the first row, or null when the query returns nothing
+     */
+    protected <T> T queryForObject(String sql, StatementBinder binder, RowMapper<T> mapper) throws SQLException {
+        try (Connection conn = getPrimaryReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            binder.bind(pstmt);
+            pstmt.setMaxRows(1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapper.mapRow(rs, mapper.columns().resolve(sql, rs)) : null;
+            }
+        }
+    }
+
+    /**
+     * Stream the rows to the callback on a forward-only cursor with the driver's
+     * streaming fetch size, so memory use does not depend on the result size.
+     * @return number of rows streamed
+     */
+    protected <T> long stream(String sql, StatementBinder binder, RowMapper<T> mapper, RowCallback<T> callback)
+            throws SQLException, IOException {
+
+        long count = 0;
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(DataSourceProvider.streamingFetchSize(conn, 1000));
+            // A whole-table export takes longer than DatabaseGuard's read timeout
+            pstmt.setQueryTimeout(AppSettings.getInt("db.timeout.streamSeconds", 600));
+            binder.bind(pstmt);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int[] positions = mapper.columns().resolve(sql, rs);
+                while (rs.next()) {
+                    callback.process(mapper.mapRow(rs, positions));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,118 @@
+package com.student.dao;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. mightContain() never answers false for an added key;
+ * it answers true for a key never added with about the configured probability while at most
+ * expectedEntries keys are in. Adds and lookups may run concurrently (the bits are atomic).
+ */
+final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final long expectedEntries;
+    private final AtomicLong added = new AtomicLong();
+
+    private BloomFilter(long bits, int hashes, long expectedEntries) {
+        this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.bits = words.length() * 64L;
+        this.hashes = hashes;
+        this.expectedEntries = expectedEntries;
+    }
+
+    /**
+     * Size the filter for expectedEntries keys: m = -n ln p / (ln 2)^2 bits, k = m/n ln 2 hashes.
+     */
+    static BloomFilter create(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long bits = Math.max(64, (long) Math.ceil(-n * Math.log(p) / (LN2 * LN2)));
+        if (bits > Integer.MAX_VALUE * 64L) {
+            throw new IllegalArgumentException("Bloom filter too large: " + bits + " bits");
+        }
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * LN2));
+        return new BloomFilter(bits, hashes, n);
+    }
+
+    void add(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        added.incrementAndGet();
+    }
+
+    boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getAdded() {
+        return added.get();
+    }
+
+    long getExpectedEntries() {
+        return expectedEntries;
+    }
+
+    long getBits() {
+        return bits;
+    }
+
+    int getHashes() {
+        return hashes;
+    }
+
+    long getMemoryBytes() {
+        return words.length() * 8L;
+    }
+
+    /**
+     * False positive rate at the current fill: (set bits / bits) ^ hashes.
+     */
+    double estimatedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bits, hashes);
+    }
+
+    // FNV-1a over the chars, then a 64-bit finalizer so nearby codes spread over the bits
+    private static long hash(String key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
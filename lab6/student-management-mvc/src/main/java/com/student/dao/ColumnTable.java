@@ -0,0 +1,1040 @@
+package com.student.dao;
+
+import com.student.model.Student;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The students table stored by column for StudentColumnStore: ids, creation times and major
+ * codes in primitive arrays, codes, names and emails as UTF-8 in one byte array per column,
+ * majors dictionary-encoded. The words of names and emails (StudentSearchIndex.tokenize)
+ * point to their rows.
+ *
+ * Keywords and prefixes match text normalized like the search index (StudentSearchIndex.normalize:
+ * lowercase, no accents), as the database's accent-insensitive collation compares it. Sorting
+ * by code, name, email or major uses orders read from the database (setOrders, ORDER BY col, id,
+ * like StudentBitmapIndex), so pages follow its collation; a row appended after that leaves them
+ * out of date and those pages return null until the store sets new ones. The id order, and the
+ * orders of normalized codes, names and emails that prefix search looks up, are kept here.
+ *
+ * Rows are only appended: an update appends the new values and marks the old row dead, a
+ * delete marks it dead. Dead rows stay in the orders and are skipped until the store
+ * loads a new table. Not thread-safe; StudentColumnStore guards it with its lock.
+ */
+final class ColumnTable {
+
+    static final int ID = 0;
+    static final int CODE = 1;
+    static final int NAME = 2;
+    static final int EMAIL = 3;
+    static final int MAJOR = 4;
+    private static final String[] COLUMNS = {"id", "student_code", "full_name", "email", "major"};
+    // Results of at most 1/SMALL_RESULT of the rows are sorted for each page instead of walked
+    private static final int SMALL_RESULT = 256;
+
+    private int size;
+    private int[] ids = new int[1024];
+    // Epoch microseconds, Long.MIN_VALUE for no value
+    private long[] createdMicros = new long[1024];
+    private short[] majors = new short[1024];
+    private final StringColumn codes = new StringColumn();
+    private final StringColumn names = new StringColumn();
+    private final StringColumn emails = new StringColumn();
+    private final BitSet live = new BitSet();
+    private int liveCount;
+    private int maxId;
+
+    // Major dictionary: code -> value (null allowed), value -> code, normalized value for filters
+    private final List<String> majorValues = new ArrayList<>();
+    private final Map<String, Integer> majorCodes = new HashMap<>();
+    private final List<String> majorKeys = new ArrayList<>();
+    private final List<RoaringBitmap> rowsByMajor = new ArrayList<>();
+    private int[] liveByMajor = new int[16];
+
+    // Rows in id order, and in normalized value order for code, name and email (prefix search);
+    // the first orderSize entries are used
+    private int[] idOrder;
+    private final int[][] prefixOrders = new int[COLUMNS.length][];
+    private int orderSize;
+
+    // Live rows in the database's order of code, name, email and major, and each row's position
+    // in them; current while the table has orderedRows rows
+    private final int[][] orders = new int[COLUMNS.length][];
+    private final int[][] ranks = new int[COLUMNS.length][];
+    private int orderedRows = -1;
+
+    // Words of the rows loaded at once, sorted; words of rows appended later in addedTokens
+    private Tokens tokens;
+    private TokenBuilder tokenBuilder = new TokenBuilder();
+    private final TreeMap<String, RoaringBitmap> addedTokens = new TreeMap<>();
+    private int appendedSinceLoad;
+    // Deleted ids this table never had a row for
+    private final Set<Integer> deletedIds = new HashSet<>();
+
+    static int column(String sortBy) {
+        int column = Arrays.asList(COLUMNS).indexOf(sortBy);
+        return column < 0 ? ID : column;
+    }
+
+    // --- Loading ---
+
+    /**
+     * Add a row while loading (the student object may be reused by the caller).
+     */
+    void load(Student student) {
+        int row = append(student);
+        for (String token : StudentSearchIndex.tokenize(student)) {
+            tokenBuilder.add(token, row);
+        }
+    }
+
+    /**
+     * Sort the loaded rows by id and by normalized code, name and email, and index their words.
+     * The sort orders of the database come separately (setOrders).
+     */
+    void finishLoad() {
+        for (int column = ID; column <= EMAIL; column++) {
+            int[] order = new int[size];
+            for (int row = 0; row < size; row++) {
+                order[row] = row;
+            }
+            int sortColumn = column;
+            sort(order, (a, b) -> compare(sortColumn, a, b));
+            if (column == ID) {
+                idOrder = order;
+            } else {
+                prefixOrders[column] = order;
+            }
+        }
+        orderSize = size;
+        tokens = tokenBuilder.build();
+        tokenBuilder = null;
+    }
+
+    /**
+     * Take the database's order of code, name, email and major, as StudentDAO.idsOrderedBy reads it.
+     * Ids without a live row are left out.
+     * @param idsByColumn the ids per column (CODE, NAME, EMAIL, MAJOR; ID is not used)
+     * @param rowCount    getRowCount() from before the orders were read
+     * @return false (and the orders are not taken) if rows were appended since rowCount
+     */
+    boolean setOrders(int[][] idsByColumn, int rowCount) {
+        if (rowCount != size) {
+            return false;
+        }
+        for (int column = CODE; column <= MAJOR; column++) {
+            int[] ids = idsByColumn[column];
+            int[] order = new int[ids.length];
+            int[] rank = new int[size];
+            Arrays.fill(rank, Integer.MAX_VALUE);
+            int length = 0;
+            for (int id : ids) {
+                int row = lastRow(id);
+                if (row >= 0 && live.get(row)) {
+                    rank[row] = length;
+                    order[length++] = row;
+                }
+            }
+            orders[column] = Arrays.copyOf(order, length);
+            ranks[column] = rank;
+        }
+        orderedRows = size;
+        return true;
+    }
+
+    /**
+     * @return whether the database sort orders are set and no row was appended since
+     */
+    boolean isSorted() {
+        return orderedRows == size;
+    }
+
+    int getRowCount() {
+        return size;
+    }
+
+    // --- Changes ---
+
+    /**
+     * Apply committed inserts, updates (student != null) and deletes (student == null), in order.
+     * A save with the values the live row already has only sets its creation time. A polled
+     * row is only added if the id is new: it may have been read before a later update or delete.
+     * @return number of changes that changed a row
+     */
+    int apply(List<StudentColumnStore.Change> changes) {
+        // Rows appended by this call, not in the orders yet
+        Map<Integer, Integer> appended = new HashMap<>();
+        int changed = 0;
+        for (StudentColumnStore.Change change : changes) {
+            Integer pending = appended.get(change.id);
+            int last = pending != null ? pending : lastRow(change.id);
+            int row = last >= 0 && live.get(last) ? last : -1;
+            Student student = change.student;
+            if (row >= 0 && student != null && sameValues(row, student)) {
+                if (student.getCreatedAt() != null) {
+                    createdMicros[row] = micros(student.getCreatedAt());
+                }
+                continue;
+            }
+            if (change.polled && (last >= 0 || deletedIds.contains(change.id))) {
+                continue;
+            }
+            if (row >= 0) {
+                kill(row);
+            } else if (student == null) {
+                deletedIds.add(change.id); // not polled yet, keep the poll from adding it
+            }
+            if (student != null) {
+                // Saved students carry no created_at: keep an update's, the next poll sets an insert's
+                long created = row >= 0 ? createdMicros[row] : System.currentTimeMillis() * 1000;
+                int added = append(student);
+                if (student.getCreatedAt() == null) {
+                    createdMicros[added] = created;
+                }
+                for (String token : StudentSearchIndex.tokenize(student)) {
+                    addedTokens.computeIfAbsent(token, k -> new RoaringBitmap()).add(added);
+                }
+                appended.put(change.id, added);
+                appendedSinceLoad++;
+            }
+            changed++;
+        }
+        if (size > orderSize) {
+            int[] added = new int[size - orderSize];
+            for (int i = 0; i < added.length; i++) {
+                added[i] = orderSize + i;
+            }
+            for (int column = ID; column <= EMAIL; column++) {
+                insert(column, added);
+            }
+            orderSize = size;
+        }
+        return changed;
+    }
+
+    private int append(Student student) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            createdMicros = Arrays.copyOf(createdMicros, capacity);
+            majors = Arrays.copyOf(majors, capacity);
+        }
+        int row = size++;
+        ids[row] = student.getId();
+        createdMicros[row] = student.getCreatedAt() == null ? Long.MIN_VALUE : micros(student.getCreatedAt());
+        int major = majorCode(student.getMajor());
+        majors[row] = (short) major;
+        rowsByMajor.get(major).add(row);
+        codes.add(student.getStudentCode());
+        names.add(student.getFullName());
+        emails.add(student.getEmail());
+        live.set(row);
+        liveCount++;
+        liveByMajor[major]++;
+        maxId = Math.max(maxId, student.getId());
+        return row;
+    }
+
+    private void kill(int row) {
+        live.clear(row);
+        liveCount--;
+        liveByMajor[majors[row]]--;
+    }
+
+    private int majorCode(String major) {
+        Integer code = majorCodes.get(major);
+        if (code == null) {
+            if (majorValues.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("More than " + Short.MAX_VALUE + " distinct majors");
+            }
+            code = majorValues.size();
+            majorValues.add(major);
+            majorKeys.add(major == null ? null : StudentSearchIndex.normalize(major));
+            rowsByMajor.add(new RoaringBitmap());
+            majorCodes.put(major, code);
+            if (code == liveByMajor.length) {
+                liveByMajor = Arrays.copyOf(liveByMajor, code * 2);
+            }
+        }
+        return code;
+    }
+
+    private boolean sameValues(int row, Student student) {
+        return ids[row] == student.getId()
+                && codes.equalsValue(row, student.getStudentCode())
+                && names.equalsValue(row, student.getFullName())
+                && emails.equalsValue(row, student.getEmail())
+                && Objects.equals(majorValues.get(majors[row]), student.getMajor());
+    }
+
+    /**
+     * @return the newest row with this id in the id order (it may be dead), or -1
+     */
+    private int lastRow(int id) {
+        int[] order = idOrder;
+        int low = 0;
+        int high = orderSize - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = ids[order[mid]];
+            if (value <= id) {
+                if (value == id) {
+                    found = order[mid];
+                }
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    // Merge rows (ascending row numbers, not in the orders yet) into the id or a prefix order in place
+    private void insert(int column, int[] rows) {
+        int[] added = rows.clone();
+        sort(added, (a, b) -> compare(column, a, b));
+        int[] order = column == ID ? idOrder : prefixOrders[column];
+        if (order.length < orderSize + added.length) {
+            order = Arrays.copyOf(order, Math.max(orderSize + added.length, orderSize + (orderSize >> 1)));
+            if (column == ID) {
+                idOrder = order;
+            } else {
+                prefixOrders[column] = order;
+            }
+        }
+        // Positions in the old order, then move each run back by the rows inserted before it
+        int[] at = new int[added.length];
+        int from = 0;
+        for (int i = 0; i < added.length; i++) {
+            at[i] = upperBound(column, order, from, orderSize, added[i]);
+            from = at[i];
+        }
+        int end = orderSize;
+        for (int i = added.length - 1; i >= 0; i--) {
+            System.arraycopy(order, at[i], order, at[i] + i + 1, end - at[i]);
+            order[at[i] + i] = added[i];
+            end = at[i];
+        }
+    }
+
+    // First index in [from, to) whose row sorts after row
+    private int upperBound(int column, int[] order, int from, int to, int row) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(column, order[mid], row) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // --- Queries ---
+
+    /**
+     * @return the major codes matching major (ignoring case and accents, like the database
+     *         compares them), or null for no filter
+     */
+    boolean[] majorFilter(String major) {
+        if (major == null) {
+            return null;
+        }
+        String key = StudentSearchIndex.normalize(major);
+        boolean[] matching = new boolean[majorValues.size()];
+        for (int code = 0; code < matching.length; code++) {
+            matching[code] = key.equals(majorKeys.get(code));
+        }
+        return matching;
+    }
+
+    /**
+     * Live rows offset..offset+limit that have one of the majors and contain the keyword in
+     * their code, name or email (LIKE '%keyword%'), in the order of the column.
+     * @param total set to the number of matching rows
+     * @return the rows, or null if the column's order is out of date (isSorted)
+     */
+    int[] select(int column, boolean descending, boolean[] majorFilter, String keyword,
+                 int offset, int limit, int[] total) {
+        if (column != ID && !isSorted()) {
+            return null;
+        }
+        if (keyword != null) {
+            return selectMatching(column, descending, majorFilter, new Needle(keyword), offset, limit, total);
+        }
+        int[] order = column == ID ? idOrder : orders[column];
+        int length = column == ID ? orderSize : order.length;
+        total[0] = count(majorFilter);
+        if (majorFilter == null && liveCount == size && length == size) {
+            // No dead rows: the page is a slice of the order
+            int[] rows = new int[Math.max(0, Math.min(limit, length - offset))];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = order[descending ? length - 1 - offset - i : offset + i];
+            }
+            return rows;
+        }
+
+        int from = 0;
+        int to = length;
+        if (majorFilter != null) {
+            if (total[0] <= orderSize / SMALL_RESULT) {
+                int[] rows = new int[total[0]];
+                int count = 0;
+                for (int code = 0; code < majorFilter.length; code++) {
+                    if (majorFilter[code]) {
+                        for (int row : rowsByMajor.get(code)) {
+                            if (live.get(row)) {
+                                rows[count++] = row;
+                            }
+                        }
+                    }
+                }
+                return sortedPage(column, descending, rows, count, offset, limit);
+            }
+            if (column == MAJOR) {
+                // The rows of the filtered majors are one run of the major order
+                from = length;
+                to = 0;
+                for (int code = 0; code < majorFilter.length; code++) {
+                    if (majorFilter[code]) {
+                        for (int row : rowsByMajor.get(code)) {
+                            int rank = ranks[MAJOR][row];
+                            if (live.get(row) && rank != Integer.MAX_VALUE) {
+                                from = Math.min(from, rank);
+                                to = Math.max(to, rank + 1);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        int[] rows = new int[Math.max(0, limit)];
+        int found = 0;
+        int matched = 0;
+        for (int i = from; i < to && found < rows.length; i++) {
+            int row = order[descending ? to - 1 - (i - from) : i];
+            if (live.get(row) && (majorFilter == null || majorFilter[majors[row]])) {
+                if (matched++ >= offset) {
+                    rows[found++] = row;
+                }
+            }
+        }
+        return Arrays.copyOf(rows, found);
+    }
+
+    // With a keyword: test every row in storage order (sequential reads), then page the matches
+    private int[] selectMatching(int column, boolean descending, boolean[] majorFilter, Needle needle,
+                                 int offset, int limit, int[] total) {
+        BitSet matching = new BitSet(size);
+        int count = 0;
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            if ((majorFilter == null || majorFilter[majors[row]]) && needle.matches(row)) {
+                matching.set(row);
+                count++;
+            }
+        }
+        total[0] = count;
+        if (count <= orderSize / SMALL_RESULT) {
+            int[] rows = new int[count];
+            for (int row = matching.nextSetBit(0), i = 0; row >= 0; row = matching.nextSetBit(row + 1)) {
+                rows[i++] = row;
+            }
+            return sortedPage(column, descending, rows, count, offset, limit);
+        }
+        int[] order = column == ID ? idOrder : orders[column];
+        int length = column == ID ? orderSize : order.length;
+        int[] rows = new int[Math.max(0, Math.min(limit, count - offset))];
+        int found = 0;
+        int matched = 0;
+        for (int i = 0; i < length && found < rows.length; i++) {
+            int row = order[descending ? length - 1 - i : i];
+            if (matching.get(row) && matched++ >= offset) {
+                rows[found++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, found);
+    }
+
+    // A few rows: sort them for the page instead of walking the whole order
+    private int[] sortedPage(int column, boolean descending, int[] rows, int count, int offset, int limit) {
+        int[] page = new int[Math.max(0, Math.min(limit, count - offset))];
+        long[] keyed = byPosition(column, rows, count);
+        for (int i = 0; i < page.length; i++) {
+            page[i] = rows[(int) keyed[descending ? count - 1 - offset - i : offset + i]];
+        }
+        return page;
+    }
+
+    // Indexes 0..count-1 of rows (low 32 bits), sorted by the rows' position in the column's order
+    private long[] byPosition(int column, int[] rows, int count) {
+        long[] keyed = new long[count];
+        for (int i = 0; i < count; i++) {
+            long position = column == ID ? ids[rows[i]] : ranks[column][rows[i]];
+            keyed[i] = position << 32 | i;
+        }
+        Arrays.sort(keyed);
+        return keyed;
+    }
+
+    private int count(boolean[] majorFilter) {
+        if (majorFilter == null) {
+            return liveCount;
+        }
+        int count = 0;
+        for (int code = 0; code < majorFilter.length; code++) {
+            if (majorFilter[code]) {
+                count += liveByMajor[code];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Add score to the first limit live rows whose normalized code, name or email starts with
+     * prefix (a normalized keyword), in the database's (value, id) order like the index range
+     * scan of the SQL search.
+     * @return false (and nothing is added) if more than limit rows match while the order is
+     *         out of date (isSorted)
+     */
+    boolean scorePrefix(int column, String prefix, int exactScore, int prefixScore, Scores scores, int limit) {
+        int[] order = prefixOrders[column];
+        StringColumn values = values(column);
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = orderSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values.compareFolded(order[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int[] rows = new int[Math.min(limit + 1, 1024)];
+        int count = 0;
+        for (int i = low; i < orderSize; i++) {
+            int row = order[i];
+            if (values.prefixFolded(row, key) < 0) {
+                break;
+            }
+            if (live.get(row) && !values.isNull(row)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = row;
+            }
+        }
+        if (count > limit) {
+            if (!isSorted()) {
+                return false;
+            }
+            long[] keyed = byPosition(column, rows, count);
+            int[] first = new int[limit];
+            for (int i = 0; i < limit; i++) {
+                first[i] = rows[(int) keyed[i]];
+            }
+            rows = first;
+            count = limit;
+        }
+        for (int i = 0; i < count; i++) {
+            scores.add(rows[i], values.prefixFolded(rows[i], key) == 1 ? exactScore : prefixScore);
+        }
+        return true;
+    }
+
+    /**
+     * Add 20 (whole word) or 10 (word prefix) to the first limit live rows with a name or
+     * email word starting with word, like the token branch of the SQL search.
+     */
+    void scoreWord(String word, Scores scores, int limit) {
+        int taken = tokens == null ? 0 : tokens.score(word, live, scores, limit);
+        for (Map.Entry<String, RoaringBitmap> entry : addedTokens.tailMap(word, true).entrySet()) {
+            if (taken >= limit || !entry.getKey().startsWith(word)) {
+                break;
+            }
+            int score = entry.getKey().length() == word.length() ? 20 : 10;
+            for (int row : entry.getValue()) {
+                if (live.get(row)) {
+                    scores.add(row, score);
+                    if (++taken >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rows offset..offset+limit of the scored rows, best score first, then highest id.
+     */
+    int[] rank(Scores scores, int offset, int limit) {
+        int count = scores.size;
+        int[] rows = new int[count];
+        int[] values = new int[count];
+        int[] positions = new int[count];
+        for (int slot = 0, i = 0; slot < scores.rows.length; slot++) {
+            if (scores.rows[slot] >= 0) {
+                rows[i] = scores.rows[slot];
+                values[i] = scores.values[slot];
+                positions[i] = i;
+                i++;
+            }
+        }
+        sort(positions, (a, b) -> values[a] != values[b] ? Integer.compare(values[b], values[a])
+                : Integer.compare(ids[rows[b]], ids[rows[a]]));
+        int from = Math.min(Math.max(offset, 0), count);
+        int[] page = new int[Math.min(Math.max(limit, 0), count - from)];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = rows[positions[from + i]];
+        }
+        return page;
+    }
+
+    Student student(int row) {
+        Student student = new Student();
+        student.setId(ids[row]);
+        student.setStudentCode(codes.get(row));
+        student.setFullName(names.get(row));
+        student.setEmail(emails.get(row));
+        student.setMajor(majorValues.get(majors[row]));
+        long micros = createdMicros[row];
+        if (micros != Long.MIN_VALUE) {
+            Timestamp created = new Timestamp(Math.floorDiv(micros, 1000));
+            created.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1000);
+            student.setCreatedAt(created);
+        }
+        return student;
+    }
+
+    int getLiveCount() {
+        return liveCount;
+    }
+
+    int getDeadCount() {
+        return size - liveCount;
+    }
+
+    int getAppendedSinceLoad() {
+        return appendedSinceLoad;
+    }
+
+    int getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * Heap taken by each part, from the array lengths (capacity, not only the used part).
+     */
+    Map<String, Long> memory() {
+        Map<String, Long> bytes = new LinkedHashMap<>();
+        bytes.put("id", 16 + ids.length * 4L);
+        bytes.put("created_at", 16 + createdMicros.length * 8L);
+        long majorBytes = 16 + majors.length * 2L + 16 + liveByMajor.length * 4L + majorValues.size() * 64L;
+        for (RoaringBitmap rows : rowsByMajor) {
+            majorBytes += rows.getSizeInBytes();
+        }
+        bytes.put("major", majorBytes);
+        bytes.put("student_code", codes.memory());
+        bytes.put("full_name", names.memory());
+        bytes.put("email", emails.memory());
+        bytes.put("live", 16 + live.size() / 8L);
+        long orderBytes = idOrder == null ? 0 : 16 + idOrder.length * 4L;
+        for (int column = 0; column < COLUMNS.length; column++) {
+            for (int[] array : new int[][]{prefixOrders[column], orders[column], ranks[column]}) {
+                orderBytes += array == null ? 0 : 16 + array.length * 4L;
+            }
+        }
+        bytes.put("sortOrders", orderBytes);
+        long wordBytes = tokens == null ? 0 : tokens.memory();
+        for (Map.Entry<String, RoaringBitmap> entry : addedTokens.entrySet()) {
+            // TreeMap entry and String headers, the chars, the bitmap
+            wordBytes += 96 + entry.getKey().length() + entry.getValue().getSizeInBytes();
+        }
+        bytes.put("words", wordBytes);
+        return bytes;
+    }
+
+    // --- Ordering ---
+
+    private StringColumn values(int column) {
+        return column == CODE ? codes : column == NAME ? names : emails;
+    }
+
+    // For the in-memory orders: id, or (normalized value, id); then row, so an id's older rows come first
+    private int compare(int column, int a, int b) {
+        int result = column == ID ? 0 : values(column).compareFolded(a, b);
+        if (result == 0) {
+            result = Integer.compare(ids[a], ids[b]);
+        }
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    /**
+     * Search score per row, summed over the branches (open addressing, no boxing).
+     */
+    static final class Scores {
+        private int[] rows = new int[1024];
+        private int[] values = new int[1024];
+        private int size;
+
+        Scores() {
+            Arrays.fill(rows, -1);
+        }
+
+        void add(int row, int score) {
+            if (size * 2 >= rows.length) {
+                grow();
+            }
+            int mask = rows.length - 1;
+            int slot = (row * 0x9E3779B9) >>> 1 & mask;
+            while (rows[slot] >= 0 && rows[slot] != row) {
+                slot = (slot + 1) & mask;
+            }
+            if (rows[slot] < 0) {
+                rows[slot] = row;
+                size++;
+            }
+            values[slot] += score;
+        }
+
+        private void grow() {
+            int[] oldRows = rows;
+            int[] oldValues = values;
+            rows = new int[oldRows.length * 2];
+            values = new int[oldRows.length * 2];
+            Arrays.fill(rows, -1);
+            size = 0;
+            for (int slot = 0; slot < oldRows.length; slot++) {
+                if (oldRows[slot] >= 0) {
+                    add(oldRows[slot], oldValues[slot]);
+                }
+            }
+        }
+    }
+
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    // Merge sort of row numbers (Arrays.sort has no comparator for int[])
+    private static void sort(int[] rows, RowComparator comparator) {
+        int[] buffer = new int[rows.length];
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int low = 0; low < rows.length - width; low += 2 * width) {
+                int mid = low + width;
+                int high = Math.min(low + 2 * width, rows.length);
+                if (comparator.compare(rows[mid - 1], rows[mid]) <= 0) {
+                    continue; // already in order
+                }
+                int i = low;
+                int j = mid;
+                int k = low;
+                while (i < mid && j < high) {
+                    buffer[k++] = comparator.compare(rows[i], rows[j]) <= 0 ? rows[i++] : rows[j++];
+                }
+                while (i < mid) {
+                    buffer[k++] = rows[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = rows[j++];
+                }
+                System.arraycopy(buffer, low, rows, low, high - low);
+            }
+        }
+    }
+
+    private static long micros(Timestamp timestamp) {
+        return Math.floorDiv(timestamp.getTime(), 1000) * 1_000_000L + timestamp.getNanos() / 1000;
+    }
+
+    /**
+     * Substring test on the normalized code, name and email of a row, on the UTF-8 bytes
+     * without decoding the values.
+     */
+    private final class Needle {
+        private final byte[] key;
+
+        Needle(String keyword) {
+            key = StudentSearchIndex.normalize(keyword).getBytes(StandardCharsets.UTF_8);
+        }
+
+        boolean matches(int row) {
+            return codes.containsFolded(row, key) || names.containsFolded(row, key) || emails.containsFolded(row, key);
+        }
+    }
+
+    /**
+     * Strings of one column: the UTF-8 bytes of every row back to back, and where each row starts.
+     * Rows with other than ASCII characters also keep their normalized text (StudentSearchIndex.normalize);
+     * matching folds ASCII letters of the others, which normalizes them the same way.
+     */
+    private static final class StringColumn {
+        private byte[] bytes = new byte[16 * 1024];
+        private int used;
+        // Row r is bytes[offsets[r], offsets[r + 1])
+        private int[] offsets = new int[1025];
+        private int rows;
+        private final BitSet nulls = new BitSet();
+        // Normalized row r is normalized[normalizedOffsets[r], normalizedOffsets[r + 1]), empty for ASCII rows
+        private byte[] normalized = new byte[1024];
+        private int normalizedUsed;
+        private int[] normalizedOffsets = new int[1025];
+        private final BitSet nonAscii = new BitSet();
+
+        void add(String value) {
+            byte[] encoded = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            if (used + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(used + encoded.length, bytes.length + (bytes.length >> 1)));
+            }
+            if (rows + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+                normalizedOffsets = Arrays.copyOf(normalizedOffsets, offsets.length);
+            }
+            System.arraycopy(encoded, 0, bytes, used, encoded.length);
+            used += encoded.length;
+            if (value == null) {
+                nulls.set(rows);
+            }
+            if (value != null && encoded.length != value.length()) {
+                byte[] folded = StudentSearchIndex.normalize(value).getBytes(StandardCharsets.UTF_8);
+                if (normalizedUsed + folded.length > normalized.length) {
+                    normalized = Arrays.copyOf(normalized,
+                            Math.max(normalizedUsed + folded.length, normalized.length + (normalized.length >> 1)));
+                }
+                System.arraycopy(folded, 0, normalized, normalizedUsed, folded.length);
+                normalizedUsed += folded.length;
+                nonAscii.set(rows);
+            }
+            offsets[++rows] = used;
+            normalizedOffsets[rows] = normalizedUsed;
+        }
+
+        String get(int row) {
+            return isNull(row) ? null : new String(bytes, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+        }
+
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        boolean equalsValue(int row, String value) {
+            if (value == null || isNull(row)) {
+                return value == null && isNull(row);
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            return Arrays.equals(bytes, offsets[row], offsets[row + 1], encoded, 0, encoded.length);
+        }
+
+        // The bytes matching compares: the normalized text, or the value with ASCII letters folded
+        private byte[] source(int row) {
+            return nonAscii.get(row) ? normalized : bytes;
+        }
+
+        private int start(int row) {
+            return nonAscii.get(row) ? normalizedOffsets[row] : offsets[row];
+        }
+
+        private int end(int row) {
+            return nonAscii.get(row) ? normalizedOffsets[row + 1] : offsets[row + 1];
+        }
+
+        private static int fold(byte b) {
+            return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b & 0xFF;
+        }
+
+        // key is normalized UTF-8; false for a null value
+        boolean containsFolded(int row, byte[] key) {
+            if (isNull(row)) {
+                return false;
+            }
+            byte[] source = source(row);
+            int last = end(row) - key.length;
+            for (int i = start(row); i <= last; i++) {
+                int j = 0;
+                while (j < key.length && fold(source[i + j]) == (key[j] & 0xFF)) {
+                    j++;
+                }
+                if (j == key.length) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return 1 if the normalized value equals the normalized prefix, 0 if it starts with it, -1 if not
+         */
+        int prefixFolded(int row, byte[] prefix) {
+            byte[] source = source(row);
+            int start = start(row);
+            int length = end(row) - start;
+            if (length < prefix.length || isNull(row)) {
+                return -1;
+            }
+            for (int j = 0; j < prefix.length; j++) {
+                if (fold(source[start + j]) != (prefix[j] & 0xFF)) {
+                    return -1;
+                }
+            }
+            return length == prefix.length ? 1 : 0;
+        }
+
+        // Normalized values in UTF-8 byte (code point) order; null sorts as ""
+        int compareFolded(int a, int b) {
+            return compareFolded(source(a), start(a), end(a), source(b), start(b), end(b));
+        }
+
+        int compareFolded(int row, byte[] key) {
+            return compareFolded(source(row), start(row), end(row), key, 0, key.length);
+        }
+
+        private static int compareFolded(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+            int length = Math.min(aTo - aFrom, bTo - bFrom);
+            for (int i = 0; i < length; i++) {
+                int result = Integer.compare(fold(a[aFrom + i]), fold(b[bFrom + i]));
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(aTo - aFrom, bTo - bFrom);
+        }
+
+        long memory() {
+            return 16 + bytes.length + 16 + offsets.length * 4L + nulls.size() / 8
+                    + 16 + normalized.length + 16 + normalizedOffsets.length * 4L + nonAscii.size() / 8;
+        }
+    }
+
+    /**
+     * Words in UTF-8 byte order, back to back in one array, and the rows of each word.
+     */
+    private static final class Tokens {
+        private final byte[] pool;
+        private final int[] offsets;
+        private final int[] starts;
+        private final int[] rows;
+
+        Tokens(byte[] pool, int[] offsets, int[] starts, int[] rows) {
+            this.pool = pool;
+            this.offsets = offsets;
+            this.starts = starts;
+            this.rows = rows;
+        }
+
+        int score(String word, BitSet live, Scores scores, int limit) {
+            byte[] prefix = word.getBytes(StandardCharsets.UTF_8);
+            int count = offsets.length - 1;
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Arrays.compareUnsigned(pool, offsets[mid], offsets[mid + 1], prefix, 0, prefix.length) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int taken = 0;
+            for (int token = low; token < count && taken < limit; token++) {
+                int length = offsets[token + 1] - offsets[token];
+                if (length < prefix.length || !Arrays.equals(pool, offsets[token], offsets[token] + prefix.length,
+                        prefix, 0, prefix.length)) {
+                    break;
+                }
+                int score = length == prefix.length ? 20 : 10;
+                for (int i = starts[token]; i < starts[token + 1] && taken < limit; i++) {
+                    if (live.get(rows[i])) {
+                        scores.add(rows[i], score);
+                        taken++;
+                    }
+                }
+            }
+            return taken;
+        }
+
+        long memory() {
+            return 16 + pool.length + 16 + offsets.length * 4L + 16 + starts.length * 4L + 16 + rows.length * 4L;
+        }
+    }
+
+    // (word, row) pairs collected while loading
+    private static final class TokenBuilder {
+        private final Map<String, Integer> numbers = new HashMap<>();
+        private final List<String> words = new ArrayList<>();
+        private int[] wordOf = new int[1024];
+        private int[] rowOf = new int[1024];
+        private int pairs;
+
+        void add(String word, int row) {
+            Integer number = numbers.get(word);
+            if (number == null) {
+                number = words.size();
+                numbers.put(word, number);
+                words.add(word);
+            }
+            if (pairs == wordOf.length) {
+                wordOf = Arrays.copyOf(wordOf, pairs * 2);
+                rowOf = Arrays.copyOf(rowOf, pairs * 2);
+            }
+            wordOf[pairs] = number;
+            rowOf[pairs++] = row;
+        }
+
+        Tokens build() {
+            int count = words.size();
+            byte[][] encoded = new byte[count][];
+            Integer[] sorted = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                encoded[i] = words.get(i).getBytes(StandardCharsets.UTF_8);
+                sorted[i] = i;
+            }
+            Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(encoded[a], encoded[b]));
+
+            int[] rank = new int[count];
+            int[] offsets = new int[count + 1];
+            int poolSize = 0;
+            for (int i = 0; i < count; i++) {
+                rank[sorted[i]] = i;
+                poolSize += encoded[sorted[i]].length;
+                offsets[i + 1] = poolSize;
+            }
+            byte[] pool = new byte[poolSize];
+            for (int i = 0; i < count; i++) {
+                byte[] word = encoded[sorted[i]];
+                System.arraycopy(word, 0, pool, offsets[i], word.length);
+            }
+
+            // Counting sort of the pairs by word; rows stay ascending within a word
+            int[] starts = new int[count + 1];
+            for (int i = 0; i < pairs; i++) {
+                starts[rank[wordOf[i]] + 1]++;
+            }
+            for (int i = 0; i < count; i++) {
+                starts[i + 1] += starts[i];
+            }
+            int[] next = Arrays.copyOf(starts, count);
+            int[] rows = new int[pairs];
+            for (int i = 0; i < pairs; i++) {
+                rows[next[rank[wordOf[i]]]++] = rowOf[i];
+            }
+            return new Tokens(pool, offsets, starts, rows);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.student.dao;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The column labels a RowMapper reads, resolved to result set positions once per SQL string.
+ *
+ * rs.getString("full_name") searches the column labels on every call, i.e. per field per row.
+ * resolve() reads the metadata of the first result of a statement and caches the positions,
+ * so mappers can use rs.getString(int) for every row after that.
+ */
+public final class Columns {
+
+    // Distinct SQL strings cached per column set; dynamic SQL beyond this is resolved every time
+    private static final int MAX_CACHED_STATEMENTS = 256;
+
+    private final String[] labels;
+    private final Map<String, Resolved> bySql = new ConcurrentHashMap<>();
+
+    private Columns(String[] labels) {
+        this.labels = labels;
+    }
+
+    public static Columns of(String... labels) {
+        String[] lower = new String[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            lower[i] = labels[i].toLowerCase(Locale.ROOT);
+        }
+        return new Columns(lower);
+    }
+
+    /**
+     * Position (1-based) of every label in this result, 0 for a label the query does not select.
+     * The result is shared, callers must not change it.
+     */
+    public int[] resolve(String sql, ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        // The column count guards against a cached SELECT * whose table has changed
+        Resolved cached = bySql.get(sql);
+        if (cached != null && cached.columnCount == columnCount) {
+            return cached.positions;
+        }
+
+        Map<String, Integer> positionByLabel = new HashMap<>();
+        for (int i = columnCount; i >= 1; i--) {
+            // First occurrence wins, like rs.findColumn
+            positionByLabel.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        int[] positions = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            positions[i] = positionByLabel.getOrDefault(labels[i], 0);
+        }
+
+        if (bySql.size() < MAX_CACHED_STATEMENTS) {
+            bySql.put(sql, new Resolved(columnCount, positions));
+        }
+        return positions;
+    }
+
+    private static final class Resolved {
+        final int columnCount;
+        final int[] positions;
+
+        Resolved(int columnCount, int[] positions) {
+            this.columnCount = columnCount;
+            this.positions = positions;
+        }
+    }
+}
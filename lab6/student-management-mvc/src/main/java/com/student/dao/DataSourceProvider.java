@@ -0,0 +1,271 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+import com.student.metrics.Metrics;
+import com.student.metrics.TimedConnection;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared connection pool for all DAOs.
+ * Uses a container DataSource from JNDI when "db.jndiName" is set,
+ * otherwise builds a HikariCP pool from the "db.*" settings (see AppSettings).
+ *
+ * Reads may go to read replicas (db.replica.urls, see ReplicaSet) through getReadConnection();
+ * getConnection() is always the primary.
+ *
+ * Every connection runs its statements under DatabaseGuard (timeouts, bulkhead, circuit breaker).
+ */
+public final class DataSourceProvider {
+
+    // Default database configuration (same values the DAOs used before)
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/student_management";
+    private static final String DEFAULT_USER = "root";
+    private static final String DEFAULT_PASSWORD = "khoi";
+    private static final String DEFAULT_DRIVER = "com.mysql.cj.jdbc.Driver";
+
+    private static volatile DataSource dataSource;
+    private static volatile boolean timeStatements;
+    private static volatile ReplicaSet replicas;
+    // Set by shutdown(): no new pool is built behind the closed one
+    private static volatile boolean closed;
+
+    private DataSourceProvider() {
+    }
+
+    /**
+     * Get a pooled connection. Closing it returns it to the pool.
+     * With metrics.enabled its statements are timed (see TimedConnection).
+     * Holds one of DatabaseGuard's write permits until it is closed.
+     * @throws DatabaseUnavailableException at once while DatabaseGuard's breaker is open,
+     *         or when no write permit is free
+     */
+    public static Connection getConnection() throws SQLException {
+        return connect(false, false);
+    }
+
+    /**
+     * Get a connection for a read that may be a little stale: a replica whose lag is
+     * within db.replica.maxLagSeconds, or the primary when there is none, when the current
+     * ReadRouting scope asks for the primary, or when no replica can be reached.
+     * Holds one of DatabaseGuard's read permits until it is closed.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        return connect(true, !ReadRouting.readFromPrimary());
+    }
+
+    /**
+     * Get a primary connection for reads that must see the latest writes (log in, uniqueness
+     * checks, index rebuilds). Like getConnection(), but it holds a read permit.
+     */
+    public static Connection getPrimaryReadConnection() throws SQLException {
+        return connect(true, false);
+    }
+
+    // The permit is taken before the checkout, so a full bulkhead does not also hold pool connections
+    private static Connection connect(boolean read, boolean replica) throws SQLException {
+        DatabaseGuard guard = DatabaseGuard.getInstance();
+        guard.acquire(read);
+        try {
+            Connection conn = replica ? getReplicas().getConnection() : null;
+            boolean primary = conn == null;
+            if (primary) {
+                guard.beforeConnect();
+                try {
+                    conn = getDataSource().getConnection();
+                } catch (SQLException e) {
+                    guard.connectFailed(e);
+                    throw e;
+                }
+            }
+            conn = guard.wrap(conn, primary, read);
+            return timeStatements ? TimedConnection.wrap(conn) : conn;
+        } catch (SQLException | RuntimeException e) {
+            guard.release(read);
+            throw e;
+        }
+    }
+
+    /**
+     * @throws SQLException if the pool cannot be built, or after shutdown()
+     */
+    public static DataSource getDataSource() throws SQLException {
+        DataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (DataSourceProvider.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    checkOpen();
+                    ds = createDataSource();
+                    timeStatements = Metrics.isEnabled();
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    /**
+     * Close the pool (only if we created it, JNDI resources belong to the container).
+     * Connections cannot be had afterwards.
+     */
+    public static synchronized void shutdown() {
+        closed = true;
+        if (replicas != null) {
+            replicas.shutdown();
+            replicas = null;
+        }
+        if (dataSource instanceof HikariDataSource) {
+            ((HikariDataSource) dataSource).close();
+        }
+        dataSource = null;
+    }
+
+    /**
+     * Pool metrics: active, idle, total and waiting connections.
+     */
+    public static Map<String, Object> getPoolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        DataSource ds = dataSource;
+        if (ds instanceof HikariDataSource) {
+            HikariDataSource hikari = (HikariDataSource) ds;
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            stats.put("poolName", hikari.getPoolName());
+            stats.put("maxPoolSize", hikari.getMaximumPoolSize());
+            stats.put("minIdle", hikari.getMinimumIdle());
+            if (pool != null) {
+                stats.put("activeConnections", pool.getActiveConnections());
+                stats.put("idleConnections", pool.getIdleConnections());
+                stats.put("totalConnections", pool.getTotalConnections());
+                stats.put("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+            }
+        } else if (ds != null) {
+            stats.put("poolName", "jndi:" + AppSettings.get("db.jndiName", ""));
+        }
+        return stats;
+    }
+
+    /**
+     * Replica health, lag and read counts (empty list when no replicas are configured).
+     */
+    public static Map<String, Object> getReplicaStats() {
+        ReplicaSet current = replicas;
+        return current == null ? ReplicaSet.emptyStats() : current.getStats();
+    }
+
+    private static ReplicaSet getReplicas() throws SQLException {
+        ReplicaSet current = replicas;
+        if (current == null) {
+            synchronized (DataSourceProvider.class) {
+                current = replicas;
+                if (current == null) {
+                    checkOpen();
+                    current = new ReplicaSet(AppSettings.get("db.replica.urls", ""));
+                    replicas = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+    }
+
+    /**
+     * Fetch size that makes the driver stream rows instead of buffering the whole result.
+     * MySQL Connector/J only streams with Integer.MIN_VALUE; other drivers take a normal batch size.
+     */
+    public static int streamingFetchSize(Connection conn, int batchSize) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName();
+        return "MySQL".equalsIgnoreCase(product) ? Integer.MIN_VALUE : batchSize;
+    }
+
+    private static DataSource createDataSource() throws SQLException {
+        String jndiName = AppSettings.get("db.jndiName", "");
+        if (!jndiName.isEmpty()) {
+            try {
+                return (DataSource) new InitialContext().lookup(jndiName);
+            } catch (NamingException e) {
+                throw new SQLException("DataSource not found in JNDI: " + jndiName, e);
+            }
+        }
+
+        return createPool("StudentPool", AppSettings.get("db.url", DEFAULT_URL), primaryUser(), primaryPassword());
+    }
+
+    static String primaryUser() {
+        return AppSettings.get("db.user", DEFAULT_USER);
+    }
+
+    static String primaryPassword() {
+        return AppSettings.get("db.password", DEFAULT_PASSWORD);
+    }
+
+    /**
+     * A HikariCP pool with the db.pool.* settings; also used for the replicas.
+     */
+    static HikariDataSource createPool(String poolName, String url, String user, String password) throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        boolean mysql = url.startsWith("jdbc:mysql:");
+        String driver = AppSettings.get("db.driver", mysql ? DEFAULT_DRIVER : "");
+        if (!driver.isEmpty()) {
+            config.setDriverClassName(driver);
+        }
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+
+        // Pool size
+        config.setMinimumIdle(AppSettings.getInt("db.pool.minIdle", 2));
+        config.setMaximumPoolSize(AppSettings.getInt("db.pool.maxSize", 10));
+        config.setConnectionTimeout(AppSettings.getInt("db.pool.connectionTimeoutMs", 30000));
+        config.setIdleTimeout(AppSettings.getInt("db.pool.idleTimeoutMs", 600000));
+        config.setMaxLifetime(AppSettings.getInt("db.pool.maxLifetimeMs", 1800000));
+
+        // Validation (JDBC4 isValid() unless a test query is given)
+        config.setValidationTimeout(AppSettings.getInt("db.pool.validationTimeoutMs", 5000));
+        String testQuery = AppSettings.get("db.pool.testQuery", "");
+        if (!testQuery.isEmpty()) {
+            config.setConnectionTestQuery(testQuery);
+        }
+
+        // Log a warning with stack trace when a connection is held longer than this (0 = off)
+        config.setLeakDetectionThreshold(AppSettings.getInt("db.pool.leakDetectionMs", 10000));
+
+        // Expose pool metrics over JMX
+        config.setRegisterMbeans(true);
+
+        // MySQL driver side statement caching
+        if (mysql) {
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            // Send JDBC batches as multi-row INSERTs (bulk import)
+            config.addDataSourceProperty("rewriteBatchedStatements", AppSettings.get("db.rewriteBatchedStatements", "true"));
+            // Give up on a silent server or network: a query timeout is sent as KILL QUERY over
+            // another connection, which does not help when the server or the link hangs
+            config.addDataSourceProperty("connectTimeout", AppSettings.get("db.connectTimeoutMs", "5000"));
+            config.addDataSourceProperty("socketTimeout", AppSettings.get("db.socketTimeoutMs", "60000"));
+        }
+
+        try {
+            return new HikariDataSource(config);
+        } catch (RuntimeException e) {
+            throw new SQLException("Could not initialize connection pool", e);
+        }
+    }
+}
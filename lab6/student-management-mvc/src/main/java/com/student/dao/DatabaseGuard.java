@@ -0,0 +1,376 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a slow or dead database from taking every request thread with it.
+ * Applied to every connection from DataSourceProvider (see GuardedConnection):
+ *
+ * - Timeouts: each statement gets a query timeout, db.timeout.readSeconds for SELECTs and
+ *   db.timeout.writeSeconds for the rest. A call still running db.timeout.abortGraceMs after
+ *   that (the driver could not cancel it, e.g. the network hangs) counts as failed and its
+ *   connection is aborted; a sweeper thread checks the deadlines of all connections in use.
+ * - Bulkhead: at most db.bulkhead.reads read connections (getReadConnection, getPrimaryReadConnection)
+ *   and db.bulkhead.writes write connections (getConnection) are checked out at once. The permit is
+ *   taken at checkout and released by close(), never in the middle of a transaction. A checkout
+ *   that gets no permit within db.bulkhead.waitMs fails, so a stall of one kind pins a bounded
+ *   number of threads and leaves connections to the other kind.
+ * - Circuit breaker: after db.breaker.failureThreshold database failures in a row (timeouts,
+ *   lost connections, no connection from the pool) the primary is considered down for
+ *   db.breaker.openSeconds: getConnection() fails at once with DatabaseUnavailableException
+ *   and the pages fall back to cached results (StudentDAO). Then one call per second is let
+ *   through as a probe; the first success closes the breaker again.
+ *
+ * Errors the database answered (duplicate key, bad SQL) prove it is up and reset the failure count.
+ * Settings are read once; db.guard.enabled=false leaves connections unwrapped.
+ */
+public final class DatabaseGuard {
+
+    private static final DatabaseGuard INSTANCE = new DatabaseGuard();
+
+    private static final long PROBE_INTERVAL_MILLIS = 1000;
+    private static final long SWEEP_INTERVAL_MILLIS = 250;
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private volatile Settings settings;
+    private volatile ScheduledExecutorService sweeper;
+    private volatile ExecutorService aborter;
+
+    // Connections handed out and not closed yet, for the sweeper
+    private final Set<GuardedConnection> inUse = ConcurrentHashMap.newKeySet();
+
+    // Breaker
+    private volatile State state = State.CLOSED;
+    private volatile long openedAtMillis;
+    private volatile long lastProbeMillis;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    // Counters
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder overdue = new LongAdder();
+    private final LongAdder rejectedReads = new LongAdder();
+    private final LongAdder rejectedWrites = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    private DatabaseGuard() {
+    }
+
+    public static DatabaseGuard getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return settings().enabled;
+    }
+
+    /**
+     * @return true while the breaker is open or probing: database calls fail fast
+     */
+    public boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    /**
+     * Called before taking a connection to the primary.
+     * @throws DatabaseUnavailableException if the breaker is open
+     */
+    void beforeConnect() throws DatabaseUnavailableException {
+        if (state == State.CLOSED || !isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (state == State.OPEN && now - openedAtMillis >= settings().openMillis) {
+                state = State.HALF_OPEN;
+            }
+            if (state == State.HALF_OPEN && now - lastProbeMillis >= PROBE_INTERVAL_MILLIS) {
+                lastProbeMillis = now;
+                return; // this call is the probe
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+        }
+        shortCircuited.increment();
+        throw new DatabaseUnavailableException("Database unavailable (circuit open)");
+    }
+
+    /**
+     * Called when the pool could not hand out a connection to the primary.
+     */
+    void connectFailed(SQLException e) {
+        if (isEnabled() && isDatabaseFailure(e)) {
+            recordFailure();
+        }
+    }
+
+    /**
+     * Take a bulkhead permit for a connection about to be checked out.
+     * @throws DatabaseUnavailableException if none is free within db.bulkhead.waitMs
+     */
+    void acquire(boolean read) throws DatabaseUnavailableException {
+        if (!isEnabled()) {
+            return;
+        }
+        Settings current = settings();
+        boolean acquired;
+        try {
+            acquired = (read ? current.readPermits : current.writePermits)
+                    .tryAcquire(current.bulkheadWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            (read ? rejectedReads : rejectedWrites).increment();
+            throw new DatabaseUnavailableException("Too many concurrent database " + (read ? "reads" : "writes"));
+        }
+    }
+
+    /**
+     * Give back the permit of acquire(), when the connection is closed or could not be checked out.
+     */
+    void release(boolean read) {
+        if (isEnabled()) {
+            Settings current = settings();
+            (read ? current.readPermits : current.writePermits).release();
+        }
+    }
+
+    /**
+     * Wrap a pooled connection holding a permit of acquire(read); closing it releases the permit.
+     * Only the primary's statements feed the breaker; replicas have their own health check (ReplicaSet).
+     */
+    Connection wrap(Connection conn, boolean primary, boolean read) {
+        return isEnabled() ? GuardedConnection.wrap(conn, this, primary, read) : conn;
+    }
+
+    int queryTimeoutSeconds(boolean read) {
+        return read ? settings().readTimeoutSeconds : settings().writeTimeoutSeconds;
+    }
+
+    long abortGraceNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(settings().abortGraceMillis);
+    }
+
+    void register(GuardedConnection connection) {
+        inUse.add(connection);
+        if (sweeper == null) {
+            startSweeper();
+        }
+    }
+
+    void unregister(GuardedConnection connection) {
+        inUse.remove(connection);
+    }
+
+    /**
+     * Run one call that does database work and feed its outcome to the breaker.
+     */
+    Object record(boolean primary, GuardedConnection.Call call) throws Throwable {
+        try {
+            Object result = call.call();
+            if (primary) {
+                recordSuccess();
+            }
+            return result;
+        } catch (SQLException e) {
+            if (e instanceof SQLTimeoutException) {
+                timeouts.increment();
+            }
+            if (primary) {
+                if (isDatabaseFailure(e)) {
+                    recordFailure();
+                } else {
+                    recordSuccess();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Close the breaker and forget the failures (admin action).
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        consecutiveFailures.set(0);
+    }
+
+    public Map<String, Object> getStats() {
+        Settings current = settings();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", current.enabled);
+        stats.put("state", state.name());
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("failureThreshold", current.failureThreshold);
+        stats.put("openSeconds", current.openMillis / 1000);
+        stats.put("timesOpened", opened.sum());
+        stats.put("shortCircuited", shortCircuited.sum());
+        stats.put("failures", failures.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("overdueAborted", overdue.sum());
+        stats.put("readTimeoutSeconds", current.readTimeoutSeconds);
+        stats.put("writeTimeoutSeconds", current.writeTimeoutSeconds);
+        stats.put("readsInFlight", current.maxReads - current.readPermits.availablePermits());
+        stats.put("writesInFlight", current.maxWrites - current.writePermits.availablePermits());
+        stats.put("maxReads", current.maxReads);
+        stats.put("maxWrites", current.maxWrites);
+        stats.put("rejectedReads", rejectedReads.sum());
+        stats.put("rejectedWrites", rejectedWrites.sum());
+        return stats;
+    }
+
+    public synchronized void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+        if (aborter != null) {
+            aborter.shutdownNow();
+            aborter = null;
+        }
+    }
+
+    /**
+     * Failures that say the database is slow or unreachable, as opposed to errors it answered.
+     */
+    static boolean isDatabaseFailure(SQLException e) {
+        if (e instanceof DatabaseUnavailableException) {
+            return false; // our own rejection, not a new observation
+        }
+        if (e instanceof SQLTimeoutException || e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String sqlState = e.getSQLState();
+        // 08 = connection exception, 57014 = query canceled (timeout in H2 and others)
+        return sqlState != null && (sqlState.startsWith("08") || "57014".equals(sqlState));
+    }
+
+    private void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            synchronized (this) {
+                if (state == State.HALF_OPEN) {
+                    state = State.CLOSED;
+                    System.out.println("Database circuit closed, database calls resume");
+                }
+            }
+        }
+    }
+
+    private void recordFailure() {
+        failures.increment();
+        int inRow = consecutiveFailures.incrementAndGet();
+        if (state == State.HALF_OPEN || (state == State.CLOSED && inRow >= settings().failureThreshold)) {
+            synchronized (this) {
+                if (state != State.OPEN) {
+                    state = State.OPEN;
+                    openedAtMillis = System.currentTimeMillis();
+                    opened.increment();
+                    System.out.println("Database circuit opened after " + inRow
+                            + " failures, failing fast for " + settings().openMillis / 1000 + "s");
+                }
+            }
+        }
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        for (GuardedConnection connection : inUse) {
+            if (connection.takeOverdue(now)) {
+                callOverdue(connection);
+            }
+        }
+    }
+
+    // The driver did not end the call at its timeout: count it and abort the connection.
+    // abort() may block on a hung socket too, so it runs on its own thread.
+    private void callOverdue(GuardedConnection connection) {
+        overdue.increment();
+        if (connection.isPrimary()) {
+            recordFailure();
+        }
+        Connection target = connection.getTarget();
+        aborter().execute(() -> {
+            try {
+                target.abort(Runnable::run);
+            } catch (SQLException | RuntimeException e) {
+                System.out.println("Could not abort hung connection: " + e.getMessage());
+            }
+        });
+    }
+
+    private Settings settings() {
+        Settings current = settings;
+        if (current == null) {
+            synchronized (this) {
+                current = settings;
+                if (current == null) {
+                    current = new Settings();
+                    settings = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized void startSweeper() {
+        if (sweeper == null) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "db-call-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized ExecutorService aborter() {
+        if (aborter == null) {
+            aborter = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "db-connection-abort");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return aborter;
+    }
+
+    private static final class Settings {
+        final boolean enabled = AppSettings.getBoolean("db.guard.enabled", true);
+        final int readTimeoutSeconds = Math.max(0, AppSettings.getInt("db.timeout.readSeconds", 5));
+        final int writeTimeoutSeconds = Math.max(0, AppSettings.getInt("db.timeout.writeSeconds", 10));
+        final long abortGraceMillis = Math.max(0, AppSettings.getLong("db.timeout.abortGraceMs", 2000));
+        final int maxReads = Math.max(1, AppSettings.getInt("db.bulkhead.reads", 7));
+        final int maxWrites = Math.max(1, AppSettings.getInt("db.bulkhead.writes", 3));
+        final long bulkheadWaitMillis = Math.max(0, AppSettings.getLong("db.bulkhead.waitMs", 100));
+        final int failureThreshold = Math.max(1, AppSettings.getInt("db.breaker.failureThreshold", 5));
+        final long openMillis = Math.max(1, AppSettings.getLong("db.breaker.openSeconds", 10)) * 1000;
+        final Semaphore readPermits = new Semaphore(maxReads);
+        final Semaphore writePermits = new Semaphore(maxWrites);
+    }
+}
@@ -0,0 +1,20 @@
+package com.student.dao;
+
+import java.sql.SQLTransientException;
+
+/**
+ * Thrown by DatabaseGuard instead of waiting on the database: the circuit breaker is open,
+ * or too many statements of the same kind are already running.
+ * It has no stack trace: it is thrown often while the database is down and its cause is known.
+ */
+public class DatabaseUnavailableException extends SQLTransientException {
+
+    public DatabaseUnavailableException(String message) {
+        super(message, "08000");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,199 @@
+package com.student.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wraps a pooled connection so its statements run under DatabaseGuard: a query timeout set
+ * when a statement is created, and the outcome of every execute (and prepare, commit, rollback,
+ * setAutoCommit) fed to the breaker. A statement counts as a read when its SQL starts with SELECT
+ * or WITH; executeQuery always is one. DAOs may still change the timeout with setQueryTimeout
+ * (e.g. BaseDAO.stream).
+ *
+ * The bulkhead permit taken when the connection was checked out (DataSourceProvider) is
+ * released by close(), so a transaction never waits for a permit halfway through.
+ *
+ * Every call on the connection or its statements also sets a deadline (the statement's query
+ * timeout, or the write timeout for other calls, plus db.timeout.abortGraceMs) that
+ * DatabaseGuard's sweeper checks: any call can be a round trip to a server that hangs.
+ */
+final class GuardedConnection implements InvocationHandler {
+
+    interface Call {
+        Object call() throws Throwable;
+    }
+
+    private final Connection target;
+    private final DatabaseGuard guard;
+    private final boolean primary;
+    // Which bulkhead permit the connection holds
+    private final boolean read;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    // System.nanoTime() by which the running call must be done; 0 when no call is running
+    private volatile long deadlineNanos;
+
+    private GuardedConnection(Connection target, DatabaseGuard guard, boolean primary, boolean read) {
+        this.target = target;
+        this.guard = guard;
+        this.primary = primary;
+        this.read = read;
+    }
+
+    static Connection wrap(Connection connection, DatabaseGuard guard, boolean primary, boolean read) {
+        GuardedConnection handler = new GuardedConnection(connection, guard, primary, read);
+        guard.register(handler);
+        return (Connection) Proxy.newProxyInstance(GuardedConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if ("close".equals(name)) {
+            try {
+                return timed(guard.queryTimeoutSeconds(false), () -> call(target, method, args));
+            } finally {
+                guard.unregister(this);
+                if (released.compareAndSet(false, true)) {
+                    guard.release(read);
+                }
+            }
+        }
+
+        Object result;
+        if ("prepareStatement".equals(name) || "prepareCall".equals(name)) {
+            result = recorded(guard.queryTimeoutSeconds(isRead((String) args[0])), () -> call(target, method, args));
+        } else if ("commit".equals(name) || "rollback".equals(name) || "setAutoCommit".equals(name)) {
+            result = recorded(guard.queryTimeoutSeconds(false), () -> call(target, method, args));
+        } else {
+            result = timed(guard.queryTimeoutSeconds(false), () -> call(target, method, args));
+        }
+
+        if (result instanceof CallableStatement && "prepareCall".equals(name)) {
+            return wrapStatement((Statement) result, CallableStatement.class, (String) args[0]);
+        }
+        if (result instanceof PreparedStatement && "prepareStatement".equals(name)) {
+            return wrapStatement((Statement) result, PreparedStatement.class, (String) args[0]);
+        }
+        if (result instanceof Statement && "createStatement".equals(name)) {
+            return wrapStatement((Statement) result, Statement.class, null);
+        }
+        return result;
+    }
+
+    boolean isPrimary() {
+        return primary;
+    }
+
+    Connection getTarget() {
+        return target;
+    }
+
+    /**
+     * @return true (once per call) if the running call is past its deadline
+     */
+    boolean takeOverdue(long nowNanos) {
+        long deadline = deadlineNanos;
+        if (deadline != 0 && nowNanos - deadline > 0) {
+            deadlineNanos = 0;
+            return true;
+        }
+        return false;
+    }
+
+    static boolean isRead(String sql) {
+        int start = 0;
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+        return sql.regionMatches(true, start, "SELECT", 0, 6) || sql.regionMatches(true, start, "WITH", 0, 4);
+    }
+
+    private Statement wrapStatement(Statement statement, Class<? extends Statement> type, String sql)
+            throws Throwable {
+        GuardedStatement handler = new GuardedStatement(statement, sql);
+        if (sql != null) {
+            handler.setQueryTimeout(guard.queryTimeoutSeconds(isRead(sql)));
+        }
+        return (Statement) Proxy.newProxyInstance(GuardedConnection.class.getClassLoader(),
+                new Class<?>[]{type}, handler);
+    }
+
+    // Database work: outcome to the breaker, plus the deadline
+    private Object recorded(int timeoutSeconds, Call call) throws Throwable {
+        return guard.record(primary, () -> timed(timeoutSeconds, call));
+    }
+
+    private Object timed(int timeoutSeconds, Call call) throws Throwable {
+        deadlineNanos = timeoutSeconds > 0
+                ? System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds) + guard.abortGraceNanos()
+                : 0;
+        try {
+            return call.call();
+        } finally {
+            deadlineNanos = 0;
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class GuardedStatement implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+        // Kept here: asking the driver can be a round trip (H2 over TCP)
+        private int queryTimeout;
+
+        private GuardedStatement(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("setQueryTimeout".equals(name)) {
+                setQueryTimeout((Integer) args[0]);
+                return null;
+            }
+            if ("getQueryTimeout".equals(name)) {
+                return queryTimeout;
+            }
+            if (!name.startsWith("execute")) {
+                return timed(guard.queryTimeoutSeconds(false), () -> call(target, method, args));
+            }
+
+            if (sql == null) {
+                // Plain Statement: the SQL comes with execute, and so does its timeout
+                String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : "";
+                setQueryTimeout(guard.queryTimeoutSeconds("executeQuery".equals(name) || isRead(executed)));
+            }
+            return recorded(queryTimeout, () -> call(target, method, args));
+        }
+
+        private void setQueryTimeout(int seconds) throws Throwable {
+            if (seconds != queryTimeout) {
+                timed(guard.queryTimeoutSeconds(false), () -> {
+                    target.setQueryTimeout(seconds);
+                    return null;
+                });
+                queryTimeout = seconds;
+            }
+        }
+    }
+}
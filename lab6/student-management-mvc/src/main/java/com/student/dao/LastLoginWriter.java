@@ -0,0 +1,161 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind queue for users.last_login, so a login does not wait for an UPDATE.
+ *
+ * Logins are kept per user id (a second login before the flush replaces the first) and
+ * written by UserDAO.updateLastLogins in one batch every lastLogin.flushMillis, or as soon
+ * as lastLogin.batchSize users are pending. The time stored is the time of the login,
+ * not of the flush. shutdown() writes whatever is still pending.
+ */
+public final class LastLoginWriter {
+
+    private static final LastLoginWriter INSTANCE = new LastLoginWriter();
+
+    private final Map<Integer, Timestamp> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    // Separate from the flush lock so record() never waits for a running flush
+    private final Object lifecycleLock = new Object();
+    private volatile ScheduledExecutorService scheduler;
+    private volatile boolean stopped;
+
+    private LastLoginWriter() {
+    }
+
+    public static LastLoginWriter getInstance() {
+        return INSTANCE;
+    }
+
+    public void record(int userId) {
+        recorded.incrementAndGet();
+        if (pending.put(userId, new Timestamp(System.currentTimeMillis())) != null) {
+            coalesced.incrementAndGet();
+        }
+
+        ScheduledExecutorService current = scheduler();
+        if (current == null) {
+            flush(); // shut down already, write through
+        } else if (pending.size() >= AppSettings.getInt("lastLogin.batchSize", 500)
+                && flushScheduled.compareAndSet(false, true)) {
+            try {
+                current.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flush(); // shut down in between
+            }
+        }
+    }
+
+    /**
+     * Write all pending logins now. Failed rows are put back for the next flush
+     * unless the same user logged in again in the meantime.
+     */
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Timestamp> batch = new LinkedHashMap<>();
+        for (Integer userId : pending.keySet()) {
+            Timestamp loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                batch.put(userId, loginTime);
+            }
+        }
+
+        long start = System.nanoTime();
+        if (new UserDAO().updateLastLogins(batch)) {
+            written.addAndGet(batch.size());
+        } else {
+            failedFlushes.incrementAndGet();
+            for (Map.Entry<Integer, Timestamp> entry : batch.entrySet()) {
+                pending.merge(entry.getKey(), entry.getValue(), (newer, older) -> newer.after(older) ? newer : older);
+            }
+        }
+        flushes.incrementAndGet();
+        lastFlushMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("recorded", recorded.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("written", written.get());
+        stats.put("flushes", flushes.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("lastFlushMillis", lastFlushMillis);
+        stats.put("flushMillis", AppSettings.getLong("lastLogin.flushMillis", 1000));
+        stats.put("batchSize", AppSettings.getInt("lastLogin.batchSize", 500));
+        return stats;
+    }
+
+    /**
+     * Stop the timer and write what is left. Called before the connection pool is closed.
+     */
+    public void shutdown() {
+        synchronized (lifecycleLock) {
+            stopped = true;
+            if (scheduler != null) {
+                scheduler.shutdown();
+                try {
+                    scheduler.awaitTermination(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                scheduler = null;
+            }
+        }
+        flush();
+    }
+
+    // Started on the first login; null once shut down
+    private ScheduledExecutorService scheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null || stopped) {
+            return current;
+        }
+        synchronized (lifecycleLock) {
+            if (scheduler == null && !stopped) {
+                long millis = AppSettings.getLong("lastLogin.flushMillis", 1000);
+                ScheduledExecutorService created = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "last-login-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                created.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+                scheduler = created;
+            }
+            return scheduler;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
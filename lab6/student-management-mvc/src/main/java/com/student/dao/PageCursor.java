@@ -0,0 +1,54 @@
+package com.student.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: the (sort value, id) of the last row on a page.
+ * Encoded as URL-safe Base64 so it can be passed around as the "after" parameter.
+ */
+public final class PageCursor {
+
+    private final String sortValue;
+    private final int lastId;
+
+    public PageCursor(String sortValue, int lastId) {
+        this.sortValue = sortValue;
+        this.lastId = lastId;
+    }
+
+    public String getSortValue() {
+        return sortValue;
+    }
+
+    public int getLastId() {
+        return lastId;
+    }
+
+    public String encode() {
+        String raw = lastId + ":" + (sortValue == null ? "" : sortValue);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor from the request.
+     * @return the cursor, or null if the value is empty or was tampered with
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep < 0) {
+                return null;
+            }
+            int id = Integer.parseInt(raw.substring(0, sep));
+            return new PageCursor(raw.substring(sep + 1), id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
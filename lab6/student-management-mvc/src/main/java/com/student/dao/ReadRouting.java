@@ -0,0 +1,103 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Decides per request whether DataSourceProvider.getReadConnection() may use a replica.
+ *
+ * Read-your-writes: a client that has just written reads from the primary for
+ * db.replica.stickySeconds, so it never sees a list without the student it just saved.
+ * The caller keeps the time of the last write, e.g. in the session (see ReadYourWrites):
+ *
+ *   ReadRouting.Scope scope = ReadRouting.begin(lastWriteMillis, millis -> remember it);
+ *   try {
+ *       ... DAO calls ...
+ *   } finally {
+ *       scope.close();
+ *   }
+ *
+ * StudentDAO calls wrote() after each committed write; that sends the rest of the request
+ * to the primary and hands the time to the callback before the response (e.g. a redirect
+ * to the list) goes out. onPrimary() is for readers that must not see any lag.
+ */
+public final class ReadRouting {
+
+    /**
+     * DAO calls to run in a scope, e.g. a rebuild reading the whole table.
+     */
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * @param lastWriteMillis when this client last wrote (0 = never)
+     * @param onWrite         gets the time of every write made in this scope
+     */
+    public static Scope begin(long lastWriteMillis, LongConsumer onWrite) {
+        long stickyMillis = AppSettings.getLong("db.replica.stickySeconds", 10) * 1000;
+        boolean primary = lastWriteMillis > 0 && System.currentTimeMillis() - lastWriteMillis < stickyMillis;
+        return new Scope(primary, onWrite);
+    }
+
+    public static Scope primaryOnly() {
+        return new Scope(true, null);
+    }
+
+    /**
+     * Runs work with every read on the primary.
+     */
+    public static <T, E extends Exception> T onPrimary(Work<T, E> work) throws E {
+        Scope scope = primaryOnly();
+        try {
+            return work.run();
+        } finally {
+            scope.close();
+        }
+    }
+
+    static boolean readFromPrimary() {
+        Scope scope = CURRENT.get();
+        return scope != null && scope.primary;
+    }
+
+    static void wrote() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.primary = true;
+            if (scope.onWrite != null) {
+                scope.onWrite.accept(System.currentTimeMillis());
+            }
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope previous;
+        private final LongConsumer onWrite;
+        private boolean primary;
+
+        private Scope(boolean primary, LongConsumer onWrite) {
+            this.previous = CURRENT.get();
+            this.primary = primary || (previous != null && previous.primary);
+            this.onWrite = onWrite;
+            CURRENT.set(this);
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The read replicas listed in db.replica.urls (comma separated JDBC URLs; same user and
+ * password as the primary unless db.replica.user / db.replica.password are set), each with
+ * its own HikariCP pool. Reads are spread round-robin over the usable ones.
+ *
+ * Every db.replica.checkSeconds the lag of each replica is measured. A replica further behind
+ * than db.replica.maxLagSeconds, or one that cannot be reached, gets no reads until the next
+ * check finds it caught up. With db.replica.lagCheck=heartbeat (default) the current time is
+ * written to replication_heartbeat on the primary (sql/replication_heartbeat.sql) and read
+ * back from each replica: the lag is how old the time it returns is, so it is only as fine
+ * as the check interval. With lagCheck=none a replica only has to answer (e.g. for two
+ * unreplicated local databases).
+ */
+final class ReplicaSet {
+
+    private static final String SQL_BEAT_UPDATE = "UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1";
+    private static final String SQL_BEAT_INSERT = "INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, ?)";
+    private static final String SQL_BEAT_READ = "SELECT beat_millis FROM replication_heartbeat WHERE id = 1";
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService checker;
+    private volatile String heartbeatError;
+
+    ReplicaSet(String urls) {
+        for (String url : urls.split(",")) {
+            if (!url.trim().isEmpty()) {
+                replicas.add(new Replica(replicas.size() + 1, url.trim()));
+            }
+        }
+        if (replicas.isEmpty()) {
+            checker = null;
+            return;
+        }
+
+        check(); // once before the first read, so no replica of unknown lag is used
+        long seconds = Math.max(1, AppSettings.getLong("db.replica.checkSeconds", 1));
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkQuietly, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return a connection to the next usable replica, or null if there is none
+     */
+    Connection getConnection() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            HikariDataSource pool = replica.pool;
+            if (!replica.usable || pool == null) {
+                continue;
+            }
+            try {
+                Connection conn = pool.getConnection();
+                replica.reads.increment();
+                return conn;
+            } catch (SQLException e) {
+                replica.failed(e); // the next one is tried, then the primary
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Measure every replica's lag and mark it usable or not.
+     */
+    void check() {
+        boolean heartbeat = !"none".equalsIgnoreCase(AppSettings.get("db.replica.lagCheck", "heartbeat"));
+        long maxLagMillis = AppSettings.getLong("db.replica.maxLagSeconds", 5) * 1000;
+        long now = System.currentTimeMillis();
+        if (heartbeat && !writeHeartbeat(now)) {
+            for (Replica replica : replicas) {
+                replica.usable = false; // lag unknown
+            }
+            return;
+        }
+
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.pool().getConnection()) {
+                long lagMillis = heartbeat ? readLag(conn, now) : 0;
+                replica.lagMillis = lagMillis;
+                replica.lastError = null;
+                replica.usable = lagMillis <= maxLagMillis;
+            } catch (SQLException e) {
+                replica.failed(e);
+            }
+        }
+    }
+
+    Map<String, Object> getStats() {
+        List<Object> list = new ArrayList<>();
+        for (Replica replica : replicas) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("name", replica.name);
+            stats.put("url", replica.url.replaceAll("(?i)(password=)[^&;]*", "$1***"));
+            stats.put("usable", replica.usable);
+            stats.put("lagMillis", replica.lagMillis);
+            stats.put("reads", replica.reads.sum());
+            stats.put("failures", replica.failures.sum());
+            stats.put("lastError", replica.lastError);
+            HikariDataSource pool = replica.pool;
+            if (pool != null && pool.getHikariPoolMXBean() != null) {
+                stats.put("activeConnections", pool.getHikariPoolMXBean().getActiveConnections());
+                stats.put("idleConnections", pool.getHikariPoolMXBean().getIdleConnections());
+            }
+            list.add(stats);
+        }
+        Map<String, Object> stats = emptyStats();
+        stats.put("replicas", list);
+        stats.put("heartbeatError", heartbeatError);
+        return stats;
+    }
+
+    static Map<String, Object> emptyStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lagCheck", AppSettings.get("db.replica.lagCheck", "heartbeat"));
+        stats.put("maxLagSeconds", AppSettings.getLong("db.replica.maxLagSeconds", 5));
+        stats.put("stickySeconds", AppSettings.getLong("db.replica.stickySeconds", 10));
+        stats.put("replicas", new ArrayList<>());
+        return stats;
+    }
+
+    void shutdown() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.usable = false;
+            if (replica.pool != null) {
+                replica.pool.close();
+            }
+        }
+    }
+
+    private boolean writeHeartbeat(long now) {
+        try (Connection conn = DataSourceProvider.getConnection();
+             PreparedStatement update = conn.prepareStatement(SQL_BEAT_UPDATE)) {
+            update.setLong(1, now);
+            if (update.executeUpdate() == 0) {
+                try (PreparedStatement insert = conn.prepareStatement(SQL_BEAT_INSERT)) {
+                    insert.setLong(1, now);
+                    insert.executeUpdate();
+                }
+            }
+            heartbeatError = null;
+            return true;
+        } catch (SQLException e) {
+            if (heartbeatError == null) {
+                System.out.println("Replica heartbeat failed, reads stay on the primary: " + e.getMessage());
+            }
+            heartbeatError = e.getMessage();
+            return false;
+        }
+    }
+
+    private static long readLag(Connection conn, long now) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_BEAT_READ);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? Math.max(0, now - rs.getLong(1)) : Long.MAX_VALUE;
+        }
+    }
+
+    private void checkQuietly() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final String url;
+        volatile HikariDataSource pool;
+        volatile boolean usable;
+        volatile long lagMillis = -1;
+        volatile String lastError;
+        final LongAdder reads = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        Replica(int index, String url) {
+            this.name = "replica-" + index;
+            this.url = url;
+        }
+
+        // Created by the checker; a replica that is down at startup is retried on every check
+        HikariDataSource pool() throws SQLException {
+            if (pool == null) {
+                HikariDataSource created;
+                try {
+                    created = DataSourceProvider.createPool("StudentPool-" + name, url,
+                            AppSettings.get("db.replica.user", DataSourceProvider.primaryUser()),
+                            AppSettings.get("db.replica.password", DataSourceProvider.primaryPassword()));
+                } catch (RuntimeException e) { // Hikari's PoolInitializationException
+                    throw new SQLException(e.getMessage(), e);
+                }
+                // Waiting for a busy replica is pointless when the primary can answer
+                created.setConnectionTimeout(AppSettings.getLong("db.replica.connectionTimeoutMs", 1000));
+                pool = created;
+            }
+            return pool;
+        }
+
+        void failed(SQLException e) {
+            if (usable) {
+                System.out.println(name + " unusable, reads go elsewhere: " + e.getMessage());
+            }
+            usable = false;
+            lastError = e.getMessage();
+            failures.increment();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.student.dao;
+
+import java.io.IOException;
+
+/**
+ * Receives rows one at a time while a query is being streamed,
+ * so callers never hold the whole result in memory.
+ */
+@FunctionalInterface
+public interface RowCallback<T> {
+
+    void process(T row) throws IOException;
+}
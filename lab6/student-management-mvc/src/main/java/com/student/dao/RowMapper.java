@@ -0,0 +1,18 @@
+package com.student.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object, reading columns by position.
+ * The positions come from columns().resolve(sql, rs), done once per statement by BaseDAO.
+ */
+public interface RowMapper<T> {
+
+    Columns columns();
+
+    /**
+     * @param positions position of each label of columns(), 0 if the query does not select it
+     */
+    T mapRow(ResultSet rs, int[] positions) throws SQLException;
+}
@@ -0,0 +1,31 @@
+package com.student.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Sets the parameters of a prepared statement before BaseDAO runs it.
+ */
+@FunctionalInterface
+public interface StatementBinder {
+
+    StatementBinder NONE = pstmt -> { };
+
+    void bind(PreparedStatement pstmt) throws SQLException;
+
+    /**
+     * Bind the values in order with setObject.
+     */
+    static StatementBinder of(Object... values) {
+        return pstmt -> {
+            for (int i = 0; i < values.length; i++) {
+                pstmt.setObject(i + 1, values[i]);
+            }
+        };
+    }
+
+    static StatementBinder of(List<?> values) {
+        return of(values.toArray());
+    }
+}
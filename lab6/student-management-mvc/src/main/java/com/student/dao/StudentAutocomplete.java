@@ -0,0 +1,641 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+import com.student.model.Student;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory prefix index over student codes and names for the search box suggestions
+ * (GET /autocomplete), so typing does not run LIKE '%kw%' scans.
+ *
+ * The index is a set of sorted arrays searched with binary search, not a trie: at a
+ * million students a trie needs a node object per character, the arrays about 100 bytes
+ * per student. Codes and names are stored UTF-8 in two byte pools; names are matched
+ * normalized like StudentSearchIndex ("nguyen van duc") from the start of every word,
+ * so "van d" finds "Nguyễn Văn Đức".
+ *
+ * The arrays are built from the database (at startup, see AppContextListener) and never
+ * modified. StudentDAO reports committed writes to onSave/onDelete; they are kept in a
+ * small change map that overrides the arrays, and once it holds
+ * autocomplete.maxPendingChanges entries the arrays are rebuilt in the background.
+ */
+public final class StudentAutocomplete {
+
+    private static final StudentAutocomplete INSTANCE = new StudentAutocomplete();
+
+    // Word starts indexed per name; the offset must fit in the low byte of an entry
+    private static final int MAX_WORDS = 8;
+    private static final int MAX_WORD_OFFSET = 255;
+
+    private volatile Snapshot snapshot;
+    private final Map<Integer, Change> changes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile long lastBuildMillis;
+    private volatile ExecutorService builder;
+    private volatile boolean stopped;
+
+    private StudentAutocomplete() {
+    }
+
+    public static StudentAutocomplete getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return AppSettings.getBoolean("autocomplete.enabled", true);
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Students whose code or a word of whose name starts with the prefix: code matches
+     * first, then name matches, each in alphabetical order.
+     * @return at most limit suggestions ({id, code, name}), empty until the index is built
+     */
+    public List<Map<String, Object>> suggest(String prefix, int limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        Snapshot current = snapshot;
+        byte[] key = normalize(prefix).getBytes(StandardCharsets.UTF_8);
+        if (current == null || key.length == 0 || limit <= 0) {
+            return result;
+        }
+
+        Map<Integer, Map<String, Object>> found = new LinkedHashMap<>();
+        collect(found, current.matchCodes(key, limit, changes), changedMatches(key, true), limit);
+        collect(found, current.matchNames(key, limit, changes, found.keySet()), changedMatches(key, false), limit);
+        result.addAll(found.values());
+        return result;
+    }
+
+    // --- Write hooks, called by StudentDAO after commit ---
+
+    void onSave(Student student) {
+        if (snapshot == null && !rebuilding.get()) {
+            return; // not built (or disabled), the build reads the database anyway
+        }
+        changes.put(student.getId(), new Change(sequence.incrementAndGet(), student.getId(),
+                student.getStudentCode(), student.getFullName()));
+        rebuildIfNeeded();
+    }
+
+    void onDelete(int id) {
+        if (snapshot == null && !rebuilding.get()) {
+            return;
+        }
+        changes.put(id, new Change(sequence.incrementAndGet(), id, null, null));
+        rebuildIfNeeded();
+    }
+
+    // --- Building ---
+
+    /**
+     * Rebuild from the database on the background thread (no-op if one is running).
+     */
+    public void rebuildAsync() {
+        ExecutorService current = builder();
+        if (current != null && rebuilding.compareAndSet(false, true)) {
+            try {
+                current.execute(this::rebuild);
+            } catch (RejectedExecutionException e) {
+                rebuilding.set(false); // shut down in between
+            }
+        }
+    }
+
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            // Writes committed before this point are in what we read; later ones stay in changes
+            long seenUpTo = sequence.get();
+
+            IntList ids = new IntList();
+            List<String> codes = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            // From the primary: a lagging replica could miss writes older than seenUpTo
+            ReadRouting.onPrimary(() -> new StudentDAO().streamAllStudents(student -> {
+                ids.add(student.getId());
+                codes.add(student.getStudentCode());
+                names.add(student.getFullName());
+            }));
+
+            snapshot = Snapshot.build(ids.toArray(), codes.toArray(new String[0]), names.toArray(new String[0]));
+            changes.values().removeIf(change -> change.seq <= seenUpTo);
+            lastBuildMillis = System.currentTimeMillis() - start;
+            rebuilds.incrementAndGet();
+        } catch (Exception e) {
+            e.printStackTrace(); // keep the previous arrays
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void rebuildIfNeeded() {
+        if (changes.size() >= AppSettings.getInt("autocomplete.maxPendingChanges", 5000)) {
+            rebuildAsync();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", current != null);
+        stats.put("students", current == null ? 0 : current.ids.length);
+        stats.put("nameEntries", current == null ? 0 : current.nameEntries.length);
+        stats.put("pendingChanges", changes.size());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("lastBuildMillis", lastBuildMillis);
+        stats.put("memory", current == null ? new LinkedHashMap<>() : current.memory());
+        return stats;
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            stopped = true;
+            if (builder != null) {
+                builder.shutdownNow();
+                builder = null;
+            }
+        }
+    }
+
+    // Started on the first rebuild; null once shut down
+    private ExecutorService builder() {
+        ExecutorService current = builder;
+        if (current != null || stopped) {
+            return current;
+        }
+        synchronized (this) {
+            if (builder == null && !stopped) {
+                builder = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "autocomplete-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return builder;
+        }
+    }
+
+    // --- Matching ---
+
+    // Changed students matching the prefix, sorted like the arrays' matches
+    private List<Match> changedMatches(byte[] key, boolean codes) {
+        List<Match> matches = new ArrayList<>();
+        for (Change change : changes.values()) {
+            if (change.code == null) {
+                continue; // deleted
+            }
+            byte[] text = codes ? change.codeKey : change.nameKey;
+            int from = codes ? (startsWith(text, 0, text.length, key) ? 0 : -1) : matchingWord(text, key);
+            if (from >= 0) {
+                matches.add(new Match(change.id, change.code, change.name, string(text, from, text.length)));
+            }
+        }
+        matches.sort(Comparator.comparing(match -> match.sortKey));
+        return matches;
+    }
+
+    // Merge the arrays' matches with the changed students' matches, both sorted by sortKey
+    private static void collect(Map<Integer, Map<String, Object>> found, List<Match> fromArrays,
+                                List<Match> fromChanges, int limit) {
+        int a = 0;
+        int c = 0;
+        while (found.size() < limit && (a < fromArrays.size() || c < fromChanges.size())) {
+            Match next;
+            if (c >= fromChanges.size()
+                    || (a < fromArrays.size() && fromArrays.get(a).sortKey.compareTo(fromChanges.get(c).sortKey) <= 0)) {
+                next = fromArrays.get(a++);
+            } else {
+                next = fromChanges.get(c++);
+            }
+            found.computeIfAbsent(next.id, id -> next.toMap());
+        }
+    }
+
+    // Offset of the first word of the normalized name that starts with the key, or -1
+    private static int matchingWord(byte[] name, byte[] key) {
+        int words = 0;
+        for (int i = 0; i < name.length && words < MAX_WORDS && i <= MAX_WORD_OFFSET; i++) {
+            if (isWordStart(name, i)) {
+                words++;
+                if (startsWith(name, i, name.length, key)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWordStart(byte[] text, int i) {
+        return isWordByte(text[i]) && (i == 0 || !isWordByte(text[i - 1]));
+    }
+
+    // Letters and digits; bytes of multi-byte UTF-8 characters count as letters
+    private static boolean isWordByte(byte b) {
+        return b < 0 || Character.isLetterOrDigit(b);
+    }
+
+    private static boolean startsWith(byte[] text, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (text[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Unsigned byte order = code point order for UTF-8
+    private static int compare(byte[] text, int from, int to, byte[] key) {
+        int length = Math.min(to - from, key.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (text[from + i] & 0xff) - (key[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return (to - from) - key.length;
+    }
+
+    /**
+     * Lowercased, accents removed, words separated by one space.
+     */
+    static String normalize(String text) {
+        return StudentSearchIndex.normalize(text).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * The sorted arrays. Slot i is the student ids[i] (ids ascending).
+     */
+    static final class Snapshot {
+
+        final int[] ids;
+        // code and name of slot i: text[textOffsets[2i]..[2i+1]] and [2i+1]..[2i+2]
+        final byte[] text;
+        final int[] textOffsets;
+        // normalized code and name, same layout
+        final byte[] keys;
+        final int[] keyOffsets;
+        // slot << 8 | offset of a word start in the normalized name, sorted by the text from there
+        final long[] nameEntries;
+        // slots sorted by normalized code
+        final int[] codeEntries;
+
+        private Snapshot(int[] ids, byte[] text, int[] textOffsets, byte[] keys, int[] keyOffsets,
+                         long[] nameEntries, int[] codeEntries) {
+            this.ids = ids;
+            this.text = text;
+            this.textOffsets = textOffsets;
+            this.keys = keys;
+            this.keyOffsets = keyOffsets;
+            this.nameEntries = nameEntries;
+            this.codeEntries = codeEntries;
+        }
+
+        /**
+         * @param ids ascending student ids, with the code and name of each at the same index
+         */
+        static Snapshot build(int[] ids, String[] codes, String[] names) {
+            int n = ids.length;
+            ByteList text = new ByteList(n * 32);
+            ByteList keys = new ByteList(n * 24);
+            int[] textOffsets = new int[2 * n + 1];
+            int[] keyOffsets = new int[2 * n + 1];
+            LongList nameEntries = new LongList(n * 3);
+
+            for (int slot = 0; slot < n; slot++) {
+                textOffsets[2 * slot] = text.size;
+                text.add(bytes(codes[slot]));
+                textOffsets[2 * slot + 1] = text.size;
+                text.add(bytes(names[slot]));
+
+                keyOffsets[2 * slot] = keys.size;
+                keys.add(bytes(normalize(codes[slot])));
+                int nameStart = keys.size;
+                keyOffsets[2 * slot + 1] = nameStart;
+                byte[] nameKey = bytes(normalize(names[slot]));
+                keys.add(nameKey);
+
+                int words = 0;
+                for (int i = 0; i < nameKey.length && words < MAX_WORDS && i <= MAX_WORD_OFFSET; i++) {
+                    if (isWordStart(nameKey, i)) {
+                        nameEntries.add((long) slot << 8 | i);
+                        words++;
+                    }
+                }
+            }
+            textOffsets[2 * n] = text.size;
+            keyOffsets[2 * n] = keys.size;
+
+            Snapshot snapshot = new Snapshot(ids, text.toArray(), textOffsets, keys.toArray(), keyOffsets,
+                    nameEntries.toArray(), new int[n]);
+            snapshot.sortEntries();
+            return snapshot;
+        }
+
+        /**
+         * Up to limit students with a name word starting with the key, each once, leaving out
+         * the ids in skip (already suggested by code).
+         */
+        List<Match> matchNames(byte[] key, int limit, Map<Integer, Change> changes, Set<Integer> skip) {
+            List<Match> matches = new ArrayList<>();
+            // A student has one entry per name word, several of which can match
+            Set<Integer> seen = new HashSet<>();
+            int lo = 0;
+            int hi = nameEntries.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareName(nameEntries[mid], key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int i = lo; i < nameEntries.length && matches.size() < limit; i++) {
+                long entry = nameEntries[i];
+                int slot = (int) (entry >>> 8);
+                int from = keyOffsets[2 * slot + 1] + (int) (entry & 0xff);
+                if (!startsWith(keys, from, keyOffsets[2 * slot + 2], key)) {
+                    break;
+                }
+                if (skip.contains(ids[slot]) || !seen.add(slot)) {
+                    continue;
+                }
+                addMatch(matches, slot, nameSortKey(slot, from), changes);
+            }
+            return matches;
+        }
+
+        List<Match> matchCodes(byte[] key, int limit, Map<Integer, Change> changes) {
+            List<Match> matches = new ArrayList<>();
+            int lo = 0;
+            int hi = codeEntries.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int slot = codeEntries[mid];
+                if (compare(keys, keyOffsets[2 * slot], keyOffsets[2 * slot + 1], key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int i = lo; i < codeEntries.length && matches.size() < limit; i++) {
+                int slot = codeEntries[i];
+                if (!startsWith(keys, keyOffsets[2 * slot], keyOffsets[2 * slot + 1], key)) {
+                    break;
+                }
+                addMatch(matches, slot, string(keys, keyOffsets[2 * slot], keyOffsets[2 * slot + 1]), changes);
+            }
+            return matches;
+        }
+
+        // Students changed since the build are answered from the change map instead
+        private void addMatch(List<Match> matches, int slot, String sortKey, Map<Integer, Change> changes) {
+            if (changes.containsKey(ids[slot])) {
+                return;
+            }
+            matches.add(new Match(ids[slot],
+                    string(text, textOffsets[2 * slot], textOffsets[2 * slot + 1]),
+                    string(text, textOffsets[2 * slot + 1], textOffsets[2 * slot + 2]),
+                    sortKey));
+        }
+
+        private String nameSortKey(int slot, int from) {
+            return string(keys, from, keyOffsets[2 * slot + 2]);
+        }
+
+        private int compareName(long entry, byte[] key) {
+            int slot = (int) (entry >>> 8);
+            int from = keyOffsets[2 * slot + 1] + (int) (entry & 0xff);
+            return compare(keys, from, keyOffsets[2 * slot + 2], key);
+        }
+
+        // Entries are slot << 8 | offset into the slot's normalized code or name
+        private int compareEntries(long a, long b, int field) {
+            int slotA = (int) (a >>> 8);
+            int slotB = (int) (b >>> 8);
+            int fromA = keyOffsets[2 * slotA + field] + (int) (a & 0xff);
+            int fromB = keyOffsets[2 * slotB + field] + (int) (b & 0xff);
+            int toA = keyOffsets[2 * slotA + field + 1];
+            int toB = keyOffsets[2 * slotB + field + 1];
+            int length = Math.min(toA - fromA, toB - fromB);
+            for (int i = 0; i < length; i++) {
+                int diff = (keys[fromA + i] & 0xff) - (keys[fromB + i] & 0xff);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return (toA - fromA) - (toB - fromB);
+        }
+
+        private void sortEntries() {
+            // Arrays.sort would need a boxed copy of a few million entries
+            sort(nameEntries, 0, nameEntries.length - 1, 1);
+
+            long[] codes = new long[ids.length];
+            for (int slot = 0; slot < codes.length; slot++) {
+                codes[slot] = (long) slot << 8;
+            }
+            sort(codes, 0, codes.length - 1, 0);
+            for (int i = 0; i < codes.length; i++) {
+                codeEntries[i] = (int) (codes[i] >>> 8);
+            }
+        }
+
+        // Quicksort (median of three, insertion sort for short ranges) by compareEntries
+        private void sort(long[] a, int lo, int hi, int field) {
+            while (hi - lo > 16) {
+                int mid = (lo + hi) >>> 1;
+                if (compareEntries(a[mid], a[lo], field) < 0) swap(a, mid, lo);
+                if (compareEntries(a[hi], a[lo], field) < 0) swap(a, hi, lo);
+                if (compareEntries(a[hi], a[mid], field) < 0) swap(a, hi, mid);
+                long pivot = a[mid];
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (compareEntries(a[i], pivot, field) < 0) i++;
+                    while (compareEntries(a[j], pivot, field) > 0) j--;
+                    if (i <= j) {
+                        swap(a, i++, j--);
+                    }
+                }
+                // Recurse into the smaller half, loop on the larger one
+                if (j - lo < hi - i) {
+                    sort(a, lo, j, field);
+                    lo = i;
+                } else {
+                    sort(a, i, hi, field);
+                    hi = j;
+                }
+            }
+            for (int i = lo + 1; i <= hi; i++) {
+                long value = a[i];
+                int j = i - 1;
+                while (j >= lo && compareEntries(a[j], value, field) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = value;
+            }
+        }
+
+        private static void swap(long[] a, int i, int j) {
+            long t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+
+        Map<String, Object> memory() {
+            long idsBytes = 16L + 4L * ids.length;
+            long textBytes = 16L + text.length + 16L + 4L * textOffsets.length;
+            long keyBytes = 16L + keys.length + 16L + 4L * keyOffsets.length;
+            long nameBytes = 16L + 8L * nameEntries.length;
+            long codeBytes = 16L + 4L * codeEntries.length;
+
+            Map<String, Object> memory = new LinkedHashMap<>();
+            memory.put("idsBytes", idsBytes);
+            memory.put("textBytes", textBytes);
+            memory.put("keyBytes", keyBytes);
+            memory.put("nameEntryBytes", nameBytes);
+            memory.put("codeEntryBytes", codeBytes);
+            long total = idsBytes + textBytes + keyBytes + nameBytes + codeBytes;
+            memory.put("totalBytes", total);
+            memory.put("bytesPerStudent", ids.length == 0 ? 0 : total / ids.length);
+            return memory;
+        }
+    }
+
+    /**
+     * One suggestion; sortKey is the matched normalized text, for merging with changes.
+     */
+    static final class Match {
+        final int id;
+        final String code;
+        final String name;
+        final String sortKey;
+
+        Match(int id, String code, String name, String sortKey) {
+            this.id = id;
+            this.code = code;
+            this.name = name;
+            this.sortKey = sortKey;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", id);
+            map.put("code", code);
+            map.put("name", name);
+            return map;
+        }
+    }
+
+    /**
+     * A student written since the last build; code == null means deleted.
+     */
+    static final class Change {
+        final long seq;
+        final int id;
+        final String code;
+        final String name;
+        final byte[] codeKey;
+        final byte[] nameKey;
+
+        Change(long seq, int id, String code, String name) {
+            this.seq = seq;
+            this.id = id;
+            this.code = code;
+            this.name = name;
+            this.codeKey = code == null ? new byte[0] : bytes(normalize(code));
+            this.nameKey = name == null ? new byte[0] : bytes(normalize(name));
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] text, int from, int to) {
+        return new String(text, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static final class ByteList {
+        byte[] data;
+        int size;
+
+        ByteList(int capacity) {
+            data = new byte[Math.max(16, capacity)];
+        }
+
+        void add(byte[] bytes) {
+            if (size + bytes.length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + bytes.length));
+            }
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    private static final class LongList {
+        long[] data;
+        int size;
+
+        LongList(int capacity) {
+            data = new long[Math.max(16, capacity)];
+        }
+
+        void add(long value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    private static final class IntList {
+        int[] data = new int[1024];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
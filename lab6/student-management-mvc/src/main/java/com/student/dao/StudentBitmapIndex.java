@@ -0,0 +1,389 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+import com.student.model.Student;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory secondary index for the filter/sort pages (StudentDAO.findStudents without a
+ * keyword, and the default list): a compressed bitmap (RoaringBitmap) of student ids per
+ * major, and the ids in the order of each sortable column. A page is found by walking the
+ * order and testing the major's bitmap, or for the id order by rank in the bitmap; the total
+ * is the bitmap's cardinality. StudentDAO then reads only the page's rows, by id.
+ *
+ * The bitmaps are exact: StudentDAO reports committed inserts, updates and deletes
+ * (onSave/onDelete). The column orders come from the database (ORDER BY col, id, so they
+ * follow its collation) and cannot take a new value in place: an insert or update makes
+ * them unusable until they are read again, bitmap.sortRebuildDelayMs later in the background;
+ * meanwhile those sorts fall back to SQL. Deletes only clear bits. Everything is rebuilt
+ * every bitmap.rebuildSeconds, which also picks up writes of other application instances.
+ */
+public final class StudentBitmapIndex {
+
+    private static final StudentBitmapIndex INSTANCE = new StudentBitmapIndex();
+
+    // Sortable columns besides id (StudentDAO.validateSortBy)
+    private static final String[] SORT_COLUMNS = {"student_code", "full_name", "email", "major"};
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private Map<String, RoaringBitmap> byMajor;
+    private RoaringBitmap all;
+    private List<Runnable> pendingWrites;
+
+    private volatile SortOrders orders;
+    // Inserts and updates reported so far; orders read before the last one are out of date
+    private final AtomicLong writes = new AtomicLong();
+
+    private final AtomicBoolean ordersScheduled = new AtomicBoolean();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong orderRebuilds = new AtomicLong();
+    private volatile long lastBuildMillis;
+    private volatile long lastOrdersBuildMillis;
+    private final AtomicLong servedPages = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+    private boolean stopped;
+
+    private StudentBitmapIndex() {
+    }
+
+    public static StudentBitmapIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return AppSettings.getBoolean("bitmap.enabled", true);
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return all != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of one page, in order, and the number of matching students.
+     */
+    static final class IdPage {
+        final int[] ids;
+        final int total;
+        final int page;
+
+        IdPage(int[] ids, int total, int page) {
+            this.ids = ids;
+            this.total = total;
+            this.page = page;
+        }
+    }
+
+    /**
+     * @param major   exact major, or null for all students
+     * @param sortBy  a validated, lower case sort column
+     * @return the page (the last one if page is past the end), or null if the index cannot
+     *         answer: not built, a major it does not know, or that column's order out of date
+     */
+    IdPage page(String major, String sortBy, boolean descending, int page, int pageSize) {
+        SortOrders currentOrders = orders;
+        int[] order = null;
+        if (!"id".equals(sortBy)) {
+            if (currentOrders == null || currentOrders.builtAtWrites != writes.get()
+                    || (order = currentOrders.byColumn.get(sortBy)) == null) {
+                fallbacks.incrementAndGet();
+                scheduleOrders();
+                return null;
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matching = all == null ? null : major == null ? all : byMajor.get(major);
+            if (matching == null) {
+                fallbacks.incrementAndGet();
+                return null;
+            }
+            int total = matching.getCardinality();
+            int lastPage = Math.max(1, (total + pageSize - 1) / pageSize);
+            int current = Math.min(Math.max(page, 1), lastPage);
+            int offset = (current - 1) * pageSize;
+            int size = Math.max(0, Math.min(pageSize, total - offset));
+            int[] ids = new int[size];
+
+            if (order == null) {
+                // id order: the bitmap is sorted by id, select() finds the n-th one
+                for (int i = 0; i < size; i++) {
+                    ids[i] = matching.select(descending ? total - 1 - offset - i : offset + i);
+                }
+            } else {
+                int found = 0;
+                int skipped = 0;
+                for (int i = 0; i < order.length && found < size; i++) {
+                    int id = order[descending ? order.length - 1 - i : i];
+                    if (matching.contains(id)) {
+                        if (skipped < offset) {
+                            skipped++;
+                        } else {
+                            ids[found++] = id;
+                        }
+                    }
+                }
+            }
+            servedPages.incrementAndGet();
+            return new IdPage(ids, total, current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Write hooks, called by StudentDAO after commit ---
+
+    void onSave(Student student) {
+        int id = student.getId();
+        String major = key(student.getMajor());
+        writes.incrementAndGet();
+        apply(() -> {
+            removeEverywhere(id);
+            byMajor.computeIfAbsent(major, k -> new RoaringBitmap()).add(id);
+            all.add(id);
+        });
+        if (orders != null) {
+            scheduleOrders();
+        }
+    }
+
+    void onDelete(int id) {
+        apply(() -> removeEverywhere(id));
+    }
+
+    // Apply a write to the live bitmaps, and keep it for replay if a build is reading the table
+    private void apply(Runnable write) {
+        lock.writeLock().lock();
+        try {
+            if (all != null) {
+                write.run();
+            }
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Guarded by the write lock
+    private void removeEverywhere(int id) {
+        for (RoaringBitmap bitmap : byMajor.values()) {
+            bitmap.remove(id);
+        }
+        all.remove(id);
+    }
+
+    // --- Building ---
+
+    /**
+     * Rebuild the bitmaps and the column orders on the background thread.
+     */
+    public void rebuildAsync() {
+        submit(0, () -> {
+            rebuild();
+            rebuildOrders();
+        });
+    }
+
+    private void scheduleOrders() {
+        if (ordersScheduled.compareAndSet(false, true)) {
+            if (!submit(AppSettings.getLong("bitmap.sortRebuildDelayMs", 1000), this::rebuildOrders)) {
+                ordersScheduled.set(false);
+            }
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<String, RoaringBitmap> nextByMajor = new HashMap<>();
+        RoaringBitmap nextAll = new RoaringBitmap();
+
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            // From the primary: a lagging replica could miss recent writes
+            ReadRouting.onPrimary(() -> new StudentDAO().streamAllStudents(student -> {
+                nextByMajor.computeIfAbsent(key(student.getMajor()), k -> new RoaringBitmap()).add(student.getId());
+                nextAll.add(student.getId());
+            }));
+            for (RoaringBitmap bitmap : nextByMajor.values()) {
+                bitmap.runOptimize();
+            }
+            nextAll.runOptimize();
+
+            lock.writeLock().lock();
+            try {
+                // Writes committed while reading, in order, over what was read
+                byMajor = nextByMajor;
+                all = nextAll;
+                for (Runnable write : pendingWrites) {
+                    write.run();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastBuildMillis = System.currentTimeMillis() - start;
+            rebuilds.incrementAndGet();
+        } catch (Exception e) {
+            e.printStackTrace(); // keep the previous bitmaps
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void rebuildOrders() {
+        ordersScheduled.set(false);
+        long start = System.currentTimeMillis();
+        // Read before the queries: a write reported after this makes the result out of date
+        long seenWrites = writes.get();
+        Map<String, int[]> byColumn = ReadRouting.onPrimary(() -> {
+            StudentDAO dao = new StudentDAO();
+            Map<String, int[]> ids = new HashMap<>();
+            for (String column : SORT_COLUMNS) {
+                int[] order = dao.idsOrderedBy(column);
+                if (order == null) {
+                    return null;
+                }
+                ids.put(column, order);
+            }
+            return ids;
+        });
+        if (byColumn == null) {
+            return; // keep the previous orders, the next write or rebuild tries again
+        }
+        orders = new SortOrders(byColumn, seenWrites);
+        lastOrdersBuildMillis = System.currentTimeMillis() - start;
+        orderRebuilds.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        SortOrders currentOrders = orders;
+        lock.readLock().lock();
+        try {
+            stats.put("ready", all != null);
+            stats.put("students", all == null ? 0 : all.getCardinality());
+            Map<String, Object> majors = new TreeMap<>();
+            long bitmapBytes = 0;
+            if (all != null) {
+                for (Map.Entry<String, RoaringBitmap> entry : byMajor.entrySet()) {
+                    Map<String, Object> major = new LinkedHashMap<>();
+                    major.put("students", entry.getValue().getCardinality());
+                    major.put("bytes", entry.getValue().getSizeInBytes());
+                    majors.put(entry.getKey(), major);
+                    bitmapBytes += entry.getValue().getSizeInBytes();
+                }
+                bitmapBytes += all.getSizeInBytes();
+            }
+            stats.put("majors", majors);
+            stats.put("bitmapBytes", bitmapBytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long orderBytes = 0;
+        if (currentOrders != null) {
+            for (int[] ids : currentOrders.byColumn.values()) {
+                orderBytes += 16 + ids.length * 4L;
+            }
+        }
+        stats.put("sortOrderBytes", orderBytes);
+        stats.put("sortOrdersCurrent", currentOrders != null && currentOrders.builtAtWrites == writes.get());
+        stats.put("servedPages", servedPages.get());
+        stats.put("fallbacks", fallbacks.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("lastBuildMillis", lastBuildMillis);
+        stats.put("sortOrderRebuilds", orderRebuilds.get());
+        stats.put("lastSortOrderBuildMillis", lastOrdersBuildMillis);
+        return stats;
+    }
+
+    public synchronized void shutdown() {
+        stopped = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // One background thread for every build, so they never overlap; started on first use
+    private synchronized boolean submit(long delayMillis, Runnable task) {
+        if (stopped) {
+            return false;
+        }
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "student-bitmap-index");
+                thread.setDaemon(true);
+                return thread;
+            });
+            int seconds = AppSettings.getInt("bitmap.rebuildSeconds", 300);
+            if (seconds > 0) {
+                scheduler.scheduleWithFixedDelay(() -> run(() -> {
+                    rebuild();
+                    rebuildOrders();
+                }), seconds, seconds, TimeUnit.SECONDS);
+            }
+        }
+        try {
+            scheduler.schedule(() -> run(task), delayMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String key(String major) {
+        return major == null ? "" : major;
+    }
+
+    private static final class SortOrders {
+        final Map<String, int[]> byColumn;
+        final long builtAtWrites;
+
+        SortOrders(Map<String, int[]> byColumn, long builtAtWrites) {
+            this.byColumn = byColumn;
+            this.builtAtWrites = builtAtWrites;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.student.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.student.config.AppSettings;
+import com.student.model.Student;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Read-through cache of students by id, shared by every StudentDAO instance.
+ * Caffeine (W-TinyLFU eviction) bounded by entries or by estimated bytes, with a TTL.
+ *
+ * Settings (web.xml / system properties):
+ * cache.student.enabled, cache.student.maxEntries, cache.student.maxBytes (wins when > 0),
+ * cache.student.ttlSeconds.
+ */
+public final class StudentCache {
+
+    private static final StudentCache INSTANCE = new StudentCache();
+
+    private volatile Cache<Integer, Student> cache;
+    private volatile boolean enabled;
+
+    private StudentCache() {
+    }
+
+    public static StudentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the cached student or load it with the loader (null results are not cached).
+     * Callers get their own copy, so changing it does not change the cache.
+     */
+    public Student get(int id, IntFunction<Student> loader) {
+        if (!isEnabled()) {
+            return loader.apply(id);
+        }
+        Student student = cache().get(id, key -> {
+            Student loaded = loader.apply(key);
+            return loaded == null ? null : new Student(loaded);
+        });
+        return student == null ? null : new Student(student);
+    }
+
+    /**
+     * Drop one student. Called by StudentDAO after every committed write of that id.
+     */
+    public void invalidate(int id) {
+        Cache<Integer, Student> current = cache;
+        if (current != null) {
+            current.invalidate(id);
+        }
+    }
+
+    public void invalidateAll() {
+        Cache<Integer, Student> current = cache;
+        if (current != null) {
+            current.invalidateAll();
+        }
+    }
+
+    public boolean isEnabled() {
+        cache();
+        return enabled;
+    }
+
+    /**
+     * Turn the cache on/off at runtime (for comparison benchmarks). Disabling clears it.
+     */
+    public void setEnabled(boolean enabled) {
+        cache();
+        if (!enabled) {
+            invalidateAll();
+        }
+        this.enabled = enabled;
+    }
+
+    public Map<String, Object> getStats() {
+        Cache<Integer, Student> current = cache();
+        CacheStats stats = current.stats();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", current.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("loadFailures", stats.loadFailureCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+
+    // Built lazily so the settings from web.xml are loaded first
+    private Cache<Integer, Student> cache() {
+        Cache<Integer, Student> current = cache;
+        if (current == null) {
+            synchronized (this) {
+                current = cache;
+                if (current == null) {
+                    current = build();
+                    enabled = AppSettings.getBoolean("cache.student.enabled", true);
+                    cache = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static Cache<Integer, Student> build() {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(AppSettings.getLong("cache.student.ttlSeconds", 300)))
+                .recordStats();
+
+        long maxBytes = AppSettings.getLong("cache.student.maxBytes", 0);
+        if (maxBytes > 0) {
+            return builder.maximumWeight(maxBytes)
+                    .weigher((Integer id, Student student) -> estimateBytes(student))
+                    .build();
+        }
+        return builder.maximumSize(AppSettings.getLong("cache.student.maxEntries", 10000)).build();
+    }
+
+    // Rough retained size: object headers + fields + strings (Latin-1 compact strings)
+    static int estimateBytes(Student student) {
+        int bytes = 16 + 4 + 5 * 4 + 32 /* Timestamp */ + 48 /* cache entry */;
+        bytes += stringBytes(student.getStudentCode());
+        bytes += stringBytes(student.getFullName());
+        bytes += stringBytes(student.getEmail());
+        bytes += stringBytes(student.getMajor());
+        return bytes;
+    }
+
+    private static int stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+}
@@ -0,0 +1,466 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+import com.student.model.Student;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process, read-only replica of the students table (ColumnTable) that answers the list,
+ * filter/sort and search pages without a query: StudentDAO.getStudentsPage, findStudents
+ * (with or without a keyword) and searchStudentsRanked ask it first once it is loaded.
+ * Optional (columnar.enabled); GET /admin/columnar reports its heap use per million rows.
+ *
+ * Loaded from the primary at startup and every columnar.reloadSeconds, which also drops dead
+ * rows and picks up updates and deletes made by other application instances. Between loads:
+ * - StudentDAO reports committed inserts, updates and deletes (onSave/onDelete); they are
+ *   queued and applied by the next read, so a batch of writes costs one merge of the orders.
+ * - New rows are polled every columnar.pollSeconds by id. created_at is neither unique nor
+ *   indexed, so the poll re-reads the ids of the last columnar.pollOverlapSeconds instead,
+ *   which catches inserts that committed out of id order; ids it already has are skipped.
+ *
+ * Sorting by code, name, email or major follows orders read from the database (ORDER BY col, id,
+ * like StudentBitmapIndex), so pages come in its collation's order. A new row makes them out of
+ * date until they are read again columnar.sortRebuildDelayMs later; meanwhile those pages, and
+ * prefix searches with more candidates than the limit, fall back to SQL. Keywords match text
+ * normalized like the search index (no case, no accents), as the accent-insensitive collation
+ * compares it. Like searchStudentsRanked, a search reads at most 1000 candidates per branch.
+ */
+public final class StudentColumnStore {
+
+    private static final StudentColumnStore INSTANCE = new StudentColumnStore();
+
+    // Rows read per poll; more new rows than this (a bulk import elsewhere) trigger a reload
+    private static final int POLL_LIMIT = 5000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Written under the write lock; volatile for isReady()
+    private volatile ColumnTable table;
+    // Changes applied while a load reads the table, replayed on the new table (guarded by lock)
+    private List<Change> replay;
+    private final Queue<Change> changes = new ConcurrentLinkedQueue<>();
+
+    // (time, highest id) of recent polls, for the overlap of the next one (poll thread only)
+    private final Deque<long[]> pollHistory = new ArrayDeque<>();
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final AtomicBoolean ordersScheduled = new AtomicBoolean();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong orderRebuilds = new AtomicLong();
+    private volatile long lastLoadMillis;
+    private volatile long loadedAtMillis;
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong rowsPolled = new AtomicLong();
+    private final AtomicLong changesApplied = new AtomicLong();
+    private final AtomicLong servedPages = new AtomicLong();
+    private final AtomicLong servedSearches = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+    private boolean stopped;
+
+    private StudentColumnStore() {
+    }
+
+    public static StudentColumnStore getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return AppSettings.getBoolean("columnar.enabled", false);
+    }
+
+    public boolean isReady() {
+        return table != null;
+    }
+
+    /**
+     * A committed change, or a row read by the poll. student is a copy, null for a delete.
+     */
+    static final class Change {
+        final int id;
+        final Student student;
+        final boolean polled;
+
+        Change(int id, Student student, boolean polled) {
+            this.id = id;
+            this.student = student;
+            this.polled = polled;
+        }
+    }
+
+    // --- Queries ---
+
+    /**
+     * One page of StudentDAO.findStudents.
+     * @param sortBy a validated, lower case sort column
+     * @return the page (the last one if page is past the end), or null if not loaded or the
+     *         column's order is out of date
+     */
+    StudentPage find(StudentQuery query, String sortBy, boolean descending) {
+        return page(query.getMajor(), query.getKeyword(), sortBy, descending, query.getPage(), query.getPageSize());
+    }
+
+    /**
+     * One page of all students, newest first (StudentDAO.getStudentsPage), or null if not loaded.
+     */
+    StudentPage latest(int page, int pageSize) {
+        return page(null, null, "id", true, page, pageSize);
+    }
+
+    private StudentPage page(String major, String keyword, String sortBy, boolean descending, int page, int pageSize) {
+        applyChanges();
+        lock.readLock().lock();
+        try {
+            ColumnTable current = table;
+            if (current == null) {
+                return null;
+            }
+            int column = ColumnTable.column(sortBy);
+            boolean[] majors = current.majorFilter(major);
+            int[] total = new int[1];
+            int number = Math.max(page, 1);
+            int[] rows = current.select(column, descending, majors, keyword, (number - 1) * pageSize, pageSize, total);
+            if (rows == null) {
+                fallbacks.incrementAndGet();
+                return null;
+            }
+            int lastPage = Math.max(1, (total[0] + pageSize - 1) / pageSize);
+            if (number > lastPage) {
+                number = lastPage;
+                rows = current.select(column, descending, majors, keyword, (number - 1) * pageSize, pageSize, total);
+            }
+            servedPages.incrementAndGet();
+            return new StudentPage(students(current, rows), total[0], number, pageSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * searchStudentsRanked from memory: the same branches and scores (code, name and email
+     * prefixes, name and email words), best first, then newest first.
+     * @return the rows, or null if not loaded or a prefix needs an order that is out of date
+     */
+    List<Student> search(String keyword, int offset, int limit) {
+        String prefix = StudentSearchIndex.normalize(keyword.trim());
+        List<String> words = StudentSearchIndex.queryWords(keyword);
+        if (words.size() > StudentDAO.SEARCH_MAX_WORDS) {
+            words = words.subList(0, StudentDAO.SEARCH_MAX_WORDS);
+        }
+
+        applyChanges();
+        lock.readLock().lock();
+        try {
+            ColumnTable current = table;
+            if (current == null) {
+                return null;
+            }
+            ColumnTable.Scores scores = new ColumnTable.Scores();
+            if (!current.scorePrefix(ColumnTable.CODE, prefix, 100, 70, scores, StudentDAO.SEARCH_CANDIDATE_LIMIT)
+                    || !current.scorePrefix(ColumnTable.NAME, prefix, 90, 60, scores, StudentDAO.SEARCH_CANDIDATE_LIMIT)
+                    || !current.scorePrefix(ColumnTable.EMAIL, prefix, 80, 50, scores, StudentDAO.SEARCH_CANDIDATE_LIMIT)) {
+                fallbacks.incrementAndGet();
+                return null;
+            }
+            for (String word : words) {
+                current.scoreWord(word, scores, StudentDAO.SEARCH_CANDIDATE_LIMIT);
+            }
+            int[] rows = current.rank(scores, offset, limit);
+            servedSearches.incrementAndGet();
+            return students(current, rows);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<Student> students(ColumnTable current, int[] rows) {
+        List<Student> students = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            students.add(current.student(row));
+        }
+        return students;
+    }
+
+    // --- Write hooks, called by StudentDAO after commit ---
+
+    void onSave(Student student) {
+        if (table != null || loading.get()) {
+            changes.add(new Change(student.getId(), new Student(student), false));
+        }
+    }
+
+    void onDelete(int id) {
+        if (table != null || loading.get()) {
+            changes.add(new Change(id, null, false));
+        }
+    }
+
+    // Apply the queued changes to the table, and keep them for replay if a load is running
+    private void applyChanges() {
+        if (changes.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Change> drained = new ArrayList<>();
+            for (Change change; (change = changes.poll()) != null; ) {
+                drained.add(change);
+            }
+            if (table != null) {
+                changesApplied.addAndGet(table.apply(drained));
+                if (!table.isSorted()) {
+                    scheduleOrders();
+                }
+            }
+            if (replay != null) {
+                replay.addAll(drained);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Loading and polling ---
+
+    /**
+     * Load the table from the database on the background thread (no-op if a load is running).
+     * Polling starts with the first load.
+     */
+    public void reloadAsync() {
+        submit(0, this::reload);
+    }
+
+    // Read the sort orders again a little later, so a burst of writes costs one read
+    private void scheduleOrders() {
+        if (ordersScheduled.compareAndSet(false, true)) {
+            if (!submit(AppSettings.getLong("columnar.sortRebuildDelayMs", 1000), this::rebuildOrders)) {
+                ordersScheduled.set(false);
+            }
+        }
+    }
+
+    private void reload() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            ColumnTable next = new ColumnTable();
+            int[][] orders;
+            // From the primary: a lagging replica could miss recent writes
+            orders = ReadRouting.onPrimary(() -> {
+                new StudentDAO().streamAllStudents(next::load);
+                return readOrders();
+            });
+            next.finishLoad();
+            int loaded = next.getRowCount();
+
+            applyChanges();
+            lock.writeLock().lock();
+            try {
+                // Writes committed while reading, in order, over what was read
+                next.apply(replay);
+                if (orders != null) {
+                    next.setOrders(orders, loaded);
+                }
+                table = next;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!next.isSorted()) {
+                scheduleOrders();
+            }
+            pollHistory.clear();
+            lastLoadMillis = System.currentTimeMillis() - start;
+            loadedAtMillis = System.currentTimeMillis();
+            loads.incrementAndGet();
+        } catch (Exception e) {
+            e.printStackTrace(); // keep the previous table
+        } finally {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loading.set(false);
+        }
+    }
+
+    private void rebuildOrders() {
+        ordersScheduled.set(false);
+        ColumnTable current = table;
+        if (current == null) {
+            return;
+        }
+        applyChanges();
+        int rowCount;
+        lock.readLock().lock();
+        try {
+            if (current.isSorted()) {
+                return;
+            }
+            // Read before the queries: a row appended after this makes the result out of date
+            rowCount = current.getRowCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+        int[][] orders = ReadRouting.onPrimary(StudentColumnStore::readOrders);
+        if (orders == null) {
+            return; // the next write or load tries again
+        }
+        lock.writeLock().lock();
+        try {
+            if (table == current && current.setOrders(orders, rowCount)) {
+                orderRebuilds.incrementAndGet();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids in the database's order of each sortable column but id (StudentDAO.idsOrderedBy), or null on failure
+    private static int[][] readOrders() {
+        StudentDAO dao = new StudentDAO();
+        int[][] orders = new int[ColumnTable.MAJOR + 1][];
+        for (String column : new String[]{"student_code", "full_name", "email", "major"}) {
+            int[] ids = dao.idsOrderedBy(column);
+            if (ids == null) {
+                return null;
+            }
+            orders[ColumnTable.column(column)] = ids;
+        }
+        return orders;
+    }
+
+    private void poll() {
+        ColumnTable current = table;
+        if (current == null || loading.get()) {
+            return;
+        }
+        applyChanges();
+        long now = System.currentTimeMillis();
+        long overlapMillis = AppSettings.getLong("columnar.pollOverlapSeconds", 10) * 1000;
+        pollHistory.addLast(new long[]{now, current.getMaxId()});
+        while (pollHistory.size() > 1 && pollHistory.peekFirst()[0] < now - overlapMillis) {
+            pollHistory.removeFirst();
+        }
+        int afterId = (int) pollHistory.peekFirst()[1];
+
+        List<Student> rows = ReadRouting.onPrimary(() -> new StudentDAO().getStudentsAfterId(afterId, POLL_LIMIT));
+        polls.incrementAndGet();
+        if (rows == null) {
+            return; // database unavailable, try again next time
+        }
+        rowsPolled.addAndGet(rows.size());
+        for (Student student : rows) {
+            changes.add(new Change(student.getId(), student, true));
+        }
+        applyChanges();
+
+        // Dead and appended rows make walks and the word index slower: start over
+        if (rows.size() == POLL_LIMIT || current.getDeadCount() + current.getAppendedSinceLoad() > current.getLiveCount() / 4) {
+            reload();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            ColumnTable current = table;
+            stats.put("ready", current != null);
+            stats.put("students", current == null ? 0 : current.getLiveCount());
+            stats.put("deadRows", current == null ? 0 : current.getDeadCount());
+            stats.put("rowsAppendedSinceLoad", current == null ? 0 : current.getAppendedSinceLoad());
+            stats.put("sortOrdersCurrent", current != null && current.isSorted());
+            Map<String, Long> memory = current == null ? new LinkedHashMap<>() : current.memory();
+            long bytes = memory.values().stream().mapToLong(Long::longValue).sum();
+            stats.put("memoryBytes", memory);
+            stats.put("totalBytes", bytes);
+            long rows = current == null ? 0 : current.getLiveCount();
+            stats.put("bytesPerStudent", rows == 0 ? 0 : bytes / rows);
+            stats.put("megabytesPerMillionStudents", rows == 0 ? 0.0
+                    : Math.round(bytes * 1_000_000.0 / rows / (1024 * 1024) * 10) / 10.0);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("pendingChanges", changes.size());
+        stats.put("changesApplied", changesApplied.get());
+        stats.put("servedPages", servedPages.get());
+        stats.put("servedSearches", servedSearches.get());
+        stats.put("fallbacks", fallbacks.get());
+        stats.put("sortOrderRebuilds", orderRebuilds.get());
+        stats.put("polls", polls.get());
+        stats.put("rowsPolled", rowsPolled.get());
+        stats.put("loads", loads.get());
+        stats.put("loading", loading.get());
+        stats.put("lastLoadMillis", lastLoadMillis);
+        stats.put("loadedSecondsAgo", loadedAtMillis == 0 ? -1 : (System.currentTimeMillis() - loadedAtMillis) / 1000);
+        return stats;
+    }
+
+    public synchronized void shutdown() {
+        stopped = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // One background thread for loads, polls and order reads, so they never overlap; started on first use
+    private synchronized boolean submit(long delayMillis, Runnable task) {
+        if (stopped) {
+            return false;
+        }
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "student-column-store");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long pollMillis = Math.max(100, (long) (Double.parseDouble(AppSettings.get("columnar.pollSeconds", "2")) * 1000));
+            scheduler.scheduleWithFixedDelay(() -> run(this::poll), pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+            int seconds = AppSettings.getInt("columnar.reloadSeconds", 600);
+            if (seconds > 0) {
+                scheduler.scheduleWithFixedDelay(() -> run(this::reload), seconds, seconds, TimeUnit.SECONDS);
+            }
+        }
+        try {
+            scheduler.schedule(() -> run(task), delayMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false; // shut down in between
+        }
+    }
+
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory total and per-major student counts, so the dashboard and the list page
+ * do not run COUNT(id) on every view.
+ *
+ * Counts are loaded from the database on first use, adjusted by StudentDAO after each
+ * committed write, and reconciled against the database every counters.reconcileSeconds
+ * (this also picks up writes made by other application instances). A read never sees
+ * values older than counters.maxStalenessSeconds: past that it reconciles first.
+ * The difference found at each reconciliation is kept as the drift metric. Writes reported
+ * while the database is being counted are added on top of the count, so they are neither
+ * lost nor taken for drift.
+ */
+public final class StudentCounters {
+
+    private static final StudentCounters INSTANCE = new StudentCounters();
+
+    private final Map<String, AtomicLong> byMajor = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+
+    // Guards the values against reconcile() replacing them while a write hook adjusts them
+    private final Object lock = new Object();
+    // Changes reported since reconcile() started counting; null when it is not counting
+    private Map<String, Long> pendingByMajor;
+    private long pendingTotal;
+
+    private final AtomicLong reconciliations = new AtomicLong();
+    private volatile long lastReconciledAt;
+    private volatile long lastDrift;
+    private volatile long maxDrift;
+
+    private ScheduledExecutorService scheduler;
+
+    private StudentCounters() {
+    }
+
+    public static StudentCounters getInstance() {
+        return INSTANCE;
+    }
+
+    public long getTotal() {
+        ensureFresh();
+        return total.get();
+    }
+
+    /**
+     * Count per major (sorted by major name).
+     */
+    public Map<String, Long> getByMajor() {
+        ensureFresh();
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : byMajor.entrySet()) {
+            if (entry.getValue().get() > 0) {
+                counts.put(entry.getKey(), entry.getValue().get());
+            }
+        }
+        return counts;
+    }
+
+    public long getByMajor(String major) {
+        ensureFresh();
+        AtomicLong count = byMajor.get(key(major));
+        return count == null ? 0 : count.get();
+    }
+
+    // --- Write hooks, called by StudentDAO after commit ---
+
+    void onInsert(String major) {
+        adjust(major, 1, 1);
+    }
+
+    void onDelete(String major) {
+        adjust(major, -1, -1);
+    }
+
+    void onMajorChange(String oldMajor, String newMajor) {
+        if (key(oldMajor).equals(key(newMajor))) {
+            return;
+        }
+        synchronized (lock) {
+            adjust(oldMajor, -1, 0);
+            adjust(newMajor, 1, 0);
+        }
+    }
+
+    private void adjust(String major, long delta, long totalDelta) {
+        synchronized (lock) {
+            if (pendingByMajor != null) {
+                pendingByMajor.merge(key(major), delta, Long::sum);
+                pendingTotal += totalDelta;
+            }
+            if (lastReconciledAt == 0) {
+                return; // not loaded yet, the first read counts from the database
+            }
+            total.addAndGet(totalDelta);
+            byMajor.computeIfAbsent(key(major), k -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    // --- Reconciliation ---
+
+    /**
+     * Recount from the database and replace the in-memory values, plus the writes reported
+     * while counting (the count may have been read before they committed). A write that
+     * committed just before the count and is reported during it is counted twice until the
+     * next reconciliation. Keeps the old values if the database cannot be reached.
+     */
+    public synchronized void reconcile() {
+        synchronized (lock) {
+            pendingByMajor = new HashMap<>();
+            pendingTotal = 0;
+        }
+        Map<String, Long> actual = new StudentDAO().countStudentsByMajor();
+
+        synchronized (lock) {
+            Map<String, Long> pending = pendingByMajor;
+            pendingByMajor = null;
+            if (actual == null) {
+                return;
+            }
+            Map<String, Long> expected = new HashMap<>(actual);
+            pending.forEach((major, delta) -> expected.merge(major, delta, Long::sum));
+            long expectedTotal = pendingTotal;
+            for (long count : actual.values()) {
+                expectedTotal += count;
+            }
+
+            long drift = 0;
+            for (Map.Entry<String, Long> entry : expected.entrySet()) {
+                AtomicLong current = byMajor.computeIfAbsent(entry.getKey(), k -> new AtomicLong());
+                drift += Math.abs(current.getAndSet(entry.getValue()) - entry.getValue());
+            }
+            for (Map.Entry<String, AtomicLong> entry : byMajor.entrySet()) {
+                if (!expected.containsKey(entry.getKey())) {
+                    drift += Math.abs(entry.getValue().getAndSet(0));
+                }
+            }
+            total.set(expectedTotal);
+
+            // The first load is not drift, there was nothing to compare with
+            if (lastReconciledAt != 0) {
+                lastDrift = drift;
+                maxDrift = Math.max(maxDrift, drift);
+                if (drift > 0) {
+                    System.out.println("StudentCounters reconciled, drift=" + drift);
+                }
+            }
+            lastReconciledAt = System.currentTimeMillis();
+        }
+        reconciliations.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", getTotal());
+        stats.put("byMajor", getByMajor());
+        stats.put("lastReconciledAt", lastReconciledAt);
+        stats.put("ageSeconds", (System.currentTimeMillis() - lastReconciledAt) / 1000);
+        stats.put("reconciliations", reconciliations.get());
+        stats.put("lastDrift", lastDrift);
+        stats.put("maxDrift", maxDrift);
+        stats.put("reconcileSeconds", AppSettings.getInt("counters.reconcileSeconds", 60));
+        stats.put("maxStalenessSeconds", AppSettings.getInt("counters.maxStalenessSeconds", 300));
+        return stats;
+    }
+
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void ensureFresh() {
+        long maxStalenessMillis = AppSettings.getInt("counters.maxStalenessSeconds", 300) * 1000L;
+        if (lastReconciledAt == 0 || System.currentTimeMillis() - lastReconciledAt > maxStalenessMillis) {
+            synchronized (this) {
+                if (lastReconciledAt == 0 || System.currentTimeMillis() - lastReconciledAt > maxStalenessMillis) {
+                    reconcile();
+                    startScheduler();
+                }
+            }
+        }
+    }
+
+    private void startScheduler() {
+        int seconds = AppSettings.getInt("counters.reconcileSeconds", 60);
+        if (scheduler != null || seconds <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "student-counters-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    private static String key(String major) {
+        return major == null ? "" : major;
+    }
+}
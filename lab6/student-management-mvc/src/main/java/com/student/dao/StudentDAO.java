@@ -1,122 +1,395 @@
 package com.student.dao;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.student.config.AppSettings;
 import com.student.model.Student;
+
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class StudentDAO extends BaseDAO {
+
+    // Upper bound of candidate rows read per search branch, keeps short prefixes ("a") cheap
+    static final int SEARCH_CANDIDATE_LIMIT = 1000;
+
+    // Most words of a keyword that are matched against the token table
+    static final int SEARCH_MAX_WORDS = 5;
+
+    // StudentRowMapper's columns plus the window count of findStudents (same positions 0..5)
+    private static final Columns PAGE_COLUMNS =
+            Columns.of("id", "student_code", "full_name", "email", "major", "created_at", "total_count");
+    private static final int PAGE_TOTAL_COUNT = 6;
+
+    // Rows looked up per query by findTaken (each binds its code and its email)
+    private static final int UNIQUE_LOOKUP_SIZE = 500;
+
+    // Last result of each list page, served (marked stale) while the database is unavailable
+    private static final Cache<Object, StudentPage> LAST_PAGES = Caffeine.newBuilder()
+            .maximumSize(AppSettings.getInt("db.degraded.cachedPages", 1000))
+            .build();
+
+    private final StudentSearchIndex searchIndex = new StudentSearchIndex();
+    private final StudentCache studentCache = StudentCache.getInstance();
+    private final StudentCounters studentCounters = StudentCounters.getInstance();
+    private final StudentAutocomplete autocomplete = StudentAutocomplete.getInstance();
+    private final StudentKeyFilter keyFilter = StudentKeyFilter.getInstance();
+    private final StudentBitmapIndex bitmapIndex = StudentBitmapIndex.getInstance();
+    private final StudentColumnStore columnStore = StudentColumnStore.getInstance();
+
+    // Lists, searches and exports may read from a replica (see ReadRouting); lookups by id,
+    // counts and writes stay on the primary
+    @Override
+    protected Connection getReadConnection() throws SQLException {
+        return DataSourceProvider.getReadConnection();
+    }
+
+    // Get all students
+    public List<Student> getAllStudents() {
+        String sql = "SELECT * FROM students ORDER BY id DESC";
+
+        try {
+            return query(sql, StatementBinder.NONE, StudentRowMapper.INSTANCE);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
 
-public class StudentDAO {
+    /**
+     * Stream every student (ORDER BY id) to the callback without building a list.
+     * Uses a forward-only, read-only cursor with the driver's streaming fetch size,
+     * so memory use does not depend on the table size.
+     * Errors are thrown instead of logged: a half-written export must fail loudly.
+     * @return number of rows streamed
+     */
+    public long streamAllStudents(RowCallback<Student> callback) throws SQLException, IOException {
+        String sql = "SELECT id, student_code, full_name, email, major, created_at FROM students ORDER BY id";
+
+        // One Student is reused for every row, the callback must not keep it
+        return stream(sql, StatementBinder.NONE, StudentRowMapper.INSTANCE.reusing(new Student()), callback);
+    }
+
+    // Get student by ID (read-through StudentCache)
+    public Student getStudentById(int id) {
+        return studentCache.get(id, this::loadStudentById);
+    }
 
-    // Database configuration
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/student_management";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "khoi";
+    private Student loadStudentById(int id) {
+        String sql = "SELECT * FROM students WHERE id = ?";
 
-    // Get database connection
-    private Connection getConnection() throws SQLException {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-//            System.out.println("Successful");
-            return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL Driver not found", e);
+            return queryForObject(sql, StatementBinder.of(id), StudentRowMapper.INSTANCE);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
         }
     }
 
-    // Get all students
-    public List<Student> getAllStudents() {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students ORDER BY id DESC";
+    // Add new student
+    public boolean addStudent(Student student) {
+        String sql = "INSERT INTO students (student_code, full_name, email, major) VALUES (?, ?, ?, ?)";
 
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
 
-            while (rs.next()) {
-                Student student = new Student();
-                student.setId(rs.getInt("id"));
-                student.setStudentCode(rs.getString("student_code"));
-                student.setFullName(rs.getString("full_name"));
-                student.setEmail(rs.getString("email"));
-                student.setMajor(rs.getString("major"));
-                student.setCreatedAt(rs.getTimestamp("created_at"));
-                students.add(student);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, student.getStudentCode());
+                pstmt.setString(2, student.getFullName());
+                pstmt.setString(3, student.getEmail());
+                pstmt.setString(4, student.getMajor());
+
+                int rowsAffected = pstmt.executeUpdate();
+
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        student.setId(keys.getInt(1));
+                    }
+                }
+                if (rowsAffected > 0 && student.getId() > 0 && searchIndex.isAvailable(conn)) {
+                    searchIndex.index(conn, student.getId(), student);
+                }
 
-//                System.out.println(student.getFullName());
+                conn.commit();
+                ReadRouting.wrote();
+                studentCache.invalidate(student.getId());
+                if (rowsAffected > 0) {
+                    studentCounters.onInsert(student.getMajor());
+                    autocomplete.onSave(student);
+                    keyFilter.onSave(student);
+                    bitmapIndex.onSave(student);
+                    columnStore.onSave(student);
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
-
-        return students;
     }
 
-    // Get student by ID
-    public Student getStudentById(int id) {
-        String sql = "SELECT * FROM students WHERE id = ?";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                Student student = new Student();
-                student.setId(rs.getInt("id"));
-                student.setStudentCode(rs.getString("student_code"));
-                student.setFullName(rs.getString("full_name"));
-                student.setEmail(rs.getString("email"));
-                student.setMajor(rs.getString("major"));
-                student.setCreatedAt(rs.getTimestamp("created_at"));
-                return student;
+    /**
+     * Insert many students with JDBC batching, one transaction per chunk of batchSize rows.
+     * A chunk that fails (e.g. a duplicate student_code) is rolled back and retried row by row,
+     * so a bad row is reported instead of aborting the whole import.
+     * Inserted students get their generated id set.
+     * @return error message per failed index of the list, empty when every row was inserted
+     */
+    public Map<Integer, String> addStudentsBatch(List<Student> students, int batchSize) {
+        String sql = "INSERT INTO students (student_code, full_name, email, major) VALUES (?, ?, ?, ?)";
+        Map<Integer, String> errors = new TreeMap<>();
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            boolean indexTokens = searchIndex.isAvailable(conn);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < students.size(); from += batchSize) {
+                    List<Student> chunk = students.subList(from, Math.min(from + batchSize, students.size()));
+
+                    try {
+                        for (Student student : chunk) {
+                            bindStudent(pstmt, student);
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+
+                        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                            for (Student student : chunk) {
+                                if (keys.next()) {
+                                    student.setId(keys.getInt(1));
+                                }
+                            }
+                        }
+                        if (indexTokens) {
+                            searchIndex.indexNew(conn, chunk);
+                        }
+                        conn.commit();
+                        ReadRouting.wrote();
+                        for (Student student : chunk) {
+                            studentCache.invalidate(student.getId());
+                            studentCounters.onInsert(student.getMajor());
+                            autocomplete.onSave(student);
+                            keyFilter.onSave(student);
+                            bitmapIndex.onSave(student);
+                            columnStore.onSave(student);
+                        }
+
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        pstmt.clearBatch();
+                        insertOneByOne(conn, pstmt, chunk, from, indexTokens, errors);
+                    }
+                }
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
+            for (int i = 0; i < students.size(); i++) {
+                if (students.get(i).getId() == 0) {
+                    errors.putIfAbsent(i, "Database error: " + e.getMessage());
+                }
+            }
         }
 
-        return null;
+        return errors;
     }
 
-    // Add new student
-    public boolean addStudent(Student student) {
-        String sql = "INSERT INTO students (student_code, full_name, email, major) VALUES (?, ?, ?, ?)";
+    // Slow path for a failed chunk: every row in its own transaction
+    private void insertOneByOne(Connection conn, PreparedStatement pstmt, List<Student> chunk, int offset,
+                                boolean indexTokens, Map<Integer, String> errors) throws SQLException {
+        for (int i = 0; i < chunk.size(); i++) {
+            Student student = chunk.get(i);
+            student.setId(0);
+            try {
+                bindStudent(pstmt, student);
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        student.setId(keys.getInt(1));
+                    }
+                }
+                if (indexTokens) {
+                    searchIndex.index(conn, student.getId(), student);
+                }
+                conn.commit();
+                ReadRouting.wrote();
+                studentCache.invalidate(student.getId());
+                studentCounters.onInsert(student.getMajor());
+                autocomplete.onSave(student);
+                keyFilter.onSave(student);
+                bitmapIndex.onSave(student);
+                columnStore.onSave(student);
+            } catch (SQLException e) {
+                conn.rollback();
+                student.setId(0);
+                errors.put(offset + i, e.getMessage());
+            }
+        }
+    }
 
-        try (Connection conn = getConnection();
+    /**
+     * Whether another student (not exceptId) already has this code. Codes StudentKeyFilter
+     * has never seen are answered without a query.
+     * @return false also when the check fails: the unique constraint still rejects the write
+     */
+    public boolean isCodeTaken(String code, int exceptId) {
+        return isTaken("student_code", code, exceptId, keyFilter.codeMayExist(code));
+    }
+
+    /**
+     * Whether another student (not exceptId) already has this email, like isCodeTaken.
+     */
+    public boolean isEmailTaken(String email, int exceptId) {
+        return isTaken("email", email, exceptId, keyFilter.emailMayExist(email));
+    }
+
+    private boolean isTaken(String column, String value, int exceptId, boolean mayExist) {
+        if (!mayExist) {
+            return false;
+        }
+        String sql = "SELECT 1 FROM students WHERE " + column + " = ? AND id <> ?";
+        try (Connection conn = getPrimaryReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, value);
+            pstmt.setInt(2, exceptId);
+            pstmt.setMaxRows(1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                boolean taken = rs.next();
+                keyFilter.confirmed(taken);
+                return taken;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-            pstmt.setString(1, student.getStudentCode());
-            pstmt.setString(2, student.getFullName());
-            pstmt.setString(3, student.getEmail());
-            pstmt.setString(4, student.getMajor());
+    /**
+     * Students of the list whose code or email is already in the table, found before an
+     * import so those rows are reported instead of failing their batch. Only the rows
+     * StudentKeyFilter cannot rule out are looked up, UNIQUE_LOOKUP_SIZE at a time.
+     * @return error message per index of the list (empty if the lookup fails: the insert reports them)
+     */
+    public Map<Integer, String> findTaken(List<Student> students) {
+        Map<Integer, String> taken = new TreeMap<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < students.size(); i++) {
+            Student student = students.get(i);
+            if (keyFilter.codeMayExist(student.getStudentCode()) | keyFilter.emailMayExist(student.getEmail())) {
+                candidates.add(i);
+            }
+        }
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        try (Connection conn = getPrimaryReadConnection()) {
+            for (int from = 0; from < candidates.size(); from += UNIQUE_LOOKUP_SIZE) {
+                List<Integer> chunk = candidates.subList(from, Math.min(from + UNIQUE_LOOKUP_SIZE, candidates.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                String sql = "SELECT student_code, email FROM students WHERE student_code IN (" + placeholders
+                        + ") OR email IN (" + placeholders + ")";
+
+                Set<String> codes = new HashSet<>();
+                Set<String> emails = new HashSet<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        Student student = students.get(chunk.get(i));
+                        pstmt.setString(i + 1, student.getStudentCode());
+                        pstmt.setString(chunk.size() + i + 1, student.getEmail());
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            codes.add(StudentKeyFilter.key(rs.getString(1)));
+                            if (rs.getString(2) != null) {
+                                emails.add(StudentKeyFilter.key(rs.getString(2)));
+                            }
+                        }
+                    }
+                }
 
+                for (int index : chunk) {
+                    Student student = students.get(index);
+                    if (codes.contains(StudentKeyFilter.key(student.getStudentCode()))) {
+                        taken.put(index, "Student code already exists");
+                    } else if (student.getEmail() != null && emails.contains(StudentKeyFilter.key(student.getEmail()))) {
+                        taken.put(index, "Email already exists");
+                    }
+                    keyFilter.confirmed(taken.containsKey(index));
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;
+            return new TreeMap<>();
+        }
+        return taken;
+    }
+
+    private String findMajor(Connection conn, int id) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT major FROM students WHERE id = ?")) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
         }
     }
 
+    private void bindStudent(PreparedStatement pstmt, Student student) throws SQLException {
+        pstmt.setString(1, student.getStudentCode());
+        pstmt.setString(2, student.getFullName());
+        pstmt.setString(3, student.getEmail());
+        pstmt.setString(4, student.getMajor());
+    }
+
     // Update student
     public boolean updateStudent(Student student) {
         String sql = "UPDATE students SET student_code = ?, full_name = ?, email = ?, major = ? WHERE id = ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
 
-            pstmt.setString(1, student.getStudentCode());
-            pstmt.setString(2, student.getFullName());
-            pstmt.setString(3, student.getEmail());
-            pstmt.setString(4, student.getMajor());
-            pstmt.setInt(5, student.getId());
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                // Previous major, to move the student between the per-major counters
+                String oldMajor = findMajor(conn, student.getId());
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+                pstmt.setString(1, student.getStudentCode());
+                pstmt.setString(2, student.getFullName());
+                pstmt.setString(3, student.getEmail());
+                pstmt.setString(4, student.getMajor());
+                pstmt.setInt(5, student.getId());
+
+                int rowsAffected = pstmt.executeUpdate();
+                if (rowsAffected > 0 && searchIndex.isAvailable(conn)) {
+                    searchIndex.index(conn, student.getId(), student);
+                }
+
+                conn.commit();
+                ReadRouting.wrote();
+                studentCache.invalidate(student.getId());
+                if (rowsAffected > 0) {
+                    studentCounters.onMajorChange(oldMajor, student.getMajor());
+                    autocomplete.onSave(student);
+                    keyFilter.onSave(student);
+                    bitmapIndex.onSave(student);
+                    columnStore.onSave(student);
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -128,12 +401,34 @@ public class StudentDAO {
     public boolean deleteStudent(int id) {
         String sql = "DELETE FROM students WHERE id = ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
 
-            pstmt.setInt(1, id);
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                String oldMajor = findMajor(conn, id);
+
+                // Tokens reference the student, remove them first
+                if (searchIndex.isAvailable(conn)) {
+                    searchIndex.remove(conn, id);
+                }
+
+                pstmt.setInt(1, id);
+                int rowsAffected = pstmt.executeUpdate();
+
+                conn.commit();
+                ReadRouting.wrote();
+                studentCache.invalidate(id);
+                if (rowsAffected > 0) {
+                    studentCounters.onDelete(oldMajor);
+                    autocomplete.onDelete(id);
+                    bitmapIndex.onDelete(id);
+                    columnStore.onDelete(id);
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -152,27 +447,95 @@ public class StudentDAO {
         String sql = "SELECT * FROM students WHERE student_code LIKE ? OR full_name LIKE ? OR email LIKE ? ORDER BY id DESC";
         String searchPattern = "%" + keyword + "%";
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try {
+            return query(sql, StatementBinder.of(searchPattern, searchPattern, searchPattern),
+                    StudentRowMapper.INSTANCE);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
 
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
-            pstmt.setString(3, searchPattern);
+        return students;
+    }
 
-            // Execute the query
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Student student = new Student();
-                    student.setId(rs.getInt("id"));
-                    student.setStudentCode(rs.getString("student_code"));
-                    student.setFullName(rs.getString("full_name"));
-                    student.setEmail(rs.getString("email"));
-                    student.setMajor(rs.getString("major"));
-                    student.setCreatedAt(rs.getTimestamp("created_at"));
-                    students.add(student);
-                }
+    /**
+     * Ranked, paginated search served from indexes (see sql/search_schema.sql).
+     * Matches prefixes of student_code, full_name and email, and whole words or word
+     * prefixes anywhere in the name/email. Best matches first:
+     * exact code > exact name > exact email > code prefix > name prefix > email prefix,
+     * plus a bonus for every keyword word found in the token table.
+     * Falls back to the LIKE '%kw%' search when the search schema is not installed.
+     * Answered from StudentColumnStore, with the same scores, once it is loaded.
+     */
+    public List<Student> searchStudentsRanked(String keyword, int offset, int limit) {
+        List<Student> students = new ArrayList<>();
+
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return students;
+        }
+
+        if (columnStore.isReady()) {
+            List<Student> found = columnStore.search(keyword, offset, limit);
+            if (found != null) {
+                return found;
+            }
+        }
+
+        // Prefix matches are written as ranges (col >= 'kw' AND col < 'kx') so every
+        // database turns them into index range scans, also inside the UNION below
+        String lower = keyword.trim().toLowerCase(Locale.ROOT);
+        String upper = prefixUpperBound(lower);
+        List<String> words = StudentSearchIndex.queryWords(keyword);
+        if (words.size() > SEARCH_MAX_WORDS) {
+            words = words.subList(0, SEARCH_MAX_WORDS);
+        }
+
+        try (Connection conn = getReadConnection()) {
+
+            if (!searchIndex.isAvailable(conn)) {
+                List<Student> all = searchStudents(keyword);
+                int from = Math.min(Math.max(offset, 0), all.size());
+                int to = Math.min(from + limit, all.size());
+                return new ArrayList<>(all.subList(from, to));
+            }
+
+            StringBuilder candidates = new StringBuilder();
+            List<Object> params = new ArrayList<>();
+
+            candidates.append("(SELECT id, CASE WHEN student_code_lc = ? THEN 100 ELSE 70 END AS score")
+                    .append(" FROM students WHERE student_code_lc >= ? AND student_code_lc < ? LIMIT ").append(SEARCH_CANDIDATE_LIMIT).append(")");
+            params.add(lower);
+            params.add(lower);
+            params.add(upper);
+
+            candidates.append(" UNION ALL (SELECT id, CASE WHEN full_name_lc = ? THEN 90 ELSE 60 END AS score")
+                    .append(" FROM students WHERE full_name_lc >= ? AND full_name_lc < ? LIMIT ").append(SEARCH_CANDIDATE_LIMIT).append(")");
+            params.add(lower);
+            params.add(lower);
+            params.add(upper);
+
+            candidates.append(" UNION ALL (SELECT id, CASE WHEN email_lc = ? THEN 80 ELSE 50 END AS score")
+                    .append(" FROM students WHERE email_lc >= ? AND email_lc < ? LIMIT ").append(SEARCH_CANDIDATE_LIMIT).append(")");
+            params.add(lower);
+            params.add(lower);
+            params.add(upper);
+
+            for (String word : words) {
+                candidates.append(" UNION ALL (SELECT student_id AS id, CASE WHEN token = ? THEN 20 ELSE 10 END AS score")
+                        .append(" FROM student_search_tokens WHERE token >= ? AND token < ? LIMIT ")
+                        .append(SEARCH_CANDIDATE_LIMIT).append(")");
+                params.add(word);
+                params.add(word);
+                params.add(prefixUpperBound(word));
             }
 
+            String sql = "SELECT s.* FROM students s JOIN ("
+                    + "SELECT c.id, SUM(c.score) AS score FROM (" + candidates + ") c GROUP BY c.id"
+                    + ") r ON r.id = s.id ORDER BY r.score DESC, s.id DESC LIMIT ? OFFSET ?";
+            params.add(limit);
+            params.add(Math.max(offset, 0));
+
+            return query(conn, sql, StatementBinder.of(params), StudentRowMapper.INSTANCE);
+
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -180,6 +543,15 @@ public class StudentDAO {
         return students;
     }
 
+    // Smallest string greater than every string starting with prefix ("abc" -> "abd")
+    private String prefixUpperBound(String prefix) {
+        char last = prefix.charAt(prefix.length() - 1);
+        if (last == Character.MAX_VALUE) {
+            return prefix + Character.MAX_VALUE;
+        }
+        return prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+    }
+
     public List<Student> getStudentsSorted(String sortBy, String order) {
         List<Student> students = new ArrayList<>();
 
@@ -188,13 +560,8 @@ public class StudentDAO {
 
         String sql = "SELECT * FROM students ORDER BY " + safeSortBy + " " + safeOrder;
 
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                students.add(mapRowToStudent(rs));
-            }
+        try {
+            return query(sql, StatementBinder.NONE, StudentRowMapper.INSTANCE);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -205,16 +572,8 @@ public class StudentDAO {
         List<Student> students = new ArrayList<>();
         String sql = "SELECT * FROM students WHERE major = ? ORDER BY id DESC";
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, major);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    students.add(mapRowToStudent(rs));
-                }
-            }
+        try {
+            return query(sql, StatementBinder.of(major), StudentRowMapper.INSTANCE);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -241,22 +600,231 @@ public class StudentDAO {
         // Add ORDER BY clause
         sql.append(" ORDER BY ").append(safeSortBy).append(" ").append(safeOrder);
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        try {
+            return query(sql.toString(), StatementBinder.of(params), StudentRowMapper.INSTANCE);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return students;
+    }
+
+    /**
+     * One page of students filtered by major and/or keyword (LIKE on code, name and email, as
+     * searchStudents) and sorted, plus the number of matches, in a single statement:
+     * COUNT(*) OVER () counts the filtered rows before LIMIT/OFFSET is applied.
+     * Only a page past the end returns no row to read the total from; it then costs a
+     * COUNT and the last page is returned instead.
+     */
+    public StudentPage findStudents(StudentQuery query) {
+        String safeSortBy = validateSortBy(query.getSortBy()).toLowerCase();
+        String safeOrder = validateOrder(query.getOrder());
+        String sortExpr = keysetSortExpression(safeSortBy);
+
+        // The in-memory replica answers any page without a query
+        if (columnStore.isReady()) {
+            StudentPage page = columnStore.find(query, safeSortBy, "DESC".equals(safeOrder));
+            if (page != null) {
+                return page;
+            }
+        }
+
+        // Without a keyword StudentBitmapIndex finds the page's ids; only those rows are read
+        if (query.getKeyword() == null && bitmapIndex.isReady()) {
+            StudentBitmapIndex.IdPage ids = bitmapIndex.page(query.getMajor(), safeSortBy, "DESC".equals(safeOrder),
+                    query.getPage(), query.getPageSize());
+            if (ids != null) {
+                try {
+                    return remember(query, new StudentPage(getStudentsByIds(ids.ids), ids.total, ids.page,
+                            query.getPageSize()));
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    return lastGood(query, query.getPageSize());
+                }
+            }
+        }
+
+        List<Object> params = new ArrayList<>();
+        String where = studentQueryWhere(query, params);
+
+        StringBuilder sql = new StringBuilder("SELECT students.*, COUNT(*) OVER () AS total_count FROM students")
+                .append(where)
+                .append(" ORDER BY ").append(sortExpr).append(" ").append(safeOrder);
+        if (!"id".equals(safeSortBy)) {
+            sql.append(", id ").append(safeOrder);
+        }
+        sql.append(" LIMIT ? OFFSET ?");
+
+        int pageSize = query.getPageSize();
+        int page = query.getPage();
+        try (Connection conn = getReadConnection()) {
+            int[] total = new int[1];
+            List<Student> students = findStudentsPage(conn, sql.toString(), params, page, pageSize, total);
+
+            if (students.isEmpty() && page > 1) {
+                List<Object> countParams = new ArrayList<>();
+                String countSql = "SELECT COUNT(*) FROM students" + studentQueryWhere(query, countParams);
+                try (PreparedStatement pstmt = conn.prepareStatement(countSql)) {
+                    StatementBinder.of(countParams).bind(pstmt);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        total[0] = rs.next() ? rs.getInt(1) : 0;
+                    }
+                }
+                int lastPage = Math.max(1, (total[0] + pageSize - 1) / pageSize);
+                if (lastPage < page) {
+                    page = lastPage;
+                    students = findStudentsPage(conn, sql.toString(), params, page, pageSize, total);
+                }
+            }
+            return remember(query, new StudentPage(students, total[0], page, pageSize));
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return lastGood(query, pageSize);
+    }
+
+    /**
+     * One page of all students, newest first, with the total from StudentCounters.
+     * A page past the end returns the last page.
+     */
+    public StudentPage getStudentsPage(int page, int pageSize) {
+        if (columnStore.isReady()) {
+            StudentPage latest = columnStore.latest(page, pageSize);
+            if (latest != null) {
+                return latest;
+            }
+        }
+        if (bitmapIndex.isReady()) {
+            StudentBitmapIndex.IdPage ids = bitmapIndex.page(null, "id", true, page, pageSize);
+            if (ids != null) {
+                List<Object> key = List.of("latest", ids.page, pageSize);
+                try {
+                    return remember(key, new StudentPage(getStudentsByIds(ids.ids), ids.total, ids.page, pageSize));
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    return lastGood(key, pageSize);
+                }
+            }
+        }
+
+        int total = getTotalStudents();
+        int current = Math.min(Math.max(page, 1), Math.max(1, (total + pageSize - 1) / pageSize));
+        String sql = "SELECT * FROM students ORDER BY id DESC LIMIT ? OFFSET ?";
+        List<Object> key = List.of("latest", current, pageSize);
+
+        try {
+            List<Student> students = query(sql, StatementBinder.of(pageSize, (current - 1) * pageSize),
+                    StudentRowMapper.INSTANCE);
+            return remember(key, new StudentPage(students, total, current, pageSize));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return lastGood(key, pageSize);
+    }
+
+    /**
+     * The students with these ids, in the order of the ids (one query).
+     * Ids without a row (deleted meanwhile, or not on a lagging replica yet) are left out.
+     */
+    List<Student> getStudentsByIds(int[] ids) throws SQLException {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        Object[] values = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            values[i] = ids[i];
+        }
+        String sql = "SELECT * FROM students WHERE id IN (" + String.join(", ", Collections.nCopies(ids.length, "?")) + ")";
 
-            if (!params.isEmpty()) {
-                pstmt.setString(1, (String) params.get(0));
+        Map<Integer, Student> byId = new HashMap<>();
+        for (Student student : query(sql, StatementBinder.of(values), StudentRowMapper.INSTANCE)) {
+            byId.put(student.getId(), student);
+        }
+        List<Student> students = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Student student = byId.get(id);
+            if (student != null) {
+                students.add(student);
             }
+        }
+        return students;
+    }
 
+    /**
+     * Every student id in the order of the column, as findStudents sorts it (ties by id),
+     * read on the caller's routing (StudentBitmapIndex reads the primary).
+     * @return the ids, or null if the query failed
+     */
+    int[] idsOrderedBy(String column) {
+        String sql = "SELECT id FROM students ORDER BY " + keysetSortExpression(validateSortBy(column)) + ", id";
+        int[] ids = new int[Math.max(16, getTotalStudents() + 16)];
+        int size = 0;
+
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(DataSourceProvider.streamingFetchSize(conn, 10000));
+            pstmt.setQueryTimeout(AppSettings.getInt("db.timeout.streamSeconds", 600));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    students.add(mapRowToStudent(rs));
+                    if (size == ids.length) {
+                        ids = Arrays.copyOf(ids, ids.length * 2);
+                    }
+                    ids[size++] = rs.getInt(1);
                 }
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
-        return students;
+        return Arrays.copyOf(ids, size);
+    }
+
+    private static StudentPage remember(Object key, StudentPage page) {
+        LAST_PAGES.put(key, page.stale(System.currentTimeMillis()));
+        return page;
+    }
+
+    // The page as it was last read, or an empty one
+    private static StudentPage lastGood(Object key, int pageSize) {
+        StudentPage cached = LAST_PAGES.getIfPresent(key);
+        return cached != null ? cached : new StudentPage(new ArrayList<>(), 0, 1, pageSize);
+    }
+
+    private List<Student> findStudentsPage(Connection conn, String sql, List<Object> params,
+                                           int page, int pageSize, int[] total) throws SQLException {
+        List<Object> pageParams = new ArrayList<>(params);
+        pageParams.add(pageSize);
+        pageParams.add((page - 1) * pageSize);
+
+        return query(conn, sql, StatementBinder.of(pageParams), new RowMapper<>() {
+            @Override
+            public Columns columns() {
+                return PAGE_COLUMNS;
+            }
+
+            @Override
+            public Student mapRow(ResultSet rs, int[] positions) throws SQLException {
+                total[0] = rs.getInt(positions[PAGE_TOTAL_COUNT]);
+                return StudentRowMapper.INSTANCE.fill(new Student(), rs, positions);
+            }
+        });
+    }
+
+    private String studentQueryWhere(StudentQuery query, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (query.getMajor() != null) {
+            conditions.add("major = ?");
+            params.add(query.getMajor());
+        }
+        if (query.getKeyword() != null) {
+            String pattern = "%" + query.getKeyword() + "%";
+            conditions.add("(student_code LIKE ? OR full_name LIKE ? OR email LIKE ?)");
+            params.add(pattern);
+            params.add(pattern);
+            params.add(pattern);
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
     }
 
     private String validateSortBy(String sortBy) {
@@ -278,57 +846,177 @@ public class StudentDAO {
         return "ASC";
     }
 
-    private Student mapRowToStudent(ResultSet rs) throws SQLException {
-        Student student = new Student();
-        student.setId(rs.getInt("id"));
-        student.setStudentCode(rs.getString("student_code"));
-        student.setFullName(rs.getString("full_name"));
-        student.setEmail(rs.getString("email"));
-        student.setMajor(rs.getString("major"));
-        student.setCreatedAt(rs.getTimestamp("created_at"));
-        return student;
+    /**
+     * Total number of students, served from StudentCounters (no COUNT query per call).
+     */
+    public int getTotalStudents() {
+        return (int) studentCounters.getTotal();
     }
 
-    public int getTotalStudents() {
-        int count = 0;
-        String sql = "SELECT COUNT(id) FROM students";
+    /**
+     * Number of students per major, served from StudentCounters.
+     */
+    public Map<String, Long> getStudentCountsByMajor() {
+        return studentCounters.getByMajor();
+    }
+
+    /**
+     * Exact student count per major, straight from the database.
+     * Used to load and reconcile StudentCounters.
+     * @return count per major ("" for no major), or null if the query failed
+     */
+    public Map<String, Long> countStudentsByMajor() {
+        Map<String, Long> counts = new TreeMap<>();
+        String sql = "SELECT major, COUNT(*) FROM students GROUP BY major";
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getPrimaryReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            // The result set for a COUNT query will have one row.
-            if (rs.next()) {
-                // Get the count from the first column.
-                count = rs.getInt(1);
+            while (rs.next()) {
+                String major = rs.getString(1);
+                counts.put(major == null ? "" : major, rs.getLong(2));
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
-        return count;
+        return counts;
     }
-    
+
     public List<Student> getStudentsPaginated(int offset, int limit) {
         List<Student> students = new ArrayList<>();
         // The SQL syntax for pagination in MySQL is LIMIT <limit> OFFSET <offset>
         String sql = "SELECT * FROM students ORDER BY id DESC LIMIT ? OFFSET ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
+        try {
             // Set the parameters for LIMIT and OFFSET
-            pstmt.setInt(1, limit);
-            pstmt.setInt(2, offset);
+            return query(sql, StatementBinder.of(limit, offset), StudentRowMapper.INSTANCE);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return students;
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    // Reuse the existing helper method to map the row to a Student object
-                    students.add(mapRowToStudent(rs));
-                }
+    /**
+     * Keyset (seek) pagination over ORDER BY id DESC.
+     * Reads only the rows of the requested page instead of skipping an OFFSET.
+     * @param afterId id of the last row on the previous page, or null for the first page
+     */
+    public List<Student> getStudentsPageAfter(Integer afterId, int limit) {
+        List<Student> students = new ArrayList<>();
+        String sql = afterId == null
+                ? "SELECT * FROM students ORDER BY id DESC LIMIT ?"
+                : "SELECT * FROM students WHERE id < ? ORDER BY id DESC LIMIT ?";
+
+        StatementBinder binder = afterId == null
+                ? StatementBinder.of(limit)
+                : StatementBinder.of(afterId, limit);
+
+        try {
+            return query(sql, binder, StudentRowMapper.INSTANCE);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return students;
+    }
+
+    /**
+     * Students with an id above afterId, in id order (StudentColumnStore's poll for new rows).
+     * @return the rows, or null if the query failed
+     */
+    List<Student> getStudentsAfterId(int afterId, int limit) {
+        try {
+            return query("SELECT * FROM students WHERE id > ? ORDER BY id LIMIT ?",
+                    StatementBinder.of(afterId, limit), StudentRowMapper.INSTANCE);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Keyset pagination for the sort and filter paths.
+     * Seeks on the composite key (sort column, id) so rows with equal sort values are not skipped.
+     * @param after cursor of the last row on the previous page, or null for the first page
+     */
+    public List<Student> getStudentsFilteredAndSortedAfter(String major, String sortBy, String order,
+                                                           PageCursor after, int limit) {
+        List<Student> students = new ArrayList<>();
+
+        String safeSortBy = validateSortBy(sortBy).toLowerCase();
+        String safeOrder = validateOrder(order);
+        String sortExpr = keysetSortExpression(safeSortBy);
+        String cmp = "DESC".equals(safeOrder) ? "<" : ">";
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM students");
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+
+        if (major != null && !major.trim().isEmpty()) {
+            conditions.add("major = ?");
+            params.add(major);
+        }
+
+        if (after != null) {
+            if ("id".equals(safeSortBy)) {
+                conditions.add("id " + cmp + " ?");
+                params.add(after.getLastId());
+            } else {
+                // Row value comparison written out so MySQL can use an index on the sort column
+                conditions.add("(" + sortExpr + " " + cmp + " ? OR (" + sortExpr + " = ? AND id " + cmp + " ?))");
+                params.add(after.getSortValue());
+                params.add(after.getSortValue());
+                params.add(after.getLastId());
             }
+        }
+
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+
+        sql.append(" ORDER BY ").append(sortExpr).append(" ").append(safeOrder);
+        if (!"id".equals(safeSortBy)) {
+            sql.append(", id ").append(safeOrder);
+        }
+        sql.append(" LIMIT ?");
+        params.add(limit);
+
+        try {
+            return query(sql.toString(), StatementBinder.of(params), StudentRowMapper.INSTANCE);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return students;
     }
-}
\ No newline at end of file
+
+    /**
+     * Build the cursor pointing at the given row for the given sort column.
+     */
+    public PageCursor cursorFor(Student student, String sortBy) {
+        String value;
+        switch (validateSortBy(sortBy).toLowerCase()) {
+            case "student_code":
+                value = student.getStudentCode();
+                break;
+            case "full_name":
+                value = student.getFullName();
+                break;
+            case "email":
+                value = student.getEmail() == null ? "" : student.getEmail();
+                break;
+            case "major":
+                value = student.getMajor();
+                break;
+            default:
+                value = String.valueOf(student.getId());
+                break;
+        }
+        return new PageCursor(value, student.getId());
+    }
+
+    // email is optional; NULLs would break the seek comparison, so they sort as ''
+    private String keysetSortExpression(String column) {
+        return "email".equals(column) ? "COALESCE(email, '')" : column;
+    }
+}
@@ -0,0 +1,248 @@
+package com.student.dao;
+
+import com.student.config.AppSettings;
+import com.student.model.Student;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filters over the student codes and emails in the table, so the uniqueness check
+ * before an insert (StudentDAO.isCodeTaken/isEmailTaken, the CSV import) only queries the
+ * database for values that may exist. A definite miss skips the query; a hit is confirmed
+ * by the query, and the unique constraints stay the last word either way.
+ *
+ * Built by streaming the table (at startup, see AppContextListener) and sized for
+ * uniqueness.growthFactor times the rows found, at uniqueness.falsePositiveRate. StudentDAO
+ * adds the values of committed inserts and updates. Deleted values cannot be removed and
+ * only cost a query; once the adds reach the size the filters are rebuilt in the background.
+ * Keys are lowercased, like MySQL's case-insensitive unique indexes compare them.
+ */
+public final class StudentKeyFilter {
+
+    private static final StudentKeyFilter INSTANCE = new StudentKeyFilter();
+
+    private volatile Filters filters;
+    // Filters being built: writes committed during the build go into them too
+    private volatile Filters building;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile long lastBuildMillis;
+    private volatile ExecutorService builder;
+    private volatile boolean stopped;
+
+    // Lookups answered by the filters vs. confirmed by a query
+    private final AtomicLong definiteMisses = new AtomicLong();
+    private final AtomicLong queried = new AtomicLong();
+    private final AtomicLong duplicatesFound = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private StudentKeyFilter() {
+    }
+
+    public static StudentKeyFilter getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return AppSettings.getBoolean("uniqueness.filter.enabled", true);
+    }
+
+    public boolean isReady() {
+        return filters != null;
+    }
+
+    /**
+     * @return false if no student has this code (no query needed); true if one may have it,
+     *         or the filters are not built yet
+     */
+    public boolean codeMayExist(String code) {
+        Filters current = filters;
+        return mayContain(current == null ? null : current.codes, code);
+    }
+
+    /**
+     * @return false if no student has this email; true if one may have it
+     */
+    public boolean emailMayExist(String email) {
+        Filters current = filters;
+        return mayContain(current == null ? null : current.emails, email);
+    }
+
+    /**
+     * Outcome of the query that followed a "may exist".
+     */
+    void confirmed(boolean exists) {
+        if (exists) {
+            duplicatesFound.incrementAndGet();
+        } else {
+            falsePositives.incrementAndGet();
+        }
+    }
+
+    private boolean mayContain(BloomFilter filter, String value) {
+        if (value == null || value.isBlank()) {
+            return false;
+        }
+        if (filter == null) {
+            queried.incrementAndGet();
+            return true;
+        }
+        if (filter.mightContain(key(value))) {
+            queried.incrementAndGet();
+            return true;
+        }
+        definiteMisses.incrementAndGet();
+        return false;
+    }
+
+    // --- Write hooks, called by StudentDAO after commit ---
+
+    void onSave(Student student) {
+        Filters current = filters;
+        Filters next = building;
+        if (current == null && next == null) {
+            return; // not built (or disabled), the build reads the database anyway
+        }
+        if (current != null) {
+            current.add(student);
+        }
+        if (next != null) {
+            next.add(student);
+        }
+        if (current != null && current.codes.getAdded() >= current.codes.getExpectedEntries()) {
+            rebuildAsync();
+        }
+    }
+
+    // --- Building ---
+
+    /**
+     * Rebuild from the database on the background thread (no-op if one is running).
+     */
+    public void rebuildAsync() {
+        ExecutorService current = builder();
+        if (current != null && rebuilding.compareAndSet(false, true)) {
+            try {
+                current.execute(this::rebuild);
+            } catch (RejectedExecutionException e) {
+                rebuilding.set(false); // shut down in between
+            }
+        }
+    }
+
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            long rows = StudentCounters.getInstance().getTotal();
+            long capacity = Math.max(AppSettings.getLong("uniqueness.minCapacity", 10000),
+                    (long) (rows * Math.max(1.0, Double.parseDouble(AppSettings.get("uniqueness.growthFactor", "2")))));
+            double falsePositiveRate = Double.parseDouble(AppSettings.get("uniqueness.falsePositiveRate", "0.01"));
+
+            Filters next = new Filters(BloomFilter.create(capacity, falsePositiveRate),
+                    BloomFilter.create(capacity, falsePositiveRate));
+            // Set before reading: a write committed from here on is added by onSave
+            building = next;
+            // From the primary: a lagging replica could miss recent inserts
+            ReadRouting.onPrimary(() -> new StudentDAO().streamAllStudents(next::add));
+
+            filters = next;
+            lastBuildMillis = System.currentTimeMillis() - start;
+            rebuilds.incrementAndGet();
+        } catch (Exception e) {
+            e.printStackTrace(); // keep the previous filters
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Filters current = filters;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", current != null);
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("lastBuildMillis", lastBuildMillis);
+        stats.put("configuredFalsePositiveRate", Double.parseDouble(AppSettings.get("uniqueness.falsePositiveRate", "0.01")));
+        long misses = definiteMisses.get();
+        long hits = queried.get();
+        stats.put("definiteMisses", misses);
+        stats.put("queried", hits);
+        stats.put("duplicatesFound", duplicatesFound.get());
+        stats.put("falsePositives", falsePositives.get());
+        stats.put("queriesSkippedPercent", misses + hits == 0 ? 0.0 : Math.round(misses * 1000.0 / (misses + hits)) / 10.0);
+        stats.put("studentCode", current == null ? new LinkedHashMap<>() : describe(current.codes));
+        stats.put("email", current == null ? new LinkedHashMap<>() : describe(current.emails));
+        return stats;
+    }
+
+    private static Map<String, Object> describe(BloomFilter filter) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", filter.getAdded());
+        stats.put("capacity", filter.getExpectedEntries());
+        stats.put("bits", filter.getBits());
+        stats.put("hashes", filter.getHashes());
+        stats.put("memoryBytes", filter.getMemoryBytes());
+        stats.put("estimatedFalsePositiveRate", filter.estimatedFalsePositiveRate());
+        return stats;
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            stopped = true;
+            if (builder != null) {
+                builder.shutdownNow();
+                builder = null;
+            }
+        }
+    }
+
+    // Started on the first rebuild; null once shut down
+    private ExecutorService builder() {
+        ExecutorService current = builder;
+        if (current != null || stopped) {
+            return current;
+        }
+        synchronized (this) {
+            if (builder == null && !stopped) {
+                builder = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "student-key-filter-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return builder;
+        }
+    }
+
+    static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Filters {
+        final BloomFilter codes;
+        final BloomFilter emails;
+
+        Filters(BloomFilter codes, BloomFilter emails) {
+            this.codes = codes;
+            this.emails = emails;
+        }
+
+        void add(Student student) {
+            if (student.getStudentCode() != null) {
+                codes.add(key(student.getStudentCode()));
+            }
+            if (student.getEmail() != null && !student.getEmail().isBlank()) {
+                emails.add(key(student.getEmail()));
+            }
+        }
+    }
+}
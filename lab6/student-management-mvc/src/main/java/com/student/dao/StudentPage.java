@@ -0,0 +1,67 @@
+package com.student.dao;
+
+import com.student.model.Student;
+
+import java.util.List;
+
+/**
+ * One page of StudentDAO.findStudents with the total number of matching students.
+ * A stale page is a copy of an earlier result, served while the database is unavailable.
+ */
+public final class StudentPage {
+
+    private final List<Student> students;
+    private final int total;
+    private final int page;
+    private final int pageSize;
+    private final long cachedAtMillis;
+
+    public StudentPage(List<Student> students, int total, int page, int pageSize) {
+        this(students, total, page, pageSize, 0);
+    }
+
+    private StudentPage(List<Student> students, int total, int page, int pageSize, long cachedAtMillis) {
+        this.students = students;
+        this.total = total;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.cachedAtMillis = cachedAtMillis;
+    }
+
+    /**
+     * @return this page marked as read from the database at cachedAtMillis
+     */
+    StudentPage stale(long cachedAtMillis) {
+        return new StudentPage(students, total, page, pageSize, cachedAtMillis);
+    }
+
+    public boolean isStale() {
+        return cachedAtMillis > 0;
+    }
+
+    /**
+     * @return when a stale page was read from the database (0 for a live page)
+     */
+    public long getCachedAtMillis() {
+        return cachedAtMillis;
+    }
+
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the page returned, which is the last page if a page past the end was asked for
+     */
+    public int getPage() {
+        return page;
+    }
+
+    public int getTotalPages() {
+        return (total + pageSize - 1) / pageSize;
+    }
+}
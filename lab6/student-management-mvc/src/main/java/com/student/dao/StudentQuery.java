@@ -0,0 +1,76 @@
+package com.student.dao;
+
+import java.util.Objects;
+
+/**
+ * Criteria for StudentDAO.findStudents: optional major and keyword filters,
+ * a sort column and direction, and a 1-based page.
+ * Sort column and direction are checked against a whitelist by the DAO.
+ */
+public final class StudentQuery {
+
+    private final String major;
+    private final String keyword;
+    private final String sortBy;
+    private final String order;
+    private final int page;
+    private final int pageSize;
+
+    public StudentQuery(String major, String keyword, String sortBy, String order, int page, int pageSize) {
+        this.major = blankToNull(major);
+        this.keyword = blankToNull(keyword);
+        this.sortBy = sortBy;
+        this.order = order;
+        this.pageSize = Math.max(1, pageSize);
+        // A huge page number (a hand-edited URL) must not overflow the OFFSET (page - 1) * pageSize
+        this.page = Math.min(Math.max(1, page), Integer.MAX_VALUE / this.pageSize);
+    }
+
+    public String getMajor() {
+        return major;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public String getOrder() {
+        return order;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    // Key of StudentDAO's cache of pages served while the database is down
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StudentQuery)) {
+            return false;
+        }
+        StudentQuery other = (StudentQuery) o;
+        return page == other.page && pageSize == other.pageSize
+                && Objects.equals(major, other.major) && Objects.equals(keyword, other.keyword)
+                && Objects.equals(sortBy, other.sortBy) && Objects.equals(order, other.order);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(major, keyword, sortBy, order, page, pageSize);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
@@ -0,0 +1,80 @@
+package com.student.dao;
+
+import com.student.model.Student;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps students rows. Columns a query does not select are left unset.
+ */
+public final class StudentRowMapper implements RowMapper<Student> {
+
+    public static final StudentRowMapper INSTANCE = new StudentRowMapper();
+
+    private static final Columns COLUMNS =
+            Columns.of("id", "student_code", "full_name", "email", "major", "created_at");
+
+    private static final int ID = 0;
+    private static final int STUDENT_CODE = 1;
+    private static final int FULL_NAME = 2;
+    private static final int EMAIL = 3;
+    private static final int MAJOR = 4;
+    private static final int CREATED_AT = 5;
+
+    private StudentRowMapper() {
+    }
+
+    @Override
+    public Columns columns() {
+        return COLUMNS;
+    }
+
+    @Override
+    public Student mapRow(ResultSet rs, int[] positions) throws SQLException {
+        return fill(new Student(), rs, positions);
+    }
+
+    /**
+     * Mapper that copies every row into the same Student, for streaming without an object per row.
+     * Callers must not keep the object between rows.
+     */
+    public RowMapper<Student> reusing(Student target) {
+        return new RowMapper<>() {
+            @Override
+            public Columns columns() {
+                return COLUMNS;
+            }
+
+            @Override
+            public Student mapRow(ResultSet rs, int[] positions) throws SQLException {
+                return fill(target, rs, positions);
+            }
+        };
+    }
+
+    /**
+     * Copy the row into an existing Student (used to reuse one object while streaming).
+     */
+    public Student fill(Student student, ResultSet rs, int[] positions) throws SQLException {
+        if (positions[ID] > 0) {
+            student.setId(rs.getInt(positions[ID]));
+        }
+        if (positions[STUDENT_CODE] > 0) {
+            student.setStudentCode(rs.getString(positions[STUDENT_CODE]));
+        }
+        if (positions[FULL_NAME] > 0) {
+            student.setFullName(rs.getString(positions[FULL_NAME]));
+        }
+        if (positions[EMAIL] > 0) {
+            student.setEmail(rs.getString(positions[EMAIL]));
+        }
+        if (positions[MAJOR] > 0) {
+            student.setMajor(rs.getString(positions[MAJOR]));
+        }
+        if (positions[CREATED_AT] > 0) {
+            student.setCreatedAt(rs.getTimestamp(positions[CREATED_AT]));
+        }
+        return student;
+    }
+}
@@ -0,0 +1,205 @@
+package com.student.dao;
+
+import com.student.model.Student;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Maintains the student_search_tokens side table (see sql/search_schema.sql).
+ * Every word of full_name and email is stored lowercased and without accents,
+ * so "nguyen", "Nguyễn" and "NGUYEN" all hit the same index entry.
+ */
+public class StudentSearchIndex {
+
+    private static final String SQL_DELETE_TOKENS =
+            "DELETE FROM student_search_tokens WHERE student_id = ?";
+
+    private static final String SQL_INSERT_TOKEN =
+            "INSERT INTO student_search_tokens (token, student_id) VALUES (?, ?)";
+
+    // Longest token stored; matches the column size in search_schema.sql
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    // null = not checked yet
+    private static volatile Boolean available;
+
+    /**
+     * Check (once) whether the search schema has been installed.
+     * When it is missing, StudentDAO falls back to the LIKE '%kw%' search.
+     * Other failures (timeouts, lost connections, a full bulkhead) only answer false for
+     * this call; the next call checks again.
+     */
+    public boolean isAvailable(Connection conn) {
+        Boolean result = available;
+        if (result == null) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeQuery("SELECT full_name_lc FROM students WHERE 1 = 0").close();
+                stmt.executeQuery("SELECT token FROM student_search_tokens WHERE 1 = 0").close();
+                result = true;
+            } catch (SQLException e) {
+                if (!isMissingSchema(e)) {
+                    System.out.println("Could not check the search schema, using LIKE search: " + e.getMessage());
+                    return false;
+                }
+                System.out.println("Search schema not installed, using LIKE search: " + e.getMessage());
+                result = false;
+            }
+            available = result;
+        }
+        return result;
+    }
+
+    // 42S02 = table not found, 42S22 = column not found (MySQL and H2)
+    private static boolean isMissingSchema(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("42S");
+    }
+
+    /**
+     * Replace the tokens of one student. Runs on the caller's connection/transaction.
+     */
+    public void index(Connection conn, int studentId, Student student) throws SQLException {
+        remove(conn, studentId);
+
+        Set<String> tokens = tokenize(student);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT_TOKEN)) {
+            for (String token : tokens) {
+                pstmt.setString(1, token);
+                pstmt.setInt(2, studentId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Add the tokens of newly inserted students (ids already set) in one batch.
+     */
+    public void indexNew(Connection conn, List<Student> students) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT_TOKEN)) {
+            for (Student student : students) {
+                for (String token : tokenize(student)) {
+                    pstmt.setString(1, token);
+                    pstmt.setInt(2, student.getId());
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    public void remove(Connection conn, int studentId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_DELETE_TOKENS)) {
+            pstmt.setInt(1, studentId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Rebuild the whole token table from students (after installing the schema or a bulk load).
+     * @return number of students indexed
+     */
+    public int rebuild(Connection conn, int batchSize) throws SQLException {
+        int count = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try (Statement clear = conn.createStatement()) {
+            clear.executeUpdate("DELETE FROM student_search_tokens");
+        }
+
+        // Separate connection for the read side so the insert batches do not close the cursor
+        try (Connection readConn = DataSourceProvider.getPrimaryReadConnection();
+             Statement read = readConn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             PreparedStatement insert = conn.prepareStatement(SQL_INSERT_TOKEN)) {
+
+            read.setFetchSize(DataSourceProvider.streamingFetchSize(readConn, batchSize));
+            try (ResultSet rs = read.executeQuery("SELECT id, full_name, email FROM students")) {
+                int pending = 0;
+                while (rs.next()) {
+                    Student student = new Student();
+                    student.setFullName(rs.getString("full_name"));
+                    student.setEmail(rs.getString("email"));
+
+                    for (String token : tokenize(student)) {
+                        insert.setString(1, token);
+                        insert.setInt(2, rs.getInt("id"));
+                        insert.addBatch();
+                        pending++;
+                    }
+                    count++;
+
+                    if (pending >= batchSize) {
+                        insert.executeBatch();
+                        conn.commit();
+                        pending = 0;
+                    }
+                }
+                insert.executeBatch();
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return count;
+    }
+
+    /**
+     * Words of the name and email (local part and domain split on . _ - + @).
+     */
+    public static Set<String> tokenize(Student student) {
+        Set<String> tokens = new LinkedHashSet<>();
+        addWords(tokens, student.getFullName());
+        addWords(tokens, student.getEmail());
+        return tokens;
+    }
+
+    /**
+     * Split a search keyword into normalized words.
+     */
+    public static List<String> queryWords(String keyword) {
+        return new ArrayList<>(addWords(new LinkedHashSet<>(), keyword));
+    }
+
+    /**
+     * Lowercase and strip accents ("Nguyễn Văn Đức" -> "nguyen van duc").
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .replace('đ', 'd')
+                .replace('Đ', 'D');
+        return stripped.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> addWords(Set<String> tokens, String text) {
+        if (text == null) {
+            return tokens;
+        }
+        for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                tokens.add(word.length() > MAX_TOKEN_LENGTH ? word.substring(0, MAX_TOKEN_LENGTH) : word);
+            }
+        }
+        return tokens;
+    }
+}
@@ -4,19 +4,16 @@ import com.student.model.User;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.sql.*;
+import java.util.Map;
 
-public class UserDAO {
-
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/student_management";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "khoi";
+public class UserDAO extends BaseDAO {
 
     // SQL Queries
     private static final String SQL_AUTHENTICATE =
             "SELECT * FROM users WHERE username = ? AND is_active = TRUE";
 
     private static final String SQL_UPDATE_LAST_LOGIN =
-            "UPDATE users SET last_login = NOW() WHERE id = ?";
+            "UPDATE users SET last_login = ? WHERE id = ?";
 
     private static final String SQL_GET_BY_ID =
             "SELECT * FROM users WHERE id = ?";
@@ -27,61 +24,66 @@ public class UserDAO {
     private static final String SQL_INSERT =
             "INSERT INTO users (username, password, full_name, role) VALUES (?, ?, ?, ?)";
 
-    // Get database connection
-    private Connection getConnection() throws SQLException {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL Driver not found", e);
-        }
-    }
-
     /**
      * Authenticate user with username and password
      * @return User object if authentication successful, null otherwise
      */
     public User authenticate(String username, String password) {
-        User user = null;
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SQL_AUTHENTICATE)) {
-
-            pstmt.setString(1, username);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    String hashedPassword = rs.getString("password");
-
-                    // Verify password with BCrypt
-                    if (BCrypt.checkpw(password, hashedPassword)) {
-                        user = mapResultSetToUser(rs);
+        // Look the user up first so no pooled connection is held during the slow BCrypt check
+        User user = findActiveUser(username);
+        if (user == null || !BCrypt.checkpw(password, user.getPassword())) {
+            return null;
+        }
 
-                        // Update last login time
-                        updateLastLogin(user.getId());
-                    }
-                }
-            }
+        updateLastLogin(user.getId());
+        return user;
+    }
 
+    /**
+     * Get an active user (with password hash) for login, without checking the password.
+     * LoginController verifies the hash on PasswordHashingService.
+     */
+    public User findActiveUser(String username) {
+        try {
+            return queryForObject(SQL_AUTHENTICATE, StatementBinder.of(username), UserRowMapper.INSTANCE);
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
-
-        return user;
     }
 
     /**
-     * Update user's last login timestamp
+     * Record a login. The last_login column is written later, in batches, by LastLoginWriter.
      */
-    private void updateLastLogin(int userId) {
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE_LAST_LOGIN)) {
+    public void updateLastLogin(int userId) {
+        LastLoginWriter.getInstance().record(userId);
+    }
 
-            pstmt.setInt(1, userId);
-            pstmt.executeUpdate();
+    /**
+     * Write last_login for many users in one batch and transaction.
+     * @return true if the batch was committed
+     */
+    public boolean updateLastLogins(Map<Integer, Timestamp> lastLogins) {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE_LAST_LOGIN)) {
+                for (Map.Entry<Integer, Timestamp> entry : lastLogins.entrySet()) {
+                    pstmt.setTimestamp(1, entry.getValue());
+                    pstmt.setInt(2, entry.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
     }
 
@@ -89,48 +91,24 @@ public class UserDAO {
      * Get user by ID
      */
     public User getUserById(int id) {
-        User user = null;
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SQL_GET_BY_ID)) {
-
-            pstmt.setInt(1, id);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    user = mapResultSetToUser(rs);
-                }
-            }
-
+        try {
+            return queryForObject(SQL_GET_BY_ID, StatementBinder.of(id), UserRowMapper.INSTANCE);
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
-
-        return user;
     }
 
     /**
      * Get user by username
      */
     public User getUserByUsername(String username) {
-        User user = null;
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SQL_GET_BY_USERNAME)) {
-
-            pstmt.setString(1, username);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    user = mapResultSetToUser(rs);
-                }
-            }
-
+        try {
+            return queryForObject(SQL_GET_BY_USERNAME, StatementBinder.of(username), UserRowMapper.INSTANCE);
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
-
-        return user;
     }
 
     /**
@@ -179,22 +157,6 @@ public class UserDAO {
         return true;
     }
 
-    /**
-     * Map ResultSet to User object
-     */
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        User user = new User();
-        user.setId(rs.getInt("id"));
-        user.setUsername(rs.getString("username"));
-        user.setPassword(rs.getString("password"));
-        user.setFullName(rs.getString("full_name"));
-        user.setRole(rs.getString("role"));
-        user.setActive(rs.getBoolean("is_active"));
-        user.setCreatedAt(rs.getTimestamp("created_at"));
-        user.setLastLogin(rs.getTimestamp("last_login"));
-        return user;
-    }
-
     /**
      * Test method - Generate hashed password
      */
@@ -0,0 +1,64 @@
+package com.student.dao;
+
+import com.student.model.User;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps users rows (including the password hash). Columns a query does not select are left unset.
+ */
+public final class UserRowMapper implements RowMapper<User> {
+
+    public static final UserRowMapper INSTANCE = new UserRowMapper();
+
+    private static final Columns COLUMNS = Columns.of(
+            "id", "username", "password", "full_name", "role", "is_active", "created_at", "last_login");
+
+    private static final int ID = 0;
+    private static final int USERNAME = 1;
+    private static final int PASSWORD = 2;
+    private static final int FULL_NAME = 3;
+    private static final int ROLE = 4;
+    private static final int IS_ACTIVE = 5;
+    private static final int CREATED_AT = 6;
+    private static final int LAST_LOGIN = 7;
+
+    private UserRowMapper() {
+    }
+
+    @Override
+    public Columns columns() {
+        return COLUMNS;
+    }
+
+    @Override
+    public User mapRow(ResultSet rs, int[] positions) throws SQLException {
+        User user = new User();
+        if (positions[ID] > 0) {
+            user.setId(rs.getInt(positions[ID]));
+        }
+        if (positions[USERNAME] > 0) {
+            user.setUsername(rs.getString(positions[USERNAME]));
+        }
+        if (positions[PASSWORD] > 0) {
+            user.setPassword(rs.getString(positions[PASSWORD]));
+        }
+        if (positions[FULL_NAME] > 0) {
+            user.setFullName(rs.getString(positions[FULL_NAME]));
+        }
+        if (positions[ROLE] > 0) {
+            user.setRole(rs.getString(positions[ROLE]));
+        }
+        if (positions[IS_ACTIVE] > 0) {
+            user.setActive(rs.getBoolean(positions[IS_ACTIVE]));
+        }
+        if (positions[CREATED_AT] > 0) {
+            user.setCreatedAt(rs.getTimestamp(positions[CREATED_AT]));
+        }
+        if (positions[LAST_LOGIN] > 0) {
+            user.setLastLogin(rs.getTimestamp(positions[LAST_LOGIN]));
+        }
+        return user;
+    }
+}
@@ -0,0 +1,173 @@
+package com.student.export;
+
+import com.student.dao.RowCallback;
+import com.student.model.Student;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes students as CSV or NDJSON (one JSON object per line) while they are streamed
+ * from the database. Output goes through a fixed size buffer and is flushed every
+ * FLUSH_EVERY rows, so the client starts receiving data immediately.
+ */
+public class StudentExportWriter implements RowCallback<Student> {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Parse the "format" request parameter, CSV by default.
+         */
+        public static Format fromParam(String value) {
+            if ("ndjson".equalsIgnoreCase(value) || "json".equalsIgnoreCase(value)) {
+                return NDJSON;
+            }
+            return CSV;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_EVERY = 1000;
+
+    private final Writer out;
+    private final Format format;
+    private long rows;
+
+    public StudentExportWriter(OutputStream stream, Format format) {
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.format = format;
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == Format.CSV) {
+            out.write("id,student_code,full_name,email,major,created_at\r\n");
+        }
+    }
+
+    @Override
+    public void process(Student student) throws IOException {
+        if (format == Format.CSV) {
+            writeCsvRow(student);
+        } else {
+            writeJsonRow(student);
+        }
+
+        rows++;
+        if (rows % FLUSH_EVERY == 0) {
+            out.flush();
+        }
+    }
+
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    private void writeCsvRow(Student student) throws IOException {
+        out.write(Integer.toString(student.getId()));
+        out.write(',');
+        writeCsvField(student.getStudentCode());
+        out.write(',');
+        writeCsvField(student.getFullName());
+        out.write(',');
+        writeCsvField(student.getEmail());
+        out.write(',');
+        writeCsvField(student.getMajor());
+        out.write(',');
+        writeCsvField(student.getCreatedAt() == null ? null : student.getCreatedAt().toString());
+        out.write("\r\n");
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private void writeJsonRow(Student student) throws IOException {
+        out.write("{\"id\":");
+        out.write(Integer.toString(student.getId()));
+        out.write(",\"studentCode\":");
+        writeJsonString(student.getStudentCode());
+        out.write(",\"fullName\":");
+        writeJsonString(student.getFullName());
+        out.write(",\"email\":");
+        writeJsonString(student.getEmail());
+        out.write(",\"major\":");
+        writeJsonString(student.getMajor());
+        out.write(",\"createdAt\":");
+        writeJsonString(student.getCreatedAt() == null ? null : student.getCreatedAt().toString());
+        out.write("}\n");
+    }
+
+    private void writeJsonString(String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                    break;
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,75 @@
+package com.student.listener;
+
+import com.student.config.AppSettings;
+import com.student.controller.AsyncRequestExecutor;
+import com.student.dao.DataSourceProvider;
+import com.student.dao.DatabaseGuard;
+import com.student.dao.LastLoginWriter;
+import com.student.dao.StudentAutocomplete;
+import com.student.dao.StudentBitmapIndex;
+import com.student.dao.StudentColumnStore;
+import com.student.dao.StudentCounters;
+import com.student.dao.StudentKeyFilter;
+import com.student.service.PasswordHashingService;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import java.util.Enumeration;
+import java.util.Properties;
+
+/**
+ * Loads the context params from web.xml into AppSettings on startup
+ * and stops background work and closes the connection pool when the application is undeployed.
+ */
+@WebListener
+public class AppContextListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        ServletContext context = sce.getServletContext();
+        Properties props = new Properties();
+
+        Enumeration<String> names = context.getInitParameterNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            props.setProperty(name, context.getInitParameter(name));
+        }
+
+        AppSettings.load(props);
+
+        // Suggestions are built in the background; /autocomplete answers empty until then
+        if (StudentAutocomplete.isEnabled()) {
+            StudentAutocomplete.getInstance().rebuildAsync();
+        }
+        // Filter and sort pages use SQL until the bitmaps are built
+        if (StudentBitmapIndex.isEnabled()) {
+            StudentBitmapIndex.getInstance().rebuildAsync();
+        }
+        // Optional in-memory replica for lists and searches; the database answers until it is loaded
+        if (StudentColumnStore.isEnabled()) {
+            StudentColumnStore.getInstance().reloadAsync();
+        }
+        // Until the uniqueness filters are built every code and email is checked with a query
+        if (StudentKeyFilter.isEnabled()) {
+            StudentKeyFilter.getInstance().rebuildAsync();
+        }
+        System.out.println("AppContextListener initialized");
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        AsyncRequestExecutor.getInstance().shutdown();
+        PasswordHashingService.getInstance().shutdown();
+        StudentCounters.getInstance().shutdown();
+        StudentAutocomplete.getInstance().shutdown();
+        StudentKeyFilter.getInstance().shutdown();
+        StudentBitmapIndex.getInstance().shutdown();
+        StudentColumnStore.getInstance().shutdown();
+        LastLoginWriter.getInstance().shutdown(); // drains pending writes, so before the pool closes
+        DataSourceProvider.shutdown();
+        DatabaseGuard.getInstance().shutdown();
+        System.out.println("AppContextListener destroyed");
+    }
+}
@@ -0,0 +1,24 @@
+package com.student.listener;
+
+import com.student.service.SessionInspector;
+
+import jakarta.servlet.annotation.WebListener;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+
+/**
+ * Keeps SessionInspector's list of live sessions up to date (GET /admin/sessions).
+ */
+@WebListener
+public class SessionTrackingListener implements HttpSessionListener {
+
+    @Override
+    public void sessionCreated(HttpSessionEvent se) {
+        SessionInspector.getInstance().sessionCreated(se.getSession());
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent se) {
+        SessionInspector.getInstance().sessionDestroyed(se.getSession());
+    }
+}
@@ -0,0 +1,264 @@
+package com.student.metrics;
+
+import com.student.config.AppSettings;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Request and SQL statement metrics since startup, written in the Prometheus text format
+ * by AdminMetricsController (GET /admin/metrics).
+ *
+ * Requests are keyed by servlet mapping and action (e.g. "/student" + "search"), statements
+ * by their SQL text. Both key sets are bounded by metrics.maxSeries; anything past that is
+ * counted under "other" so a stream of odd URLs or generated SQL cannot grow the map.
+ */
+public final class Metrics {
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private static final String OTHER = "other";
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    private static final int MAX_SQL_LABEL = 200;
+
+    private final Map<RequestKey, RequestSeries> requests = new ConcurrentHashMap<>();
+    private final Map<String, StatementSeries> statements = new ConcurrentHashMap<>();
+
+    // Response compression (CompressionFilter)
+    private final LongAdder compressedResponses = new LongAdder();
+    private final Map<String, LongAdder> uncompressedResponses = new ConcurrentHashMap<>();
+    private final LongAdder compressionInputBytes = new LongAdder();
+    private final LongAdder compressionOutputBytes = new LongAdder();
+    private final LatencyHistogram compressionCpu = new LatencyHistogram();
+
+    private Metrics() {
+    }
+
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return AppSettings.getBoolean("metrics.enabled", true);
+    }
+
+    /**
+     * A request started. Pass the returned series to requestFinished().
+     */
+    public RequestSeries requestStarted(String path, String action) {
+        RequestSeries series = series(requests, new RequestKey(path, action),
+                key -> new RequestSeries(), new RequestKey(OTHER, ""));
+        series.inFlight.incrementAndGet();
+        return series;
+    }
+
+    public void requestFinished(RequestSeries series, RequestSample sample, boolean error) {
+        series.inFlight.decrementAndGet();
+        series.latency.recordNanos(System.nanoTime() - sample.getStartNanos());
+        series.dbTime.recordNanos(sample.getDbNanos());
+        series.statements.add(sample.getStatements());
+        series.rows.add(sample.getRows());
+        if (error) {
+            series.errors.increment();
+        }
+    }
+
+    /**
+     * @param rows rows read from the statement's result sets
+     */
+    public void statementExecuted(String sql, long nanos, boolean error, long rows) {
+        StatementSeries series = series(statements, sql, key -> new StatementSeries(), OTHER);
+        series.latency.recordNanos(nanos);
+        series.rows.add(rows);
+        if (error) {
+            series.errors.increment();
+        }
+
+        RequestSample sample = RequestSample.current();
+        if (sample != null) {
+            sample.addStatement(nanos, rows);
+        }
+    }
+
+    /**
+     * A response was gzipped: body bytes before and after, CPU time spent deflating.
+     */
+    public void responseCompressed(long inputBytes, long outputBytes, long cpuNanos) {
+        compressedResponses.increment();
+        compressionInputBytes.add(inputBytes);
+        compressionOutputBytes.add(outputBytes);
+        compressionCpu.recordNanos(cpuNanos);
+    }
+
+    /**
+     * A response the client would have accepted gzipped went out as is.
+     * @param reason a fixed label: "small", "type", "error" or "async"
+     */
+    public void responseNotCompressed(String reason) {
+        uncompressedResponses.computeIfAbsent(reason, k -> new LongAdder()).increment();
+    }
+
+    public void writePrometheus(Writer out) throws IOException {
+        Map<String, RequestSeries> byRequest = new TreeMap<>();
+        requests.forEach((key, series) ->
+                byRequest.put("path=\"" + escape(key.path) + "\",action=\"" + escape(key.action) + "\"", series));
+        Map<String, StatementSeries> byStatement = new TreeMap<>();
+        statements.forEach((sql, series) -> byStatement.put("sql=\"" + escape(sqlLabel(sql)) + "\"", series));
+
+        header(out, "student_http_requests_in_flight", "gauge", "Requests being processed");
+        for (Map.Entry<String, RequestSeries> entry : byRequest.entrySet()) {
+            sample(out, "student_http_requests_in_flight", entry.getKey(), entry.getValue().inFlight.get());
+        }
+        header(out, "student_http_request_duration_seconds", "summary", "Request latency");
+        for (Map.Entry<String, RequestSeries> entry : byRequest.entrySet()) {
+            summary(out, "student_http_request_duration_seconds", entry.getKey(), entry.getValue().latency);
+        }
+        header(out, "student_http_request_duration_seconds_max", "gauge", "Slowest request");
+        for (Map.Entry<String, RequestSeries> entry : byRequest.entrySet()) {
+            sample(out, "student_http_request_duration_seconds_max", entry.getKey(), entry.getValue().latency.getMaxSeconds());
+        }
+        header(out, "student_http_request_errors_total", "counter", "Requests that threw or answered 5xx");
+        for (Map.Entry<String, RequestSeries> entry : byRequest.entrySet()) {
+            sample(out, "student_http_request_errors_total", entry.getKey(), entry.getValue().errors.sum());
+        }
+        header(out, "student_http_request_db_seconds", "summary", "Database time per request");
+        for (Map.Entry<String, RequestSeries> entry : byRequest.entrySet()) {
+            summary(out, "student_http_request_db_seconds", entry.getKey(), entry.getValue().dbTime);
+        }
+        header(out, "student_http_request_db_statements_total", "counter", "SQL statements run by requests");
+        for (Map.Entry<String, RequestSeries> entry : byRequest.entrySet()) {
+            sample(out, "student_http_request_db_statements_total", entry.getKey(), entry.getValue().statements.sum());
+        }
+        header(out, "student_http_request_db_rows_total", "counter", "Rows read by the SQL statements of requests");
+        for (Map.Entry<String, RequestSeries> entry : byRequest.entrySet()) {
+            sample(out, "student_http_request_db_rows_total", entry.getKey(), entry.getValue().rows.sum());
+        }
+
+        header(out, "student_http_compressed_responses_total", "counter", "Responses sent gzipped");
+        sample(out, "student_http_compressed_responses_total", "", compressedResponses.sum());
+        header(out, "student_http_uncompressed_responses_total", "counter", "Responses to gzip clients sent as is, by reason");
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(uncompressedResponses).entrySet()) {
+            sample(out, "student_http_uncompressed_responses_total", "reason=\"" + entry.getKey() + "\"", entry.getValue().sum());
+        }
+        long compressionIn = compressionInputBytes.sum();
+        long compressionOut = compressionOutputBytes.sum();
+        header(out, "student_http_compression_input_bytes_total", "counter", "Body bytes before gzip");
+        sample(out, "student_http_compression_input_bytes_total", "", compressionIn);
+        header(out, "student_http_compression_output_bytes_total", "counter", "Body bytes after gzip");
+        sample(out, "student_http_compression_output_bytes_total", "", compressionOut);
+        header(out, "student_http_compression_ratio", "gauge", "Body bytes before gzip per byte after, since startup");
+        sample(out, "student_http_compression_ratio", "", compressionOut == 0 ? 0.0 : (double) compressionIn / compressionOut);
+        header(out, "student_http_compression_cpu_seconds", "summary", "CPU time spent deflating per response");
+        summary(out, "student_http_compression_cpu_seconds", "", compressionCpu);
+
+        header(out, "student_db_statement_duration_seconds", "summary", "SQL statement time, execute to close");
+        for (Map.Entry<String, StatementSeries> entry : byStatement.entrySet()) {
+            summary(out, "student_db_statement_duration_seconds", entry.getKey(), entry.getValue().latency);
+        }
+        header(out, "student_db_statement_duration_seconds_max", "gauge", "Slowest SQL statement");
+        for (Map.Entry<String, StatementSeries> entry : byStatement.entrySet()) {
+            sample(out, "student_db_statement_duration_seconds_max", entry.getKey(), entry.getValue().latency.getMaxSeconds());
+        }
+        header(out, "student_db_statement_errors_total", "counter", "SQL statements that failed");
+        for (Map.Entry<String, StatementSeries> entry : byStatement.entrySet()) {
+            sample(out, "student_db_statement_errors_total", entry.getKey(), entry.getValue().errors.sum());
+        }
+        header(out, "student_db_statement_rows_total", "counter", "Rows read from SQL statement results");
+        for (Map.Entry<String, StatementSeries> entry : byStatement.entrySet()) {
+            sample(out, "student_db_statement_rows_total", entry.getKey(), entry.getValue().rows.sum());
+        }
+        header(out, "student_db_slow_statements_total", "counter", "SQL statements over db.slowQueryMs (see SlowQueryLog)");
+        sample(out, "student_db_slow_statements_total", "", SlowQueryLog.getInstance().getLogged());
+    }
+
+    private static <K, V> V series(Map<K, V> map, K key, Function<K, V> factory, K overflowKey) {
+        V series = map.get(key);
+        if (series != null) {
+            return series;
+        }
+        if (map.size() >= AppSettings.getInt("metrics.maxSeries", 500)) {
+            return map.computeIfAbsent(overflowKey, factory);
+        }
+        return map.computeIfAbsent(key, factory);
+    }
+
+    private static void header(Writer out, String name, String type, String help) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static void summary(Writer out, String name, String labels, LatencyHistogram histogram) throws IOException {
+        String separator = labels.isEmpty() ? "" : ",";
+        for (double quantile : QUANTILES) {
+            sample(out, name, labels + separator + "quantile=\"" + quantile + "\"", histogram.getQuantileSeconds(quantile));
+        }
+        sample(out, name + "_sum", labels, histogram.getSumSeconds());
+        sample(out, name + "_count", labels, histogram.getCount());
+    }
+
+    private static void sample(Writer out, String name, String labels, double value) throws IOException {
+        out.write(name + (labels.isEmpty() ? "" : "{" + labels + "}") + " " + value + "\n");
+    }
+
+    private static void sample(Writer out, String name, String labels, long value) throws IOException {
+        out.write(name + (labels.isEmpty() ? "" : "{" + labels + "}") + " " + value + "\n");
+    }
+
+    // One line, at most MAX_SQL_LABEL characters
+    private static String sqlLabel(String sql) {
+        String label = sql.replaceAll("\\s+", " ").trim();
+        return label.length() > MAX_SQL_LABEL ? label.substring(0, MAX_SQL_LABEL) + "..." : label;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class RequestKey {
+        final String path;
+        final String action;
+
+        RequestKey(String path, String action) {
+            this.path = path;
+            this.action = action;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RequestKey)) {
+                return false;
+            }
+            RequestKey other = (RequestKey) o;
+            return path.equals(other.path) && action.equals(other.action);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode() * 31 + action.hashCode();
+        }
+    }
+
+    /**
+     * Counters of one path + action.
+     */
+    public static final class RequestSeries {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram dbTime = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+    }
+
+    private static final class StatementSeries {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+    }
+}
@@ -0,0 +1,95 @@
+package com.student.metrics;
+
+import jakarta.servlet.ServletRequest;
+
+/**
+ * Database work of one HTTP request, added up by TimedConnection: statements, their time,
+ * the rows they read and the connections taken.
+ *
+ * RequestMetricsFilter creates it and binds it to the request thread; code that moves
+ * the request to another thread (AsyncRequestExecutor) binds it there with bind().
+ */
+public final class RequestSample {
+
+    private static final String ATTRIBUTE = RequestSample.class.getName();
+
+    private static final ThreadLocal<RequestSample> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private long dbNanos;
+    private int statements;
+    private long rows;
+    private int connections;
+
+    /**
+     * Start measuring a request and keep the sample as a request attribute.
+     */
+    public static RequestSample start(ServletRequest request) {
+        RequestSample sample = new RequestSample();
+        request.setAttribute(ATTRIBUTE, sample);
+        return sample;
+    }
+
+    private RequestSample() {
+    }
+
+    /**
+     * @return the sample bound to this thread, or null outside a measured request
+     */
+    public static RequestSample current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the sample of this request, or null if it is not measured
+     */
+    public static RequestSample of(ServletRequest request) {
+        Object sample = request.getAttribute(ATTRIBUTE);
+        return sample instanceof RequestSample ? (RequestSample) sample : null;
+    }
+
+    /**
+     * Bind a sample (may be null) to this thread.
+     * @return the previous one, to pass back to bind() when done
+     */
+    public static RequestSample bind(RequestSample sample) {
+        RequestSample previous = CURRENT.get();
+        if (sample == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(sample);
+        }
+        return previous;
+    }
+
+    // A request runs on one thread at a time, but that thread may change (async)
+    synchronized void addStatement(long nanos, long rows) {
+        dbNanos += nanos;
+        statements++;
+        this.rows += rows;
+    }
+
+    synchronized void addConnection() {
+        connections++;
+    }
+
+    public synchronized long getDbNanos() {
+        return dbNanos;
+    }
+
+    public synchronized int getStatements() {
+        return statements;
+    }
+
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    public synchronized int getConnections() {
+        return connections;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+}
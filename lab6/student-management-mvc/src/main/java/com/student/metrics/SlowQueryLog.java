@@ -0,0 +1,85 @@
+package com.student.metrics;
+
+import com.student.config.AppSettings;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs SQL statements that took longer than db.slowQueryMs (execute to close, like Metrics),
+ * with their row and bind counts. Bound values are never written, only their types
+ * ("?1=String"), so names, emails and password hashes stay out of the log.
+ * db.slowQueryMs = 0 turns the log off.
+ */
+public final class SlowQueryLog {
+
+    private static final SlowQueryLog INSTANCE = new SlowQueryLog();
+
+    private static final int MAX_SQL_LENGTH = 500;
+
+    private final LongAdder logged = new LongAdder();
+    private volatile long thresholdNanos = -1;
+
+    private SlowQueryLog() {
+    }
+
+    public static SlowQueryLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the threshold, or 0 when the log is off
+     */
+    public long getThresholdNanos() {
+        long threshold = thresholdNanos;
+        if (threshold < 0) {
+            threshold = TimeUnit.MILLISECONDS.toNanos(Math.max(0, AppSettings.getLong("db.slowQueryMs", 200)));
+            thresholdNanos = threshold;
+        }
+        return threshold;
+    }
+
+    public long getLogged() {
+        return logged.sum();
+    }
+
+    /**
+     * @param parameterTypes type of each bound parameter by index (index 0 unused), null if never set
+     */
+    void statementFinished(String sql, long nanos, boolean failed, long rows, int binds,
+                           int batches, List<String> parameterTypes) {
+        long threshold = getThresholdNanos();
+        if (threshold == 0 || nanos < threshold) {
+            return;
+        }
+        logged.increment();
+
+        StringBuilder line = new StringBuilder("Slow SQL ")
+                .append(TimeUnit.NANOSECONDS.toMillis(nanos)).append("ms")
+                .append(failed ? " (failed)" : "")
+                .append(", rows=").append(rows)
+                .append(", binds=").append(binds);
+        if (batches > 0) {
+            line.append(", batches=").append(batches);
+        }
+        line.append(": ").append(oneLine(sql));
+        if (parameterTypes != null && parameterTypes.size() > 1) {
+            line.append(" [");
+            for (int i = 1; i < parameterTypes.size(); i++) {
+                line.append(i > 1 ? ", " : "").append('?').append(i).append('=')
+                        .append(parameterTypes.get(i) == null ? "unset" : parameterTypes.get(i));
+            }
+            line.append(']');
+        }
+        System.out.println(line);
+    }
+
+    private static String oneLine(String sql) {
+        if (sql == null) {
+            return "?";
+        }
+        String line = sql.replaceAll("\\s+", " ").trim();
+        return line.length() > MAX_SQL_LENGTH ? line.substring(0, MAX_SQL_LENGTH) + "..." : line;
+    }
+}
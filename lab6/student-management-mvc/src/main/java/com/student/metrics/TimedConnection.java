@@ -0,0 +1,171 @@
+package com.student.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps a JDBC connection so every statement it creates reports to Metrics:
+ * time from the first execute to close() (so reading the result set is included), keyed by SQL,
+ * and the rows read from its result sets. Statements slower than db.slowQueryMs also go to
+ * SlowQueryLog, with their bind count and the types of the bound values.
+ * Works for the DAOs' own PreparedStatement code as well as the BaseDAO helpers.
+ * Each wrapped connection counts as one in the current RequestSample.
+ */
+public final class TimedConnection implements InvocationHandler {
+
+    private final Connection target;
+
+    private TimedConnection(Connection target) {
+        this.target = target;
+    }
+
+    public static Connection wrap(Connection connection) {
+        RequestSample sample = RequestSample.current();
+        if (sample != null) {
+            sample.addConnection();
+        }
+        return (Connection) Proxy.newProxyInstance(TimedConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new TimedConnection(connection));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = call(target, method, args);
+        String name = method.getName();
+
+        if (result instanceof CallableStatement && "prepareCall".equals(name)) {
+            return TimedStatement.wrap((Statement) result, CallableStatement.class, (String) args[0]);
+        }
+        if (result instanceof PreparedStatement && "prepareStatement".equals(name)) {
+            return TimedStatement.wrap((Statement) result, PreparedStatement.class, (String) args[0]);
+        }
+        if (result instanceof Statement && "createStatement".equals(name)) {
+            return TimedStatement.wrap((Statement) result, Statement.class, null);
+        }
+        return result;
+    }
+
+    static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class TimedStatement implements InvocationHandler {
+
+        private final Statement target;
+        private final boolean plain;
+        private String sql;
+        private long startNanos;
+        private boolean failed;
+        private long rows;
+        private int binds;
+        private int batches;
+        // Type of each bound parameter by index, for the slow query log (never the values)
+        private final List<String> parameterTypes = new ArrayList<>();
+
+        private TimedStatement(Statement target, String sql) {
+            this.target = target;
+            this.plain = sql == null;
+            this.sql = sql;
+        }
+
+        static Statement wrap(Statement statement, Class<? extends Statement> type, String sql) {
+            return (Statement) Proxy.newProxyInstance(TimedConnection.class.getClassLoader(),
+                    new Class<?>[]{type}, new TimedStatement(statement, sql));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                finish();
+                return call(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                if (name.startsWith("set") && method.getDeclaringClass() != Statement.class) {
+                    parameterSet(name, args);
+                } else if ("addBatch".equals(name)) {
+                    batches++;
+                } else if ("clearParameters".equals(name)) {
+                    parameterTypes.clear();
+                }
+                Object result = call(target, method, args);
+                return "getResultSet".equals(name) && result != null ? countRows((ResultSet) result) : result;
+            }
+
+            // Re-executing a statement: the previous run ends here
+            finish();
+            // Plain Statement: the SQL comes with execute
+            if (plain && args != null && args.length > 0 && args[0] instanceof String) {
+                sql = (String) args[0];
+            }
+            startNanos = System.nanoTime();
+            try {
+                Object result = call(target, method, args);
+                return result instanceof ResultSet ? countRows((ResultSet) result) : result;
+            } catch (Throwable e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        // setString(1, ...), setObject(2, ...), setNull(3, ...) and the CallableStatement named ones
+        private void parameterSet(String name, Object[] args) {
+            binds++;
+            if (args == null || args.length == 0 || !(args[0] instanceof Integer)) {
+                return;
+            }
+            String type;
+            if ("setNull".equals(name) || args.length > 1 && args[1] == null) {
+                type = "null";
+            } else if ("setObject".equals(name)) {
+                type = args[1].getClass().getSimpleName();
+            } else {
+                type = name.substring(3);
+            }
+            int index = (Integer) args[0];
+            if (index > 0 && index < 1000) {
+                while (parameterTypes.size() <= index) {
+                    parameterTypes.add(null);
+                }
+                parameterTypes.set(index, type);
+            }
+        }
+
+        private ResultSet countRows(ResultSet resultSet) {
+            return (ResultSet) Proxy.newProxyInstance(TimedConnection.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        Object result = call(resultSet, method, args);
+                        if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                            rows++;
+                        }
+                        return result;
+                    });
+        }
+
+        private void finish() {
+            if (startNanos != 0) {
+                long nanos = System.nanoTime() - startNanos;
+                Metrics.getInstance().statementExecuted(sql == null ? "?" : sql, nanos, failed, rows);
+                SlowQueryLog.getInstance().statementFinished(sql, nanos, failed, rows, binds, batches, parameterTypes);
+                startNanos = 0;
+                failed = false;
+                rows = 0;
+                binds = 0;
+                batches = 0;
+            }
+        }
+    }
+}
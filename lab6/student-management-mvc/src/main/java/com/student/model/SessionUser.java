@@ -0,0 +1,91 @@
+package com.student.model;
+
+import jakarta.servlet.http.HttpSession;
+import java.io.Serializable;
+
+/**
+ * What the session keeps about the logged-in user, instead of the whole User
+ * (no password hash, no timestamps).
+ *
+ * Roles are bit flags and the names are interned, so thousands of sessions of the
+ * same user share one String and a replicated session is a few dozen bytes.
+ * Stored under ATTRIBUTE by LoginController; read with from(session).
+ */
+public final class SessionUser implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ATTRIBUTE = "user";
+
+    public static final int ROLE_USER = 1;
+    public static final int ROLE_ADMIN = 1 << 1;
+
+    private final int id;
+    private final int roles;
+    private final String username;
+    private final String fullName;
+
+    public SessionUser(int id, int roles, String username, String fullName) {
+        this.id = id;
+        this.roles = roles;
+        this.username = username == null ? null : username.intern();
+        this.fullName = fullName == null ? null : fullName.intern();
+    }
+
+    public static SessionUser of(User user) {
+        int roles = user.isAdmin() ? ROLE_ADMIN : user.isUser() ? ROLE_USER : 0;
+        return new SessionUser(user.getId(), roles, user.getUsername(), user.getFullName());
+    }
+
+    /**
+     * @return the logged-in user of this session, or null (no session or not logged in)
+     */
+    public static SessionUser from(HttpSession session) {
+        if (session == null) {
+            return null;
+        }
+        Object value = session.getAttribute(ATTRIBUTE);
+        return value instanceof SessionUser ? (SessionUser) value : null;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    /**
+     * @return "admin" or "user", as in the users.role column
+     */
+    public String getRole() {
+        return isAdmin() ? "admin" : isUser() ? "user" : "";
+    }
+
+    public boolean isAdmin() {
+        return (roles & ROLE_ADMIN) != 0;
+    }
+
+    public boolean isUser() {
+        return (roles & ROLE_USER) != 0;
+    }
+
+    // Deserialized copies (session restore, replication) share the interned names again
+    private Object readResolve() {
+        return new SessionUser(id, roles, username, fullName);
+    }
+
+    @Override
+    public String toString() {
+        return "SessionUser{" +
+                "id=" + id +
+                ", username='" + username + '\'' +
+                ", role='" + getRole() + '\'' +
+                '}';
+    }
+}
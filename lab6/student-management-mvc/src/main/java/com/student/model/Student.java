@@ -22,6 +22,16 @@ public class Student {
         this.major = major;
     }
 
+    // Copy constructor (used by the cache so callers never share an instance)
+    public Student(Student other) {
+        this.id = other.id;
+        this.studentCode = other.studentCode;
+        this.fullName = other.fullName;
+        this.email = other.email;
+        this.major = other.major;
+        this.createdAt = other.createdAt;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
@@ -0,0 +1,170 @@
+package com.student.service;
+
+import com.student.config.AppSettings;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt verification on a small dedicated pool instead of Tomcat worker threads.
+ * A login burst can then only use login.hashThreads cores; other pages keep their threads.
+ *
+ * The queue is bounded (login.hashQueue, default 16 per thread). When it is full, verify()
+ * throws RejectedExecutionException right away so the caller can answer 503 instead of waiting.
+ * A check that waited longer than login.maxQueueWaitMs is dropped without hashing (the
+ * client has most likely given up) and completes with RejectedExecutionException too.
+ * One client may also have at most login.maxPendingPerClient checks in flight
+ * (tryAdmit/release), so a single bot cannot fill the whole queue (429).
+ */
+public final class PasswordHashingService {
+
+    private static final PasswordHashingService INSTANCE = new PasswordHashingService();
+
+    private volatile ThreadPoolExecutor executor;
+
+    private final Map<String, Integer> pendingByClient = new ConcurrentHashMap<>();
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    private PasswordHashingService() {
+    }
+
+    public static PasswordHashingService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Reserve a hashing slot for one client (remote address).
+     * @return false if that client already has login.maxPendingPerClient checks pending
+     */
+    public boolean tryAdmit(String client) {
+        int limit = AppSettings.getInt("login.maxPendingPerClient", 4);
+        boolean[] admitted = new boolean[1];
+        pendingByClient.compute(client, (k, pending) -> {
+            int current = pending == null ? 0 : pending;
+            if (current >= limit) {
+                return pending;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        if (!admitted[0]) {
+            throttled.increment();
+        }
+        return admitted[0];
+    }
+
+    public void release(String client) {
+        // Drop the entry at zero so the map only holds clients with pending checks
+        pendingByClient.computeIfPresent(client, (k, pending) -> pending <= 1 ? null : pending - 1);
+    }
+
+    /**
+     * Check a password against a BCrypt hash on the hashing pool.
+     * @throws RejectedExecutionException if the queue is full (caller should shed load)
+     */
+    public CompletableFuture<Boolean> verify(String plainPassword, String hashedPassword) {
+        ThreadPoolExecutor pool = executor();
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(AppSettings.getLong("login.maxQueueWaitMs", 5000));
+        long submitted = System.nanoTime();
+
+        CompletableFuture<Boolean> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                if (start - submitted > maxWaitNanos) {
+                    expired.increment();
+                    throw new RejectedExecutionException("Waited too long for a hashing thread");
+                }
+                queueWaitNanos.add(start - submitted);
+                try {
+                    return hashedPassword != null && BCrypt.checkpw(plainPassword, hashedPassword);
+                } catch (IllegalArgumentException e) {
+                    return false; // not a BCrypt hash
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                    completed.increment();
+                }
+            }, pool);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+
+        maxQueueDepth.accumulateAndGet(pool.getQueue().size(), Math::max);
+        return future;
+    }
+
+    public Map<String, Object> getStats() {
+        ThreadPoolExecutor pool = executor();
+        long done = completed.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", pool.getMaximumPoolSize());
+        stats.put("active", pool.getActiveCount());
+        stats.put("queueDepth", pool.getQueue().size());
+        stats.put("queueCapacity", pool.getQueue().size() + pool.getQueue().remainingCapacity());
+        stats.put("maxQueueDepth", maxQueueDepth.get());
+        stats.put("completed", done);
+        stats.put("rejected", rejected.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("expired", expired.sum());
+        stats.put("pendingClients", pendingByClient.size());
+        stats.put("averageHashMillis", done == 0 ? 0.0 : hashNanos.sum() / 1e6 / done);
+        stats.put("maxHashMillis", maxHashNanos.get() / 1e6);
+        stats.put("averageQueueWaitMillis", done == 0 ? 0.0 : queueWaitNanos.sum() / 1e6 / done);
+        return stats;
+    }
+
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    // Built lazily so the settings from web.xml are loaded first
+    private ThreadPoolExecutor executor() {
+        ThreadPoolExecutor pool = executor;
+        if (pool == null) {
+            synchronized (this) {
+                pool = executor;
+                if (pool == null) {
+                    int threads = AppSettings.getInt("login.hashThreads", Runtime.getRuntime().availableProcessors());
+                    int queue = AppSettings.getInt("login.hashQueue", threads * 16);
+                    AtomicInteger counter = new AtomicInteger();
+
+                    pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(Math.max(1, queue)),
+                            r -> {
+                                Thread thread = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            },
+                            new ThreadPoolExecutor.AbortPolicy());
+                    executor = pool;
+                }
+            }
+        }
+        return pool;
+    }
+}
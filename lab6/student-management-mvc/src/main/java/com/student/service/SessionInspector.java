@@ -0,0 +1,137 @@
+package com.student.service;
+
+import com.student.config.AppSettings;
+
+import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures how much the live sessions weigh: the serialized size of every session
+ * attribute, which is what a session store or replication has to write per session.
+ *
+ * Sessions are registered by SessionTrackingListener. inspect() looks at no more than
+ * session.inspect.maxSessions of them, since serializing is not free.
+ */
+public final class SessionInspector {
+
+    private static final SessionInspector INSTANCE = new SessionInspector();
+
+    private final Set<HttpSession> sessions = ConcurrentHashMap.newKeySet();
+
+    private SessionInspector() {
+    }
+
+    public static SessionInspector getInstance() {
+        return INSTANCE;
+    }
+
+    public void sessionCreated(HttpSession session) {
+        sessions.add(session);
+    }
+
+    public void sessionDestroyed(HttpSession session) {
+        sessions.remove(session);
+    }
+
+    /**
+     * @return session count, serialized bytes per session (average, max, total)
+     *         and per attribute name (sessions, average, max)
+     */
+    public Map<String, Object> inspect() {
+        int limit = AppSettings.getInt("session.inspect.maxSessions", 1000);
+        Map<String, long[]> byAttribute = new TreeMap<>(); // name -> {sessions, bytes, max}
+        int inspected = 0;
+        int notSerializable = 0;
+        long totalBytes = 0;
+        long maxBytes = 0;
+
+        for (HttpSession session : sessions) {
+            if (inspected >= limit) {
+                break;
+            }
+            long sessionBytes = 0;
+            try {
+                Enumeration<String> names = session.getAttributeNames();
+                while (names.hasMoreElements()) {
+                    String name = names.nextElement();
+                    long bytes = serializedSize(session.getAttribute(name));
+                    if (bytes < 0) {
+                        notSerializable++;
+                        continue;
+                    }
+                    long[] totals = byAttribute.computeIfAbsent(name, k -> new long[3]);
+                    totals[0]++;
+                    totals[1] += bytes;
+                    totals[2] = Math.max(totals[2], bytes);
+                    sessionBytes += bytes;
+                }
+            } catch (IllegalStateException e) {
+                continue; // invalidated while we were looking
+            }
+            inspected++;
+            totalBytes += sessionBytes;
+            maxBytes = Math.max(maxBytes, sessionBytes);
+        }
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : byAttribute.entrySet()) {
+            long[] totals = entry.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("sessions", totals[0]);
+            stats.put("averageBytes", totals[1] / totals[0]);
+            stats.put("maxBytes", totals[2]);
+            attributes.put(entry.getKey(), stats);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sessions", sessions.size());
+        report.put("inspected", inspected);
+        report.put("averageBytes", inspected == 0 ? 0 : totalBytes / inspected);
+        report.put("maxBytes", maxBytes);
+        report.put("totalBytes", totalBytes);
+        report.put("notSerializable", notSerializable);
+        report.put("attributes", attributes);
+        return report;
+    }
+
+    /**
+     * Java-serialized size of one attribute value, as a session manager would store it.
+     * @return the size in bytes, or -1 if the value cannot be serialized
+     */
+    public static long serializedSize(Object value) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(value);
+        } catch (NotSerializableException e) {
+            return -1;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+        return counter.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
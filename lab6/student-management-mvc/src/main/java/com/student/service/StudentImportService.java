@@ -0,0 +1,207 @@
+package com.student.service;
+
+import com.student.dao.StudentDAO;
+import com.student.model.Student;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk import of students from CSV (student_code,full_name,email,major).
+ * Rows are validated in parallel with StudentValidator, rows whose code or email is already
+ * taken are set aside (StudentDAO.findTaken, which asks StudentKeyFilter first), then the
+ * rest are inserted with StudentDAO.addStudentsBatch. Invalid rows are reported, not fatal.
+ */
+public class StudentImportService {
+
+    private final StudentDAO studentDAO;
+
+    public StudentImportService(StudentDAO studentDAO) {
+        this.studentDAO = studentDAO;
+    }
+
+    public ImportResult importCsv(InputStream in, int batchSize) throws IOException {
+        long start = System.nanoTime();
+        ImportResult result = new ImportResult();
+
+        // 1. Parse (line numbers are kept for the error report)
+        List<Student> rows = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> fields = parseCsvLine(line);
+                if (lineNumber == 1 && isHeader(fields)) {
+                    continue;
+                }
+                rows.add(new Student(field(fields, 0), field(fields, 1), field(fields, 2), field(fields, 3)));
+                lineNumbers.add(lineNumber);
+            }
+        }
+        result.totalRows = rows.size();
+
+        // 2. Validate in parallel (the rules are CPU only and thread safe)
+        List<Map<String, String>> validation = IntStream.range(0, rows.size())
+                .parallel()
+                .mapToObj(i -> StudentValidator.validate(rows.get(i)))
+                .collect(Collectors.toList());
+
+        List<Student> valid = new ArrayList<>();
+        List<Integer> validLines = new ArrayList<>();
+        Set<String> seenCodes = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Student student = rows.get(i);
+            Map<String, String> errors = validation.get(i);
+            if (!errors.isEmpty()) {
+                result.addError(lineNumbers.get(i), student.getStudentCode(), String.join("; ", errors.values()));
+            } else if (!seenCodes.add(student.getStudentCode())) {
+                result.addError(lineNumbers.get(i), student.getStudentCode(), "Duplicate student code in file");
+            } else if (student.getEmail() != null && !student.getEmail().isEmpty()
+                    && !seenEmails.add(student.getEmail().toLowerCase(Locale.ROOT))) {
+                result.addError(lineNumbers.get(i), student.getStudentCode(), "Duplicate email in file");
+            } else {
+                valid.add(student);
+                validLines.add(lineNumbers.get(i));
+            }
+        }
+
+        // 3. Codes and emails already in the table: reported here, so they do not fail a batch
+        Map<Integer, String> taken = studentDAO.findTaken(valid);
+        List<Student> fresh = new ArrayList<>();
+        List<Integer> freshLines = new ArrayList<>();
+        for (int i = 0; i < valid.size(); i++) {
+            if (taken.containsKey(i)) {
+                result.addError(validLines.get(i), valid.get(i).getStudentCode(), taken.get(i));
+            } else {
+                fresh.add(valid.get(i));
+                freshLines.add(validLines.get(i));
+            }
+        }
+
+        // 4. Insert with JDBC batching; database errors (e.g. a code inserted meanwhile) come back per row
+        Map<Integer, String> dbErrors = studentDAO.addStudentsBatch(fresh, batchSize);
+        for (Map.Entry<Integer, String> error : dbErrors.entrySet()) {
+            result.addError(freshLines.get(error.getKey()), fresh.get(error.getKey()).getStudentCode(), error.getValue());
+        }
+        result.inserted = fresh.size() - dbErrors.size();
+        result.errors.sort((a, b) -> Integer.compare(a.getLine(), b.getLine()));
+
+        result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index).trim() : null;
+    }
+
+    // The first line may be a header, after a UTF-8 byte order mark (Excel writes one)
+    static boolean isHeader(List<String> fields) {
+        return "student_code".equalsIgnoreCase(fields.get(0).replace("\uFEFF", "").trim());
+    }
+
+    // Minimal RFC 4180 line parser: commas, quoted fields and "" escapes
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    public static class ImportResult {
+        private int totalRows;
+        private int inserted;
+        private long elapsedMillis;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void addError(int line, String studentCode, String message) {
+            errors.add(new RowError(line, studentCode, message));
+        }
+
+        public int getTotalRows() {
+            return totalRows;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getFailed() {
+            return errors.size();
+        }
+
+        public List<RowError> getErrors() {
+            return errors;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public long getRowsPerSecond() {
+            return elapsedMillis == 0 ? inserted * 1000L : inserted * 1000L / elapsedMillis;
+        }
+    }
+
+    public static class RowError {
+        private final int line;
+        private final String studentCode;
+        private final String message;
+
+        RowError(int line, String studentCode, String message) {
+            this.line = line;
+            this.studentCode = studentCode;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getStudentCode() {
+            return studentCode;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.student.service;
+
+import com.student.model.Student;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Validation rules for a student, shared by the student form and the CSV import.
+ * Stateless and thread safe (patterns are compiled once).
+ */
+public final class StudentValidator {
+
+    private static final Pattern CODE_PATTERN = Pattern.compile("[A-Z]{2}[0-9]{3,}");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+
+    private StudentValidator() {
+    }
+
+    /**
+     * @return error message per field (errorCode, errorName, errorEmail, errorMajor), empty if valid
+     */
+    public static Map<String, String> validate(Student student) {
+        Map<String, String> errors = new LinkedHashMap<>();
+
+        // Validate Student Code
+        if (student.getStudentCode() == null || student.getStudentCode().trim().isEmpty()) {
+            errors.put("errorCode", "Student code is required");
+        } else if (!CODE_PATTERN.matcher(student.getStudentCode().trim()).matches()) {
+            errors.put("errorCode", "Invalid format. Use 2 uppercase letters + 3+ digits (e.g., SV001)");
+        }
+
+        // Validate Full Name
+        if (student.getFullName() == null || student.getFullName().trim().isEmpty()) {
+            errors.put("errorName", "Full name is required");
+        } else if (student.getFullName().trim().length() < 2) {
+            errors.put("errorName", "Full name must be at least 2 characters long");
+        }
+
+        // Validate Email (only if it's not empty)
+        String email = student.getEmail();
+        if (email != null && !email.trim().isEmpty()) {
+            if (!EMAIL_PATTERN.matcher(email.trim()).matches()) {
+                errors.put("errorEmail", "Please enter a valid email address");
+            }
+        }
+
+        // Validate Major
+        if (student.getMajor() == null || student.getMajor().trim().isEmpty()) {
+            errors.put("errorMajor", "Major is required");
+        }
+
+        return errors;
+    }
+}
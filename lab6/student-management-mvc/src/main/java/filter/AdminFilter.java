@@ -1,6 +1,6 @@
 package filter;
 
-import com.student.model.User;
+import com.student.model.SessionUser;
 
 import jakarta.servlet.*;
 import jakarta.servlet.annotation.WebFilter;
@@ -11,9 +11,9 @@ import java.io.IOException;
 
 /**
  * Admin Filter - Checks if user has admin role
- * Protects admin-only pages
+ * Protects admin-only student actions and everything under /admin/
  */
-@WebFilter(filterName = "AdminFilter", urlPatterns = {"/student"})
+@WebFilter(filterName = "AdminFilter", urlPatterns = {"/student", "/admin/*"}, asyncSupported = true)
 public class AdminFilter implements Filter {
 
     // Admin-only actions
@@ -22,7 +22,8 @@ public class AdminFilter implements Filter {
             "insert",
             "edit",
             "update",
-            "delete"
+            "delete",
+            "import"
     };
 
     @Override
@@ -38,13 +39,15 @@ public class AdminFilter implements Filter {
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
         String action = httpRequest.getParameter("action");
+        // Decoded and normalized, so /admin;x/cache or /%61dmin/cache are still admin pages
+        String path = httpRequest.getServletPath();
 
-        // Check if this action requires admin role
-        if (isAdminAction(action)) {
+        // Check if this page or action requires admin role
+        if (path.startsWith("/admin/") || isAdminAction(action)) {
             HttpSession session = httpRequest.getSession(false);
 
             if (session != null) {
-                User user = (User) session.getAttribute("user");
+                SessionUser user = SessionUser.from(session);
 
                 if (user != null && user.isAdmin()) {
                     // User is admin, allow access
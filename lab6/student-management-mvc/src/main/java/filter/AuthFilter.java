@@ -1,33 +1,55 @@
 package filter;
 
+import com.student.config.AppSettings;
+import com.student.model.SessionUser;
+
 import jakarta.servlet.*;
 import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
+import java.util.Locale;
 
 /**
  * Authentication Filter - Checks if user is logged in
- * Protects all pages except login and public resources
+ * Protects all pages except login and public resources.
+ * Static files (CSS, JS, images) are served from memory with an ETag and Cache-Control
+ * before any session lookup; a matching If-None-Match gets 304 Not Modified.
  */
-@WebFilter(filterName = "AuthFilter", urlPatterns = {"/*"})
+@WebFilter(filterName = "AuthFilter", urlPatterns = {"/*"}, asyncSupported = true)
 public class AuthFilter implements Filter {
 
-    // Public URLs that don't require authentication
-    private static final String[] PUBLIC_URLS = {
+    // Public paths (and everything below them) that don't require authentication
+    private static final String[] PUBLIC_PATHS = {
             "/login",
-            "/logout",
-            ".css",
-            ".js",
-            ".png",
-            ".jpg",
-            ".jpeg",
-            ".gif"
+            "/logout"
+    };
+
+    // Static file extensions, public and served by the fast path
+    private static final String[] STATIC_EXTENSIONS = {
+            "css",
+            "js",
+            "png",
+            "jpg",
+            "jpeg",
+            "gif",
+            "svg",
+            "ico",
+            "woff2"
     };
 
+    private PublicPathMatcher publicPaths;
+    private StaticResourceCache staticResources;
+    private String cacheControl;
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
+        publicPaths = new PublicPathMatcher(PUBLIC_PATHS, STATIC_EXTENSIONS);
+        if (AppSettings.getBoolean("static.cache.enabled", true)) {
+            staticResources = new StaticResourceCache(filterConfig.getServletContext());
+        }
+        cacheControl = "public, max-age=" + AppSettings.getLong("static.maxAgeSeconds", 86400);
         System.out.println("AuthFilter initialized");
     }
 
@@ -38,12 +60,19 @@ public class AuthFilter implements Filter {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
-        String requestURI = httpRequest.getRequestURI();
         String contextPath = httpRequest.getContextPath();
-        String path = requestURI.substring(contextPath.length());
+        // Decoded and normalized, without ;jsessionid
+        String path = httpRequest.getPathInfo() == null
+                ? httpRequest.getServletPath()
+                : httpRequest.getServletPath() + httpRequest.getPathInfo();
+
+        // Static files: answer from memory, no session lookup
+        if (publicPaths.hasPublicExtension(path) && serveStatic(httpRequest, httpResponse, path)) {
+            return;
+        }
 
         // Check if this is a public URL
-        if (isPublicUrl(path)) {
+        if (publicPaths.isPublic(path)) {
             // Allow access to public URLs
             chain.doFilter(request, response);
             return;
@@ -51,7 +80,7 @@ public class AuthFilter implements Filter {
 
         // Check if user is logged in
         HttpSession session = httpRequest.getSession(false);
-        boolean isLoggedIn = (session != null && session.getAttribute("user") != null);
+        boolean isLoggedIn = SessionUser.from(session) != null;
 
         if (isLoggedIn) {
             // User is logged in, allow access
@@ -69,11 +98,54 @@ public class AuthFilter implements Filter {
     }
 
     /**
-     * Check if URL is public (doesn't require authentication)
+     * Serve a static file from StaticResourceCache.
+     * @return false if the file is not cached (missing, too large, or not GET/HEAD),
+     *         so the request continues down the chain
      */
-    private boolean isPublicUrl(String path) {
-        for (String publicUrl : PUBLIC_URLS) {
-            if (path.contains(publicUrl)) {
+    private boolean serveStatic(HttpServletRequest request, HttpServletResponse response, String path)
+            throws IOException {
+
+        String method = request.getMethod();
+        if (staticResources == null || !("GET".equals(method) || "HEAD".equals(method))) {
+            return false;
+        }
+        // Never read protected directories through getResourceAsStream; the container answers 404
+        String upper = path.toUpperCase(Locale.ROOT);
+        if (upper.startsWith("/WEB-INF/") || upper.startsWith("/META-INF/")) {
+            return false;
+        }
+        StaticResourceCache.Resource resource = staticResources.get(path);
+        if (resource == null) {
+            return false;
+        }
+
+        response.setHeader("ETag", resource.etag);
+        response.setHeader("Cache-Control", cacheControl);
+
+        if (etagMatches(request.getHeader("If-None-Match"), resource.etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+
+        response.setContentType(resource.contentType);
+        response.setContentLength(resource.body.length);
+        if ("GET".equals(method)) {
+            response.getOutputStream().write(resource.body);
+        }
+        return true;
+    }
+
+    // If-None-Match may list several tags or "*"; weak comparison as for GET in RFC 9110
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
                 return true;
             }
         }
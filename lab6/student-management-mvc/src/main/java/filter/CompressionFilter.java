@@ -0,0 +1,666 @@
+package filter;
+
+import com.student.config.AppSettings;
+import com.student.metrics.Metrics;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compression Filter - gzips text responses (JSP pages, JSON, CSV, CSS/JS) for clients
+ * that send Accept-Encoding: gzip.
+ *
+ * The first compression.minBytes of a body are held back: a response that ends before that
+ * goes out as is, with a Content-Length. Past that the body is deflated as it is written,
+ * with a Deflater and buffer borrowed from DeflaterPool, so a long page is never held in
+ * memory; flush() pushes out what has been written so far (SYNC_FLUSH).
+ * Types that are already compressed (images, archives, fonts) and responses that set
+ * their own Content-Encoding pass through untouched.
+ *
+ * Mapped in web.xml right after RequestMetricsFilter. Bytes in/out and the CPU time spent
+ * deflating per response go to Metrics.
+ *
+ * A servlet that sets a WriteListener gets the plain stream: its body is not compressed.
+ */
+public class CompressionFilter implements Filter {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // gzip member header: magic, CM=deflate, no flags, no mtime, XFL=0, OS=unknown
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private boolean enabled;
+    private int minBytes;
+    private boolean cpuTime;
+    private DeflaterPool pool;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        enabled = AppSettings.getBoolean("compression.enabled", true);
+        minBytes = Math.max(1, AppSettings.getInt("compression.minBytes", 1024));
+        pool = new DeflaterPool(AppSettings.getInt("compression.poolSize", 16),
+                AppSettings.getInt("compression.level", 6));
+        cpuTime = THREADS.isCurrentThreadCpuTimeSupported();
+        System.out.println("CompressionFilter initialized" + (enabled ? "" : " (disabled)"));
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        if (!enabled || "HEAD".equals(httpRequest.getMethod())
+                || !acceptsGzip(httpRequest.getHeader("Accept-Encoding"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressing = new CompressingResponse((HttpServletResponse) response);
+        boolean finishLater = false;
+        try {
+            chain.doFilter(request, compressing);
+            if (request.isAsyncStarted()) {
+                // The page is rendered by the async dispatch; end the gzip stream when it is done
+                request.getAsyncContext().addListener(new FinishListener(compressing));
+                finishLater = true;
+            } else {
+                compressing.finish();
+            }
+        } finally {
+            if (!finishLater) {
+                compressing.release();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.close();
+        System.out.println("CompressionFilter destroyed");
+    }
+
+    // "gzip", "gzip;q=0.5", "*" ... anything but q=0 for gzip (or for * when gzip is not listed)
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                gzip = q;
+            } else if ("*".equals(coding)) {
+                any = q;
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    // Text formats only: images, archives, fonts, audio/video are compressed already
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/")
+                || type.startsWith("application/json")
+                || type.startsWith("application/javascript")
+                || type.startsWith("application/xml")
+                || type.contains("+xml")
+                || type.contains("+json");
+    }
+
+    private long cpuNanos() {
+        return cpuTime ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static final class FinishListener implements AsyncListener {
+
+        private final CompressingResponse response;
+
+        FinishListener(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+            try {
+                response.finish();
+            } finally {
+                response.release();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            response.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * Hands out a CompressingStream (or a writer on top of it) and keeps Content-Length
+     * away from the container until it is known whether the body is compressed.
+     */
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private CompressingStream stream;
+        private PrintWriter writer;
+        private long declaredLength = -1;
+        private boolean disabled;
+
+        CompressingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (stream != null && stream.state == CompressingStream.PASSTHROUGH) {
+                super.setContentLengthLong(len);
+            } else {
+                declaredLength = len;
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name) && value != null) {
+                setContentLengthLong(Long.parseLong(value.trim()));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name) && value != null) {
+                setContentLengthLong(Long.parseLong(value.trim()));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(value);
+            } else {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(value);
+            } else {
+                super.addIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (stream != null) {
+                stream.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            declaredLength = -1;
+            if (stream != null) {
+                stream.reset();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (stream != null) {
+                stream.resetBuffer();
+            }
+        }
+
+        // Error pages and redirects are written by the container, never compressed
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            disable();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            disable();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            disable();
+            super.sendRedirect(location);
+        }
+
+        void finish() throws IOException {
+            if (stream == null) {
+                return;
+            }
+            if (writer != null) {
+                stream.finishing = true; // push the writer's chars down without a SYNC_FLUSH
+                writer.flush();
+            }
+            stream.finish();
+        }
+
+        void release() {
+            if (stream != null) {
+                stream.releaseDeflater();
+            }
+        }
+
+        private void disable() {
+            disabled = true;
+            if (stream != null) {
+                stream.disable();
+            }
+        }
+
+        private CompressingStream stream() {
+            if (stream == null) {
+                stream = new CompressingStream(this);
+                if (disabled) {
+                    stream.disable();
+                }
+            }
+            return stream;
+        }
+
+        void addVary() {
+            for (String vary : getHeaders("Vary")) {
+                if (vary.toLowerCase(Locale.ROOT).contains("accept-encoding")) {
+                    return;
+                }
+            }
+            addHeader("Vary", "Accept-Encoding");
+        }
+
+        // There is no removeHeader: reset and put back everything but Content-Encoding
+        void dropContentEncoding() {
+            if (isCommitted()) {
+                return;
+            }
+            int status = getStatus();
+            String contentType = getContentType();
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : getHeaderNames()) {
+                if (!"Content-Encoding".equalsIgnoreCase(name)) {
+                    headers.put(name, new ArrayList<>(getHeaders(name)));
+                }
+            }
+            super.reset();
+            setStatus(status);
+            if (contentType != null) {
+                setContentType(contentType);
+            }
+            headers.forEach((name, values) -> values.forEach(value -> super.addHeader(name, value)));
+        }
+
+        private ServletOutputStream target() throws IOException {
+            return getResponse().getOutputStream();
+        }
+
+        private void setTargetContentLength(long len) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    /**
+     * Holds back the first minBytes, then either passes the body through or gzips it.
+     */
+    private final class CompressingStream extends ServletOutputStream {
+
+        static final int BUFFERING = 0;
+        static final int COMPRESSING = 1;
+        static final int PASSTHROUGH = 2;
+        static final int FINISHED = 3;
+
+        private final CompressingResponse response;
+        private final byte[] single = new byte[1];
+        private int state = BUFFERING;
+        private byte[] head;
+        private int headCount;
+        private boolean finishing;
+        // The container's stream once a WriteListener is set; the body then stays uncompressed
+        private ServletOutputStream listening;
+
+        private DeflaterPool.Entry entry;
+        private final CRC32 crc = new CRC32();
+        private long bytesIn;
+        private long bytesOut;
+        private long deflateNanos;
+
+        CompressingStream(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            switch (state) {
+                case PASSTHROUGH:
+                    response.target().write(b, off, len);
+                    return;
+                case COMPRESSING:
+                    deflate(b, off, len);
+                    return;
+                case FINISHED:
+                    throw new IOException("Response already finished");
+                default:
+                    break;
+            }
+
+            if (head == null) {
+                if (!eligible()) {
+                    passThrough("type");
+                    response.target().write(b, off, len);
+                    return;
+                }
+                head = new byte[minBytes];
+            }
+            if (headCount + len <= head.length) {
+                System.arraycopy(b, off, head, headCount, len);
+                headCount += len;
+                return;
+            }
+            startCompressing();
+            deflate(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (finishing) {
+                return;
+            }
+            if (state == BUFFERING && headCount > 0) {
+                startCompressing(); // a flushed page is a long or slow one
+            }
+            if (state == COMPRESSING) {
+                long start = cpuNanos();
+                while (drain(Deflater.SYNC_FLUSH) == entry.buffer.length) {
+                    // the buffer was full, there may be more
+                }
+                deflateNanos += cpuNanos() - start;
+            }
+            if (state != FINISHED) {
+                response.target().flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finishing = false;
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return listening == null || listening.isReady();
+        }
+
+        /**
+         * Non-blocking writes go straight to the container's stream, so the body is sent as is;
+         * too late once gzip output has started.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (state == COMPRESSING || state == FINISHED) {
+                throw new IllegalStateException("Response is already being compressed");
+            }
+            try {
+                ServletOutputStream target = response.target();
+                if (state == BUFFERING) {
+                    passThrough("async");
+                    if (headCount > 0) {
+                        target.write(head, 0, headCount);
+                        headCount = 0;
+                    }
+                }
+                target.setWriteListener(writeListener);
+                listening = target;
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot switch to non-blocking writes", e);
+            }
+        }
+
+        void finish() throws IOException {
+            switch (state) {
+                case BUFFERING:
+                    if (headCount > 0) {
+                        // Too small to be worth it: send as is, length known now
+                        passThrough("small");
+                        if (!response.isCommitted()) {
+                            response.setTargetContentLength(headCount);
+                        }
+                        response.target().write(head, 0, headCount);
+                    }
+                    break;
+                case COMPRESSING:
+                    long start = cpuNanos();
+                    entry.deflater.finish();
+                    while (!entry.deflater.finished()) {
+                        drain(Deflater.NO_FLUSH);
+                    }
+                    writeTrailer();
+                    deflateNanos += cpuNanos() - start;
+                    if (Metrics.isEnabled()) {
+                        Metrics.getInstance().responseCompressed(bytesIn, bytesOut, deflateNanos);
+                    }
+                    releaseDeflater();
+                    break;
+                default:
+                    break;
+            }
+            state = FINISHED;
+        }
+
+        void resetBuffer() {
+            if (state == BUFFERING) {
+                headCount = 0;
+            } else if (state == COMPRESSING) {
+                // The gzip header was discarded with the buffer; start the member again
+                entry.deflater.reset();
+                crc.reset();
+                bytesIn = 0;
+                bytesOut = 0;
+                try {
+                    writeHeader();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        // Headers are gone too, so decide again on the next write
+        void reset() {
+            releaseDeflater();
+            crc.reset();
+            bytesIn = 0;
+            bytesOut = 0;
+            head = null;
+            headCount = 0;
+            if (state != FINISHED) {
+                state = listening != null ? PASSTHROUGH : BUFFERING;
+            }
+        }
+
+        void disable() {
+            if (state == COMPRESSING) {
+                releaseDeflater();
+                response.dropContentEncoding();
+            }
+            if (state != FINISHED) {
+                headCount = 0;
+                passThrough("error");
+            }
+        }
+
+        void releaseDeflater() {
+            if (entry != null) {
+                pool.release(entry);
+                entry = null;
+            }
+        }
+
+        private boolean eligible() {
+            return isCompressible(response.getContentType())
+                    && !response.containsHeader("Content-Encoding")
+                    && response.getStatus() != HttpServletResponse.SC_NO_CONTENT
+                    && response.getStatus() != HttpServletResponse.SC_PARTIAL_CONTENT
+                    && (response.declaredLength < 0 || response.declaredLength >= minBytes);
+        }
+
+        private void passThrough(String reason) {
+            state = PASSTHROUGH;
+            if (response.declaredLength >= 0) {
+                response.setTargetContentLength(response.declaredLength);
+            }
+            if (isCompressible(response.getContentType())) {
+                response.addVary();
+            }
+            if (Metrics.isEnabled()) {
+                Metrics.getInstance().responseNotCompressed(reason);
+            }
+        }
+
+        private void startCompressing() throws IOException {
+            if (!eligible()) {
+                passThrough("type");
+                response.target().write(head, 0, headCount);
+                return;
+            }
+            state = COMPRESSING;
+            response.setHeader("Content-Encoding", "gzip");
+            response.addVary();
+            // Same resource, different bytes: a strong ETag must not be shared with the plain body
+            String etag = response.getHeader("ETag");
+            if (etag != null && !etag.startsWith("W/")) {
+                response.setHeader("ETag", "W/" + etag);
+            }
+            entry = pool.acquire();
+            writeHeader();
+            if (headCount > 0) {
+                deflate(head, 0, headCount);
+            }
+        }
+
+        private void deflate(byte[] b, int off, int len) throws IOException {
+            long start = cpuNanos();
+            crc.update(b, off, len);
+            bytesIn += len;
+            entry.deflater.setInput(b, off, len);
+            while (!entry.deflater.needsInput()) {
+                drain(Deflater.NO_FLUSH);
+            }
+            deflateNanos += cpuNanos() - start;
+        }
+
+        private int drain(int flush) throws IOException {
+            int n = entry.deflater.deflate(entry.buffer, 0, entry.buffer.length, flush);
+            if (n > 0) {
+                response.target().write(entry.buffer, 0, n);
+                bytesOut += n;
+            }
+            return n;
+        }
+
+        private void writeHeader() throws IOException {
+            response.target().write(GZIP_HEADER);
+            bytesOut += GZIP_HEADER.length;
+        }
+
+        // CRC-32 and input size mod 2^32, little-endian
+        private void writeTrailer() throws IOException {
+            byte[] trailer = new byte[8];
+            writeIntLE(trailer, 0, (int) crc.getValue());
+            writeIntLE(trailer, 4, (int) bytesIn);
+            response.target().write(trailer);
+            bytesOut += trailer.length;
+        }
+
+        private void writeIntLE(byte[] b, int off, int value) {
+            b[off] = (byte) value;
+            b[off + 1] = (byte) (value >> 8);
+            b[off + 2] = (byte) (value >> 16);
+            b[off + 3] = (byte) (value >> 24);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package filter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Reusable Deflater + output buffer pairs for CompressionFilter.
+ *
+ * A Deflater holds a few hundred KB of native zlib state and is slow to set up, so
+ * compressed responses borrow one instead of creating (and leaving to the GC) their own.
+ * At most `capacity` idle pairs are kept; extra ones are ended when given back.
+ */
+final class DeflaterPool {
+
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * A Deflater in raw mode (no zlib header; CompressionFilter writes the gzip framing)
+     * and the buffer it deflates into.
+     */
+    static final class Entry {
+        final Deflater deflater;
+        final byte[] buffer = new byte[BUFFER_SIZE];
+
+        Entry(int level) {
+            deflater = new Deflater(level, true);
+        }
+    }
+
+    private final BlockingQueue<Entry> idle;
+    private final int level;
+
+    DeflaterPool(int capacity, int level) {
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.level = level;
+    }
+
+    Entry acquire() {
+        Entry entry = idle.poll();
+        return entry != null ? entry : new Entry(level);
+    }
+
+    void release(Entry entry) {
+        entry.deflater.reset();
+        if (!idle.offer(entry)) {
+            entry.deflater.end();
+        }
+    }
+
+    void close() {
+        Entry entry;
+        while ((entry = idle.poll()) != null) {
+            entry.deflater.end();
+        }
+    }
+}
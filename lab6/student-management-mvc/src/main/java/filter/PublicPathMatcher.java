@@ -0,0 +1,86 @@
+package filter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides whether a request path is public, built once from the filter's rules.
+ *
+ * Prefixes are stored in a trie of path segments: "/login" matches "/login" and
+ * "/login/anything" but not "/loginx" or "/views/login.jsp". Extensions are matched
+ * exactly against the last segment ("css" matches "/a/b.css" but not "/a/b.cssx"),
+ * so ".js" no longer makes every ".jsp" public.
+ */
+final class PublicPathMatcher {
+
+    private final Node root = new Node();
+    private final Set<String> extensions = new HashSet<>();
+
+    /**
+     * @param prefixes   public path prefixes, e.g. "/login"
+     * @param extensions public file extensions without the dot, e.g. "css"
+     */
+    PublicPathMatcher(String[] prefixes, String[] extensions) {
+        for (String prefix : prefixes) {
+            Node node = root;
+            for (String segment : prefix.split("/")) {
+                if (!segment.isEmpty()) {
+                    node = node.children.computeIfAbsent(segment, k -> new Node());
+                }
+            }
+            node.terminal = true;
+        }
+        for (String extension : extensions) {
+            this.extensions.add(extension.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    boolean isPublic(String path) {
+        return hasPublicExtension(path) || hasPublicPrefix(path);
+    }
+
+    boolean hasPublicExtension(String path) {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        if (dot <= slash || dot == path.length() - 1) {
+            return false;
+        }
+        return extensions.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private boolean hasPublicPrefix(String path) {
+        Node node = root;
+        int start = 0;
+        int length = path.length();
+
+        while (start < length) {
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start == length) {
+                break;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+            start = end;
+        }
+        return node.terminal;
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        boolean terminal;
+    }
+}
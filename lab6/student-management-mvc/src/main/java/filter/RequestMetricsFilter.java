@@ -0,0 +1,201 @@
+package filter;
+
+import com.student.config.AppSettings;
+import com.student.metrics.Metrics;
+import com.student.metrics.RequestSample;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Request Metrics Filter - records latency, in-flight count, errors and database time
+ * of every request, per servlet mapping and StudentController action (see Metrics).
+ * Mapped in web.xml ahead of the other filters, so their time is included.
+ * Async requests are recorded when they complete.
+ *
+ * With app.devMode each response also carries the database work of its request, as it stood
+ * when the response started (headers cannot follow the body): X-DB-Statements, X-DB-Time-Ms,
+ * X-DB-Rows, X-DB-Connections, and a Server-Timing entry that browser dev tools show.
+ */
+public class RequestMetricsFilter implements Filter {
+
+    // StudentController actions; anything else on /student is counted as "other"
+    private static final Set<String> STUDENT_ACTIONS = Set.of(
+            "list", "new", "insert", "edit", "update", "delete", "import", "search", "sort", "filter");
+
+    private boolean enabled;
+    private boolean devHeaders;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        enabled = Metrics.isEnabled();
+        devHeaders = AppSettings.getBoolean("app.devMode", false);
+        System.out.println("RequestMetricsFilter initialized" + (enabled ? "" : " (disabled)")
+                + (enabled && devHeaders ? " with database headers" : ""));
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        Metrics metrics = Metrics.getInstance();
+
+        String path = pathOf(httpRequest);
+        Metrics.RequestSeries series = metrics.requestStarted(path, actionOf(path, httpRequest));
+        RequestSample sample = RequestSample.start(request);
+        RequestSample previous = RequestSample.bind(sample);
+        HttpServletResponse httpResponse = devHeaders
+                ? new DatabaseHeadersResponse((HttpServletResponse) response, sample)
+                : (HttpServletResponse) response;
+
+        boolean failed = true;
+        try {
+            chain.doFilter(request, httpResponse);
+            failed = false;
+        } finally {
+            RequestSample.bind(previous);
+            if (httpResponse instanceof DatabaseHeadersResponse && !request.isAsyncStarted()) {
+                ((DatabaseHeadersResponse) httpResponse).addHeaders();
+            }
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(metrics, series, sample));
+            } else {
+                metrics.requestFinished(series, sample, failed || httpResponse.getStatus() >= 500);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        System.out.println("RequestMetricsFilter destroyed");
+    }
+
+    // The servlet mapping ("/student", "*.jsp", "/" for static files) keeps the label set small
+    private static String pathOf(HttpServletRequest request) {
+        HttpServletMapping mapping = request.getHttpServletMapping();
+        String pattern = mapping == null ? null : mapping.getPattern();
+        return pattern == null || pattern.isEmpty() ? "/" : pattern;
+    }
+
+    private static String actionOf(String path, HttpServletRequest request) {
+        if (!"/student".equals(path)) {
+            return "";
+        }
+        String action = request.getParameter("action");
+        if (action == null) {
+            return "list";
+        }
+        return STUDENT_ACTIONS.contains(action) ? action : "other";
+    }
+
+    /**
+     * Adds the database headers just before the response is committed.
+     */
+    private static final class DatabaseHeadersResponse extends HttpServletResponseWrapper {
+
+        private final RequestSample sample;
+        private boolean added;
+
+        DatabaseHeadersResponse(HttpServletResponse response, RequestSample sample) {
+            super(response);
+            this.sample = sample;
+        }
+
+        void addHeaders() {
+            if (added || isCommitted()) {
+                return;
+            }
+            added = true;
+            double dbMillis = sample.getDbNanos() / 1_000_000.0;
+            String millis = String.format(Locale.ROOT, "%.1f", dbMillis);
+            setHeader("X-DB-Statements", String.valueOf(sample.getStatements()));
+            setHeader("X-DB-Time-Ms", millis);
+            setHeader("X-DB-Rows", String.valueOf(sample.getRows()));
+            setHeader("X-DB-Connections", String.valueOf(sample.getConnections()));
+            addHeader("Server-Timing", "db;dur=" + millis + ";desc=\"" + sample.getStatements() + " statements\"");
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addHeaders();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addHeaders();
+            super.sendError(sc);
+        }
+    }
+
+    private static final class CompletionListener implements AsyncListener {
+
+        private final Metrics metrics;
+        private final Metrics.RequestSeries series;
+        private final RequestSample sample;
+        private volatile boolean failed;
+
+        CompletionListener(Metrics metrics, Metrics.RequestSeries series, RequestSample sample) {
+            this.metrics = metrics;
+            this.series = series;
+            this.sample = sample;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            metrics.requestFinished(series, sample, failed || response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
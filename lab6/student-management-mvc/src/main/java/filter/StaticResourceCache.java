@@ -0,0 +1,99 @@
+package filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.student.config.AppSettings;
+
+import jakarta.servlet.ServletContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Static files of the web application (CSS, JS, images) kept in memory with a strong ETag.
+ *
+ * The WAR does not change while deployed, so a file is read once and served from memory
+ * until the application is redeployed. Bounded by static.cache.maxBytes in total; files larger
+ * than static.cache.maxFileBytes are not cached and are left to the container's default servlet.
+ */
+final class StaticResourceCache {
+
+    /**
+     * A cached file. The ETag is a hash of the content, so it only changes when the file does.
+     */
+    static final class Resource {
+        final byte[] body;
+        final String contentType;
+        final String etag;
+
+        Resource(byte[] body, String contentType, String etag) {
+            this.body = body;
+            this.contentType = contentType;
+            this.etag = etag;
+        }
+    }
+
+    private final ServletContext context;
+    private final int maxFileBytes;
+    // Empty Optional = file does not exist or is too large, so the lookup is not repeated
+    private final Cache<String, Optional<Resource>> cache;
+
+    StaticResourceCache(ServletContext context) {
+        this.context = context;
+        this.maxFileBytes = AppSettings.getInt("static.cache.maxFileBytes", 1024 * 1024);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(AppSettings.getLong("static.cache.maxBytes", 16L * 1024 * 1024))
+                .weigher((String path, Optional<Resource> resource) ->
+                        path.length() + resource.map(r -> r.body.length).orElse(0))
+                .build();
+    }
+
+    /**
+     * @return the file, or null if it does not exist or is not cached (too large)
+     */
+    Resource get(String path) {
+        Optional<Resource> cached = cache.getIfPresent(path);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        Optional<Resource> loaded = load(path);
+        cache.put(path, loaded);
+        return loaded.orElse(null);
+    }
+
+    private Optional<Resource> load(String path) {
+        try (InputStream in = context.getResourceAsStream(path)) {
+            if (in == null) {
+                return Optional.empty();
+            }
+            byte[] body = in.readNBytes(maxFileBytes + 1);
+            if (body.length > maxFileBytes) {
+                return Optional.empty();
+            }
+
+            String contentType = context.getMimeType(path);
+            if (contentType == null) {
+                contentType = "application/octet-stream";
+            } else if (contentType.startsWith("text/") || contentType.endsWith("javascript")) {
+                contentType += ";charset=UTF-8";
+            }
+            return Optional.of(new Resource(body, contentType, etag(body)));
+
+        } catch (IOException e) {
+            e.printStackTrace();
+            return Optional.empty();
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -203,9 +203,9 @@
                 <h2>📚 Student Management System</h2>
                 <div class="navbar-right">
                     <div class="user-info">
-                        <span>${sessionScope.fullName}</span>
-                        <span class="role-badge role-${sessionScope.role}">
-                            ${sessionScope.role}
+                        <span>${sessionScope.user.fullName}</span>
+                        <span class="role-badge role-${sessionScope.user.role}">
+                            ${sessionScope.user.role}
                         </span>
                     </div>
                     <a href="change-password" class="btn-change-password">🔑 Change Password</a>
@@ -232,6 +232,20 @@
                             <p>Total Students</p>
                         </div>
                     </div>
+
+                    <c:forEach var="entry" items="${majorCounts}">
+                        <c:if test="${not empty entry.key}">
+                            <div class="stat-card">
+                                <div class="stat-icon stat-icon-students">
+                                    🎓
+                                </div>
+                                <div class="stat-content">
+                                    <h3>${entry.value}</h3>
+                                    <p><c:out value="${entry.key}"/></p>
+                                </div>
+                            </div>
+                        </c:if>
+                    </c:forEach>
                 </div>
 
                 <!-- Quick Actions -->
@@ -242,7 +256,7 @@
                             📋 View All Students
                         </a>
 
-                        <c:if test="${sessionScope.role eq 'admin'}">
+                        <c:if test="${sessionScope.user.role eq 'admin'}">
                             <a href="student?action=new" class="action-btn action-btn-success">
                                 ➕ Add New Student
                             </a>
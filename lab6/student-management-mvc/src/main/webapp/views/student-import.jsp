@@ -0,0 +1,184 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib uri="jakarta.tags.core" prefix="c" %>
+<!DOCTYPE html>
+<html>
+<head>
+    <meta charset="UTF-8">
+    <meta name="viewport" content="width=device-width, initial-scale=1.0">
+    <title>Import Students</title>
+    <style>
+        * {
+            margin: 0;
+            padding: 0;
+            box-sizing: border-box;
+        }
+        body {
+            font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif;
+            background: linear-gradient(135deg, #667eea 0%, #764ba2 100%);
+            min-height: 100vh;
+            display: flex;
+            justify-content: center;
+            align-items: center;
+            padding: 20px;
+        }
+        .container {
+            background: white;
+            border-radius: 10px;
+            padding: 40px;
+            box-shadow: 0 10px 40px rgba(0,0,0,0.2);
+            width: 100%;
+            max-width: 800px;
+        }
+        h1 {
+            color: #333;
+            margin-bottom: 30px;
+            font-size: 28px;
+            text-align: center;
+        }
+        .form-group {
+            margin-bottom: 25px;
+        }
+        label {
+            display: block;
+            margin-bottom: 8px;
+            color: #555;
+            font-weight: 500;
+            font-size: 14px;
+        }
+        input[type="file"] {
+            width: 100%;
+            padding: 12px 15px;
+            border: 2px solid #ddd;
+            border-radius: 5px;
+            font-size: 14px;
+        }
+        .info-text {
+            font-size: 12px;
+            color: #666;
+            margin-top: 5px;
+        }
+        .button-group {
+            display: flex;
+            gap: 15px;
+            margin-top: 30px;
+        }
+        .btn {
+            flex: 1;
+            padding: 14px;
+            border: none;
+            border-radius: 5px;
+            font-size: 16px;
+            font-weight: 600;
+            cursor: pointer;
+            transition: all 0.3s;
+            text-decoration: none;
+            text-align: center;
+            display: inline-block;
+        }
+        .btn-primary {
+            background: linear-gradient(135deg, #667eea 0%, #764ba2 100%);
+            color: white;
+        }
+        .btn-primary:hover {
+            transform: translateY(-2px);
+            box-shadow: 0 5px 15px rgba(102, 126, 234, 0.4);
+        }
+        .btn-secondary {
+            background-color: #6c757d;
+            color: white;
+        }
+        .btn-secondary:hover {
+            background-color: #5a6268;
+        }
+        .alert-error {
+            background-color: #f8d7da;
+            color: #721c24;
+            border: 1px solid #f5c6cb;
+            padding: 15px;
+            margin-bottom: 20px;
+            border-radius: 5px;
+            font-weight: 500;
+        }
+        .summary {
+            background-color: #d4edda;
+            color: #155724;
+            border: 1px solid #c3e6cb;
+            padding: 15px;
+            margin-bottom: 20px;
+            border-radius: 5px;
+            line-height: 1.6;
+        }
+        table {
+            width: 100%;
+            border-collapse: collapse;
+            font-size: 13px;
+        }
+        th, td {
+            padding: 8px;
+            text-align: left;
+            border-bottom: 1px solid #ddd;
+        }
+        th {
+            background: #f8f9fa;
+        }
+    </style>
+</head>
+<body>
+<div class="container">
+    <h1>📥 Import Students</h1>
+
+    <c:if test="${not empty error}">
+        <div class="alert-error">${error}</div>
+    </c:if>
+
+    <c:if test="${not empty result}">
+        <div class="summary">
+            Rows read: <strong>${result.totalRows}</strong><br>
+            Inserted: <strong>${result.inserted}</strong><br>
+            Failed: <strong>${result.failed}</strong><br>
+            Time: <strong>${result.elapsedMillis} ms</strong>
+            (<strong>${result.rowsPerSecond}</strong> rows/sec)
+        </div>
+
+        <c:if test="${result.failed > 0}">
+            <table>
+                <thead>
+                <tr>
+                    <th>Line</th>
+                    <th>Student Code</th>
+                    <th>Error</th>
+                </tr>
+                </thead>
+                <tbody>
+                <c:forEach var="rowError" items="${result.errors}" end="199">
+                    <tr>
+                        <td>${rowError.line}</td>
+                        <td><c:out value="${rowError.studentCode}"/></td>
+                        <td><c:out value="${rowError.message}"/></td>
+                    </tr>
+                </c:forEach>
+                </tbody>
+            </table>
+            <c:if test="${result.failed > 200}">
+                <p class="info-text">Showing the first 200 of ${result.failed} errors.</p>
+            </c:if>
+        </c:if>
+    </c:if>
+
+    <form action="student?action=import" method="POST" enctype="multipart/form-data">
+        <input type="hidden" name="action" value="import">
+
+        <div class="form-group">
+            <label for="file">CSV File</label>
+            <input type="file" id="file" name="file" accept=".csv,text/csv" required>
+            <p class="info-text">Columns: student_code, full_name, email, major (header row optional)</p>
+        </div>
+
+        <div class="button-group">
+            <button type="submit" class="btn btn-primary">📥 Import</button>
+            <a href="student?action=list" class="btn btn-secondary">❌ Cancel</a>
+        </div>
+    </form>
+</div>
+</body>
+</html>
@@ -1,5 +1,6 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%@ taglib uri="jakarta.tags.core" prefix="c" %>
+<%@ taglib uri="jakarta.tags.functions" prefix="fn" %>
 <!DOCTYPE html>
 <html>
 <head>
@@ -362,9 +363,9 @@
     <h2>📚 Student Management System</h2>
     <div class="navbar-right">
         <div class="user-info">
-            <span>Welcome, ${sessionScope.fullName}</span>
-            <span class="role-badge role-${sessionScope.role}">
-                ${sessionScope.role}
+            <span>Welcome, ${sessionScope.user.fullName}</span>
+            <span class="role-badge role-${sessionScope.user.role}">
+                ${sessionScope.user.role}
             </span>
         </div>
         <a href="dashboard">Dashboard</a>
@@ -385,16 +386,32 @@
         </div>
     </c:if>
 
+    <c:choose>
+        <c:when test="${not empty staleSince}">
+            <div class="alert alert-error">
+                ⚠️ The database is not responding. Showing this page as it was at ${staleSince}.
+            </div>
+        </c:when>
+        <c:when test="${databaseUnavailable}">
+            <div class="alert alert-error">
+                ⚠️ The database is not responding. Please try again in a few seconds.
+            </div>
+        </c:when>
+    </c:choose>
+
     <div class="controls-container">
         <div class="controls-left">
             <!-- TODO: Add button - Admin only -->
-            <c:if test="${sessionScope.role eq 'admin'}">
+            <c:if test="${sessionScope.user.role eq 'admin'}">
                 <div style="margin: 20px 0;">
                     <a href="student?action=new" class="btn-add btn btn-primary">➕ Add New Student</a>
+                    <a href="student?action=import" class="btn btn-secondary">📥 Import CSV</a>
                 </div>
             </c:if>
             <form action="student" method="get" class="filter-form">
                 <input type="hidden" name="action" value="filter">
+                <c:if test="${not empty sortBy}"><input type="hidden" name="sortBy" value="<c:out value='${sortBy}'/>"></c:if>
+                <c:if test="${not empty order}"><input type="hidden" name="order" value="<c:out value='${order}'/>"></c:if>
                 <select name="filterMajor" class="filter-select" onchange="this.form.submit()">
                     <option value="">-- All Majors --</option>
                     <option value="Computer Science" ${filterMajor == 'Computer Science' ? 'selected' : ''}>Computer Science</option>
@@ -406,11 +423,13 @@
                     <a href="student?action=list" class="btn-clear">Clear Filter</a>
                 </c:if>
             </form>
+            <a href="export?format=csv" class="btn-clear">⬇️ Export CSV</a>
         </div>
 
         <form action="student" method="get" class="search-form">
             <input type="hidden" name="action" value="search">
-            <input type="text" name="keyword" class="search-input" placeholder="Search by code, name, email..." value="<c:out value='${keyword}'/>">
+            <input type="text" name="keyword" class="search-input" placeholder="Search by code, name, email..." value="<c:out value='${keyword}'/>" list="student-suggestions" autocomplete="off">
+            <datalist id="student-suggestions"></datalist>
             <button type="submit" class="btn-action">🔍</button>
             <c:if test="${not empty keyword}">
                 <a href="student?action=list" class="btn-clear">Clear Search</a>
@@ -430,39 +449,40 @@
             <table>
                 <thead>
                 <tr>
+                    <c:set var="majorParam" value="${empty filterMajor ? '' : '&filterMajor='.concat(fn:escapeXml(filterMajor))}" />
                     <c:set var="nextOrder" value="${(sortBy != null && order == 'asc') ? 'desc' : 'asc'}" />
                     <th>
-                        <a href="student?action=sort&sortBy=id&order=${sortBy == 'id' ? nextOrder : 'asc'}">
+                        <a href="student?action=sort&sortBy=id&order=${sortBy == 'id' ? nextOrder : 'asc'}${majorParam}">
                             ID
                             <c:if test="${sortBy == 'id'}"><span class="sort-indicator">${order == 'asc' ? '▲' : '▼'}</span></c:if>
                         </a>
                     </th>
                     <th>
-                        <a href="student?action=sort&sortBy=student_code&order=${sortBy == 'student_code' ? nextOrder : 'asc'}">
+                        <a href="student?action=sort&sortBy=student_code&order=${sortBy == 'student_code' ? nextOrder : 'asc'}${majorParam}">
                             Student Code
                             <c:if test="${sortBy == 'student_code'}"><span class="sort-indicator">${order == 'asc' ? '▲' : '▼'}</span></c:if>
                         </a>
                     </th>
                     <th>
-                        <a href="student?action=sort&sortBy=full_name&order=${sortBy == 'full_name' ? nextOrder : 'asc'}">
+                        <a href="student?action=sort&sortBy=full_name&order=${sortBy == 'full_name' ? nextOrder : 'asc'}${majorParam}">
                             Full Name
                             <c:if test="${sortBy == 'full_name'}"><span class="sort-indicator">${order == 'asc' ? '▲' : '▼'}</span></c:if>
                         </a>
                     </th>
                     <th>
-                        <a href="student?action=sort&sortBy=email&order=${sortBy == 'email' ? nextOrder : 'asc'}">
+                        <a href="student?action=sort&sortBy=email&order=${sortBy == 'email' ? nextOrder : 'asc'}${majorParam}">
                             Email
                             <c:if test="${sortBy == 'email'}"><span class="sort-indicator">${order == 'asc' ? '▲' : '▼'}</span></c:if>
                         </a>
                     </th>
                     <th>
-                        <a href="student?action=sort&sortBy=major&order=${sortBy == 'major' ? nextOrder : 'asc'}">
+                        <a href="student?action=sort&sortBy=major&order=${sortBy == 'major' ? nextOrder : 'asc'}${majorParam}">
                             Major
                             <c:if test="${sortBy == 'major'}"><span class="sort-indicator">${order == 'asc' ? '▲' : '▼'}</span></c:if>
                         </a>
                     </th>
                     <!-- In table header -->
-                    <c:if test="${sessionScope.role eq 'admin'}">
+                    <c:if test="${sessionScope.user.role eq 'admin'}">
                         <th>Actions</th>
                     </c:if>
                 </tr>
@@ -476,7 +496,7 @@
                         <td>${student.email}</td>
                         <td>${student.major}</td>
                         <!-- In table rows -->
-                        <c:if test="${sessionScope.role eq 'admin'}">
+                        <c:if test="${sessionScope.user.role eq 'admin'}">
                             <td>
                                 <div class="actions">
                                     <a href="student?action=edit&id=${student.id}" class="btn btn-secondary">✏️ Edit</a>
@@ -489,16 +509,97 @@
                 </tbody>
             </table>
 
+            <c:if test="${not empty searchPage and (searchPage > 1 or searchHasNext)}">
+                <div class="pagination-container">
+                    <div class="page-info">
+                        Showing results page <strong>${searchPage}</strong>
+                    </div>
+
+                    <div class="pagination">
+                        <c:choose>
+                            <c:when test="${searchPage > 1}">
+                                <c:url var="prevSearchUrl" value="student">
+                                    <c:param name="action" value="search"/>
+                                    <c:param name="keyword" value="${keyword}"/>
+                                    <c:param name="page" value="${searchPage - 1}"/>
+                                </c:url>
+                                <a href="${prevSearchUrl}">« Previous</a>
+                            </c:when>
+                            <c:otherwise>
+                                <span class="disabled">« Previous</span>
+                            </c:otherwise>
+                        </c:choose>
+
+                        <c:choose>
+                            <c:when test="${searchHasNext}">
+                                <c:url var="nextSearchUrl" value="student">
+                                    <c:param name="action" value="search"/>
+                                    <c:param name="keyword" value="${keyword}"/>
+                                    <c:param name="page" value="${searchPage + 1}"/>
+                                </c:url>
+                                <a href="${nextSearchUrl}">Next »</a>
+                            </c:when>
+                            <c:otherwise>
+                                <span class="disabled">Next »</span>
+                            </c:otherwise>
+                        </c:choose>
+                    </div>
+                </div>
+            </c:if>
+
+            <c:if test="${keyset}">
+                <div class="pagination-container">
+                    <div class="page-info">
+                        Showing <strong>${students.size()}</strong> students
+                    </div>
+
+                    <div class="pagination">
+                        <c:url var="firstUrl" value="student">
+                            <c:param name="action" value="${empty param.action ? 'list' : param.action}"/>
+                            <c:param name="after" value=""/>
+                            <c:if test="${not empty sortBy}"><c:param name="sortBy" value="${sortBy}"/></c:if>
+                            <c:if test="${not empty order}"><c:param name="order" value="${order}"/></c:if>
+                            <c:if test="${not empty filterMajor}"><c:param name="filterMajor" value="${filterMajor}"/></c:if>
+                        </c:url>
+                        <a href="${firstUrl}">« First</a>
+
+                        <c:choose>
+                            <c:when test="${not empty nextCursor}">
+                                <c:url var="nextUrl" value="student">
+                                    <c:param name="action" value="${empty param.action ? 'list' : param.action}"/>
+                                    <c:param name="after" value="${nextCursor}"/>
+                                    <c:if test="${not empty sortBy}"><c:param name="sortBy" value="${sortBy}"/></c:if>
+                                    <c:if test="${not empty order}"><c:param name="order" value="${order}"/></c:if>
+                                    <c:if test="${not empty filterMajor}"><c:param name="filterMajor" value="${filterMajor}"/></c:if>
+                                </c:url>
+                                <a href="${nextUrl}">Next »</a>
+                            </c:when>
+                            <c:otherwise>
+                                <span class="disabled">Next »</span>
+                            </c:otherwise>
+                        </c:choose>
+                    </div>
+                </div>
+            </c:if>
+
             <c:if test="${totalPages > 1}">
                 <div class="pagination-container">
                     <div class="page-info">
                         Showing page <strong>${currentPage}</strong> of <strong>${totalPages}</strong>
                     </div>
 
+                    <%-- Page links keep the current sort and filter --%>
+                    <c:url var="pageBase" value="student">
+                        <c:param name="action" value="${empty param.action ? 'list' : param.action}"/>
+                        <c:if test="${not empty sortBy}"><c:param name="sortBy" value="${sortBy}"/></c:if>
+                        <c:if test="${not empty order}"><c:param name="order" value="${order}"/></c:if>
+                        <c:if test="${not empty filterMajor}"><c:param name="filterMajor" value="${filterMajor}"/></c:if>
+                        <c:if test="${not empty keyword}"><c:param name="keyword" value="${keyword}"/></c:if>
+                    </c:url>
                     <div class="pagination">
                         <c:choose>
                             <c:when test="${currentPage > 1}">
-                                <a href="student?action=list&page=${currentPage - 1}">« Previous</a>
+                                <a href="${pageBase}&page=${currentPage - 1}">« Previous</a>
                             </c:when>
                             <c:otherwise>
                                 <span class="disabled">« Previous</span>
@@ -506,12 +607,12 @@
                         </c:choose>
 
                         <c:forEach begin="1" end="${totalPages}" var="i">
-                            <a href="student?action=list&page=${i}" class="${i == currentPage ? 'active' : ''}">${i}</a>
+                            <a href="${pageBase}&page=${i}" class="${i == currentPage ? 'active' : ''}">${i}</a>
                         </c:forEach>
 
                         <c:choose>
                             <c:when test="${currentPage < totalPages}">
-                                <a href="student?action=list&page=${currentPage + 1}">Next »</a>
+                                <a href="${pageBase}&page=${currentPage + 1}">Next »</a>
                             </c:when>
                             <c:otherwise>
                                 <span class="disabled">Next »</span>
@@ -542,5 +643,35 @@
         </c:otherwise>
     </c:choose>
     </div>
+<script>
+    // Search box suggestions from /autocomplete (in-memory, no database query)
+    (function () {
+        var input = document.querySelector('.search-form .search-input');
+        var list = document.getElementById('student-suggestions');
+        var timer;
+        input.addEventListener('input', function () {
+            clearTimeout(timer);
+            var q = input.value.trim();
+            if (q.length < 2) {
+                list.innerHTML = '';
+                return;
+            }
+            timer = setTimeout(function () {
+                fetch('autocomplete?limit=10&q=' + encodeURIComponent(q))
+                    .then(function (response) { return response.json(); })
+                    .then(function (body) {
+                        list.innerHTML = '';
+                        body.suggestions.forEach(function (s) {
+                            var option = document.createElement('option');
+                            option.value = s.name;
+                            option.label = s.code;
+                            list.appendChild(option);
+                        });
+                    })
+                    .catch(function () { list.innerHTML = ''; });
+            }, 150);
+        });
+    })();
+</script>
 </body>
 </html>
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.student.dao;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void addedKeysAreAlwaysFound() {
+        BloomFilter filter = BloomFilter.create(20000, 0.01);
+        for (int i = 0; i < 20000; i++) {
+            filter.add("ST" + i);
+            filter.add("student" + i + "@example.edu");
+        }
+        for (int i = 0; i < 20000; i++) {
+            assertTrue("ST" + i, filter.mightContain("ST" + i));
+            assertTrue("email " + i, filter.mightContain("student" + i + "@example.edu"));
+        }
+        assertEquals(40000, filter.getAdded());
+    }
+
+    @Test
+    public void falsePositiveRateStaysNearTheConfiguredOne() {
+        int entries = 50000;
+        double rate = 0.01;
+        BloomFilter filter = BloomFilter.create(entries, rate);
+        for (int i = 0; i < entries; i++) {
+            filter.add("ST" + i);
+        }
+
+        int lookups = 200000;
+        int falsePositives = 0;
+        for (int i = 0; i < lookups; i++) {
+            if (filter.mightContain("XX" + i)) {
+                falsePositives++;
+            }
+        }
+        double measured = (double) falsePositives / lookups;
+        assertTrue("false positive rate " + measured, measured < rate * 1.5);
+        assertTrue("estimate " + filter.estimatedFalsePositiveRate(), filter.estimatedFalsePositiveRate() < rate * 1.5);
+    }
+
+    @Test
+    public void sizedFromExpectedEntriesAndRate() {
+        BloomFilter filter = BloomFilter.create(1000, 0.01);
+        // m = -n ln p / (ln 2)^2 = 9586 bits, rounded up to whole words; k = m/n ln 2 = 7
+        assertEquals(9600, filter.getBits());
+        assertEquals(7, filter.getHashes());
+        assertEquals(1200, filter.getMemoryBytes());
+    }
+}
@@ -0,0 +1,311 @@
+package com.student.dao;
+
+import com.student.model.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks ColumnTable pages, keyword filters and prefix search against the same queries run
+ * on a plain list of students. The "database" order is a collation that ignores case, accents
+ * and punctuation, so it differs from the code point order the table could sort by itself.
+ */
+public class ColumnTableTest {
+
+    private static final String[] LAST = {"Nguyễn", "Trần", "Lê", "Phạm", "Đặng", "Vo", "Ngo", "nguyen", "TRAN", "Bui"};
+    private static final String[] FIRST = {"An", "Bình", "Châu", "Dũng", "Hà", "hoa", "Linh", "Đức", "Anh", "Minh"};
+    private static final String[] MAJORS = {"Computer Science", "computer science", "Kinh tế", "Kinh Te", "Physics", null};
+    private static final String[] SORTS = {"id", "student_code", "full_name", "email", "major"};
+    private static final Map<String, String> NORMALIZED = new HashMap<>();
+    private static final Map<String, String> COLLATION_KEYS = new HashMap<>();
+
+    private final Random random = new Random(42);
+    private final Map<Integer, Student> reference = new LinkedHashMap<>();
+    private ColumnTable table;
+    private int nextId = 1;
+
+    @Before
+    public void setUp() {
+        table = new ColumnTable();
+        for (int i = 0; i < 3000; i++) {
+            Student student = randomStudent(nextId++);
+            reference.put(student.getId(), student);
+            table.load(new Student(student));
+        }
+        table.finishLoad();
+        assertFalse(table.isSorted());
+        assertTrue(table.setOrders(databaseOrders(), table.getRowCount()));
+    }
+
+    @Test
+    public void pagesFollowTheDatabaseOrder() {
+        assertPagesMatch();
+    }
+
+    @Test
+    public void rowsReadBackAsLoaded() {
+        int[] total = new int[1];
+        int[] rows = table.select(ColumnTable.ID, false, null, null, 0, reference.size(), total);
+        assertEquals(reference.size(), rows.length);
+        for (int row : rows) {
+            Student student = table.student(row);
+            Student expected = reference.get(student.getId());
+            assertArrayEquals(new String[]{expected.getStudentCode(), expected.getFullName(), expected.getEmail(),
+                    expected.getMajor()}, new String[]{student.getStudentCode(), student.getFullName(),
+                    student.getEmail(), student.getMajor()});
+        }
+    }
+
+    @Test
+    public void majorFilterIgnoresCaseAndAccents() {
+        boolean[] filter = table.majorFilter("KINH TE");
+        int[] total = new int[1];
+        table.select(ColumnTable.ID, false, filter, null, 0, 1000, total);
+        long expected = reference.values().stream()
+                .filter(s -> s.getMajor() != null && normalize(s.getMajor()).equals("kinh te"))
+                .count();
+        assertTrue(expected > 0);
+        assertEquals(expected, total[0]);
+    }
+
+    @Test
+    public void keywordMatchesNormalizedText() {
+        int[] total = new int[1];
+        int[] rows = table.select(ColumnTable.ID, false, null, "nguyen", 0, 1000, total);
+        List<Integer> expected = sorted(filter(null, "nguyen"), "id", false);
+        assertEquals(expected, ids(rows));
+        assertTrue(expected.stream().anyMatch(id -> reference.get(id).getFullName().startsWith("Nguyễn")));
+    }
+
+    @Test
+    public void appendedRowsMakeOrdersStaleUntilSetAgain() {
+        applyRandomChanges(150);
+
+        assertFalse(table.isSorted());
+        int[] total = new int[1];
+        assertNull(table.select(ColumnTable.NAME, false, null, null, 0, 10, total));
+        // The id order is kept in memory and stays usable
+        assertEquals(sorted(filter(null, null), "id", true).subList(0, 10),
+                ids(table.select(ColumnTable.ID, true, null, null, 0, 10, total)));
+
+        assertTrue(table.setOrders(databaseOrders(), table.getRowCount()));
+        assertPagesMatch();
+    }
+
+    @Test
+    public void ordersReadBeforeAnAppendAreRejected() {
+        int rowCount = table.getRowCount();
+        int[][] orders = databaseOrders();
+        applyRandomChanges(5);
+        assertFalse(table.setOrders(orders, rowCount));
+        assertFalse(table.isSorted());
+    }
+
+    @Test
+    public void deletesOnlyHideRows() {
+        List<StudentColumnStore.Change> changes = new ArrayList<>();
+        for (int id : new ArrayList<>(reference.keySet()).subList(0, 200)) {
+            if (id % 3 == 0) {
+                changes.add(new StudentColumnStore.Change(id, null, false));
+                reference.remove(id);
+            }
+        }
+        table.apply(changes);
+
+        assertTrue(table.isSorted());
+        assertEquals(reference.size(), table.getLiveCount());
+        assertPagesMatch();
+    }
+
+    @Test
+    public void prefixSearchTakesTheFirstCandidatesInDatabaseOrder() {
+        for (String keyword : new String[]{"nguyen", "Trần", "st00", "hoa", "dang.d"}) {
+            String prefix = normalize(keyword);
+            for (int limit : new int[]{5, 1000}) {
+                ColumnTable.Scores scores = new ColumnTable.Scores();
+                assertTrue(table.scorePrefix(ColumnTable.CODE, prefix, 100, 70, scores, limit));
+                assertTrue(table.scorePrefix(ColumnTable.NAME, prefix, 90, 60, scores, limit));
+                assertTrue(table.scorePrefix(ColumnTable.EMAIL, prefix, 80, 50, scores, limit));
+                int[] rows = table.rank(scores, 0, 10000);
+
+                Map<Integer, Integer> expected = new HashMap<>();
+                addPrefixScores(expected, "student_code", Student::getStudentCode, prefix, 100, 70, limit);
+                addPrefixScores(expected, "full_name", Student::getFullName, prefix, 90, 60, limit);
+                addPrefixScores(expected, "email", Student::getEmail, prefix, 80, 50, limit);
+                List<Integer> ranked = expected.keySet().stream()
+                        .sorted(Comparator.comparing((Integer id) -> -expected.get(id)).thenComparing(id -> -id))
+                        .collect(Collectors.toList());
+                assertEquals(keyword + " limit " + limit, ranked, ids(rows));
+            }
+        }
+    }
+
+    @Test
+    public void prefixSearchOverTheLimitNeedsCurrentOrders() {
+        applyRandomChanges(10);
+        ColumnTable.Scores scores = new ColumnTable.Scores();
+        assertFalse(table.scorePrefix(ColumnTable.NAME, "", 90, 60, scores, 5));
+        assertTrue(table.scorePrefix(ColumnTable.CODE, "no such code", 100, 70, scores, 5));
+    }
+
+    // --- Reference ---
+
+    private void assertPagesMatch() {
+        String[] majors = {null, "computer science", "Physics", "Kinh Te", "thien van"};
+        for (String sort : SORTS) {
+            for (boolean descending : new boolean[]{false, true}) {
+                for (String major : majors) {
+                    for (String keyword : new String[]{null, "an", "ĐỨC", "@", "255@"}) {
+                        List<Integer> expected = sorted(filter(major, keyword), sort, descending);
+                        for (int offset : new int[]{0, 7, 50, expected.size() - 3, expected.size() + 5}) {
+                            if (offset < 0) {
+                                continue;
+                            }
+                            int[] total = new int[1];
+                            int[] rows = table.select(ColumnTable.column(sort), descending, table.majorFilter(major),
+                                    keyword, offset, 10, total);
+                            String query = sort + (descending ? " desc" : " asc") + " major=" + major
+                                    + " keyword=" + keyword + " offset=" + offset;
+                            assertEquals(query, expected.size(), total[0]);
+                            assertEquals(query, expected.subList(Math.min(offset, expected.size()),
+                                    Math.min(offset + 10, expected.size())), ids(rows));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private List<Student> filter(String major, String keyword) {
+        String key = keyword == null ? null : normalize(keyword);
+        return reference.values().stream()
+                .filter(s -> major == null || (s.getMajor() != null
+                        && normalize(s.getMajor()).equals(normalize(major))))
+                .filter(s -> key == null || contains(s.getStudentCode(), key) || contains(s.getFullName(), key)
+                        || contains(s.getEmail(), key))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean contains(String value, String key) {
+        return value != null && normalize(value).contains(key);
+    }
+
+    private static List<Integer> sorted(List<Student> students, String sort, boolean descending) {
+        List<Integer> ids = students.stream().sorted(collation(sort)).map(Student::getId).collect(Collectors.toList());
+        if (descending) {
+            Collections.reverse(ids);
+        }
+        return ids;
+    }
+
+    // ORDER BY col, id in a collation that ignores case, accents and punctuation
+    private static Comparator<Student> collation(String sort) {
+        Comparator<Student> byId = Comparator.comparingInt(Student::getId);
+        if ("id".equals(sort)) {
+            return byId;
+        }
+        Function<Student, String> value = value(sort);
+        return Comparator.comparing((Student s) -> collationKey(value.apply(s))).thenComparing(byId);
+    }
+
+    private static String collationKey(String value) {
+        return COLLATION_KEYS.computeIfAbsent(normalize(value), key -> key.replaceAll("[^\\p{L}\\p{N}]", ""));
+    }
+
+    // The reference compares the same few hundred values over and over
+    private static String normalize(String value) {
+        return value == null ? "" : NORMALIZED.computeIfAbsent(value, StudentSearchIndex::normalize);
+    }
+
+    private static Function<Student, String> value(String sort) {
+        switch (sort) {
+            case "student_code":
+                return Student::getStudentCode;
+            case "full_name":
+                return Student::getFullName;
+            case "email":
+                return Student::getEmail;
+            default:
+                return Student::getMajor;
+        }
+    }
+
+    private int[][] databaseOrders() {
+        int[][] orders = new int[ColumnTable.MAJOR + 1][];
+        for (String sort : SORTS) {
+            if (!"id".equals(sort)) {
+                orders[ColumnTable.column(sort)] = sorted(new ArrayList<>(reference.values()), sort, false)
+                        .stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        return orders;
+    }
+
+    // The SQL branch: the first limit rows of the range in (value, id) order
+    private void addPrefixScores(Map<Integer, Integer> scores, String sort, Function<Student, String> value,
+                                 String prefix, int exactScore, int prefixScore, int limit) {
+        reference.values().stream()
+                .filter(s -> value.apply(s) != null && normalize(value.apply(s)).startsWith(prefix))
+                .sorted(collation(sort))
+                .limit(limit)
+                .forEach(s -> scores.merge(s.getId(),
+                        normalize(value.apply(s)).equals(prefix) ? exactScore : prefixScore,
+                        Integer::sum));
+    }
+
+    private void applyRandomChanges(int count) {
+        List<StudentColumnStore.Change> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<Integer> ids = new ArrayList<>(reference.keySet());
+            int choice = random.nextInt(3);
+            if (choice == 0) {
+                Student student = randomStudent(nextId++);
+                reference.put(student.getId(), student);
+                changes.add(new StudentColumnStore.Change(student.getId(), new Student(student), false));
+            } else if (choice == 1) {
+                Student student = randomStudent(ids.get(random.nextInt(ids.size())));
+                reference.put(student.getId(), student);
+                changes.add(new StudentColumnStore.Change(student.getId(), new Student(student), false));
+            } else {
+                int id = ids.get(random.nextInt(ids.size()));
+                reference.remove(id);
+                changes.add(new StudentColumnStore.Change(id, null, false));
+            }
+        }
+        table.apply(changes);
+    }
+
+    private Student randomStudent(int id) {
+        String last = LAST[random.nextInt(LAST.length)];
+        String first = FIRST[random.nextInt(FIRST.length)];
+        String email = random.nextInt(10) == 0 ? null
+                : StudentSearchIndex.normalize(first + (random.nextBoolean() ? "." : "_") + last).replace(' ', '.')
+                + id + "@example.edu";
+        // A few students in a rare major: small results are sorted instead of walked
+        String major = random.nextInt(400) == 0 ? "Thiên Văn" : MAJORS[random.nextInt(MAJORS.length)];
+        Student student = new Student(String.format("ST%05d", random.nextInt(100000)), last + " " + first, email, major);
+        student.setId(id);
+        return student;
+    }
+
+    private List<Integer> ids(int[] rows) {
+        return Arrays.stream(rows).mapToObj(row -> table.student(row).getId()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,79 @@
+package com.student.dao;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class PageCursorTest {
+
+    @Test
+    public void roundTrip() {
+        PageCursor cursor = PageCursor.decode(new PageCursor("Nguyễn Văn An", 42).encode());
+        assertNotNull(cursor);
+        assertEquals("Nguyễn Văn An", cursor.getSortValue());
+        assertEquals(42, cursor.getLastId());
+    }
+
+    @Test
+    public void sortValueMayContainTheSeparator() {
+        PageCursor cursor = PageCursor.decode(new PageCursor("a:b::c:", 7).encode());
+        assertNotNull(cursor);
+        assertEquals("a:b::c:", cursor.getSortValue());
+        assertEquals(7, cursor.getLastId());
+    }
+
+    @Test
+    public void nullSortValueComesBackEmpty() {
+        PageCursor cursor = PageCursor.decode(new PageCursor(null, 3).encode());
+        assertNotNull(cursor);
+        assertEquals("", cursor.getSortValue());
+        assertEquals(3, cursor.getLastId());
+    }
+
+    @Test
+    public void encodedCursorIsUrlSafe() {
+        String token = new PageCursor("??>>~~//++", Integer.MAX_VALUE).encode();
+        assertFalse(token.contains("+"));
+        assertFalse(token.contains("/"));
+        assertFalse(token.contains("="));
+    }
+
+    @Test
+    public void surroundingWhitespaceIsIgnored() {
+        String token = new PageCursor("x", 5).encode();
+        assertEquals(5, PageCursor.decode("  " + token + "\n").getLastId());
+    }
+
+    @Test
+    public void emptyOrMissingCursorIsNull() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+        assertNull(PageCursor.decode("   "));
+    }
+
+    @Test
+    public void malformedOrTamperedCursorIsNull() {
+        // Not Base64
+        assertNull(PageCursor.decode("not a cursor!"));
+        assertNull(PageCursor.decode("%%%"));
+        // Base64, but no separator, or an id that is not a number
+        assertNull(PageCursor.decode(encode("12345")));
+        assertNull(PageCursor.decode(encode("abc:Nguyen")));
+        assertNull(PageCursor.decode(encode(":Nguyen")));
+        assertNull(PageCursor.decode(encode("99999999999:Nguyen")));
+        // A character of a valid token changed
+        String token = new PageCursor("Nguyen", 10).encode();
+        String tampered = "!" + token.substring(1);
+        assertNull(PageCursor.decode(tampered));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+package com.student.service;
+
+import com.student.dao.StudentDAO;
+import com.student.model.Student;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StudentImportServiceTest {
+
+    @Test
+    public void plainFields() {
+        assertEquals(Arrays.asList("SV001", "Nguyen Van An", "an@example.edu", "Computer Science"),
+                StudentImportService.parseCsvLine("SV001,Nguyen Van An,an@example.edu,Computer Science"));
+    }
+
+    @Test
+    public void quotedFieldsKeepCommas() {
+        assertEquals(Arrays.asList("SV002", "Tran, Thi Binh", "binh@example.edu", "Kinh te, Luat"),
+                StudentImportService.parseCsvLine("SV002,\"Tran, Thi Binh\",binh@example.edu,\"Kinh te, Luat\""));
+    }
+
+    @Test
+    public void doubledQuotesAreOneQuote() {
+        assertEquals(Arrays.asList("SV003", "Le \"Bo\" Van", "", "Physics"),
+                StudentImportService.parseCsvLine("SV003,\"Le \"\"Bo\"\" Van\",,Physics"));
+        assertEquals(Arrays.asList("\""), StudentImportService.parseCsvLine("\"\"\"\""));
+        assertEquals(Arrays.asList(""), StudentImportService.parseCsvLine("\"\""));
+    }
+
+    @Test
+    public void trailingEmptyFieldIsKept() {
+        assertEquals(Arrays.asList("SV004", "Pham Minh", "minh@example.edu", ""),
+                StudentImportService.parseCsvLine("SV004,Pham Minh,minh@example.edu,"));
+        assertEquals(Arrays.asList("", "", ""), StudentImportService.parseCsvLine(",,"));
+        assertEquals(Arrays.asList(""), StudentImportService.parseCsvLine(""));
+    }
+
+    @Test
+    public void headerIsRecognizedAfterAByteOrderMark() {
+        assertTrue(StudentImportService.isHeader(StudentImportService.parseCsvLine("student_code,full_name,email,major")));
+        assertTrue(StudentImportService.isHeader(StudentImportService.parseCsvLine("\uFEFFstudent_code,full_name,email,major")));
+        assertTrue(StudentImportService.isHeader(StudentImportService.parseCsvLine("\uFEFF\"Student_Code\",Full Name")));
+        assertFalse(StudentImportService.isHeader(StudentImportService.parseCsvLine("SV001,Nguyen Van An,,IT")));
+    }
+
+    @Test
+    public void importSkipsTheHeaderAndReportsBadRows() throws IOException {
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        String csv = "student_code,full_name,email,major\r\n"
+                + "SV001,\"Nguyễn, Văn An\",an@example.edu,Computer Science\r\n"
+                + "\r\n"
+                + "bad,X,,Physics\r\n"
+                + "SV002,Tran Thi Binh,,\r\n"
+                + "SV001,Duplicate Code,dup@example.edu,Physics\r\n"
+                + "SV003,Le Van Cuong,cuong@example.edu,Physics\r\n";
+        byte[] body = csv.getBytes(StandardCharsets.UTF_8);
+        byte[] file = new byte[bom.length + body.length];
+        System.arraycopy(bom, 0, file, 0, bom.length);
+        System.arraycopy(body, 0, file, bom.length, body.length);
+
+        RecordingDAO dao = new RecordingDAO();
+        StudentImportService.ImportResult result = new StudentImportService(dao).importCsv(new ByteArrayInputStream(file), 100);
+
+        assertEquals(5, result.getTotalRows());
+        assertEquals(2, result.getInserted());
+        assertEquals(Arrays.asList("SV001", "SV003"), codes(dao.inserted));
+        assertEquals("Nguyễn, Văn An", dao.inserted.get(0).getFullName());
+
+        List<Integer> errorLines = new ArrayList<>();
+        for (StudentImportService.RowError error : result.getErrors()) {
+            errorLines.add(error.getLine());
+        }
+        assertEquals(Arrays.asList(4, 5, 6), errorLines);
+        assertTrue(result.getErrors().get(2).getMessage().contains("Duplicate student code"));
+    }
+
+    private static List<String> codes(List<Student> students) {
+        List<String> codes = new ArrayList<>();
+        for (Student student : students) {
+            codes.add(student.getStudentCode());
+        }
+        return codes;
+    }
+
+    // No database: nothing is taken, every batch row is inserted
+    private static final class RecordingDAO extends StudentDAO {
+        final List<Student> inserted = new ArrayList<>();
+
+        @Override
+        public Map<Integer, String> findTaken(List<Student> students) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<Integer, String> addStudentsBatch(List<Student> students, int batchSize) {
+            inserted.addAll(students);
+            return Collections.emptyMap();
+        }
+    }
+}